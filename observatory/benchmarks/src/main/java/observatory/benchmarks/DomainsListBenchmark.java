@@ -0,0 +1,87 @@
+package observatory.benchmarks;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.poi.ss.usermodel.Workbook;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import observatory.internetnlAPI.config.RequestType;
+import observatory.util.InvalidFormatException;
+import observatory.util.Util;
+
+/**
+ * Reading the domains of a list from a large domains workbook.
+ *
+ * @author Henrique Campos Ferreira
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class DomainsListBenchmark
+{
+    @Param({ "10" })
+    public int lists;
+
+    @Param({ "10000", "100000" })
+    public int domains;
+
+    private File workbookFile;
+
+    private Workbook workbook;
+
+    @Setup
+    public void setup() throws IOException, InvalidFormatException
+    {
+        this.workbookFile = Fixtures.tempFile("domains", ".xlsx");
+        Fixtures.domainsWorkbook(this.workbookFile, this.lists, this.domains);
+        this.workbook = openWorkbook(this.workbookFile);
+    }
+
+    @TearDown
+    public void tearDown() throws IOException
+    {
+        this.workbook.close();
+    }
+
+    @Benchmark
+    public String[] getDomainsList()
+    {
+        return Util.getDomainsList(this.workbook, Fixtures.listName(this.lists), RequestType.WEB);
+    }
+
+    @Benchmark
+    public String[] openAndGetDomainsList() throws IOException, InvalidFormatException
+    {
+        try (Workbook workbook = openWorkbook(this.workbookFile)) {
+            return Util.getDomainsList(workbook, Fixtures.listName(this.lists), RequestType.WEB);
+        }
+    }
+
+    /**
+     * Open a workbook read-only, as done by the test command.
+     */
+    private static Workbook openWorkbook(File file) throws IOException, InvalidFormatException
+    {
+        try (InputStream input = new FileInputStream(file)) {
+            return Util.openWorkbook(input);
+        }
+    }
+}
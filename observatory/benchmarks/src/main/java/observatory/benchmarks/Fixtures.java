@@ -0,0 +1,150 @@
+package observatory.benchmarks;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.time.Instant;
+import java.util.LinkedHashMap;
+
+import org.apache.poi.ss.usermodel.Row;
+import org.apache.poi.ss.usermodel.Sheet;
+import org.apache.poi.xssf.streaming.SXSSFWorkbook;
+
+import observatory.internetnlAPI.config.InternetnlRequest;
+import observatory.internetnlAPI.config.RequestType;
+import observatory.internetnlAPI.config.testResult.TestResult;
+import observatory.internetnlAPI.config.testResult.domain.DomainResults;
+import observatory.simulator.SyntheticResults;
+
+/**
+ * Synthetic fixtures of the benchmarks: results of lists of domains and domains workbooks.
+ *
+ * @author Henrique Campos Ferreira
+ */
+public class Fixtures
+{
+    /**
+     * The folder of the report templates, relative to the benchmarks folder by default.
+     */
+    public static final String PROPERTY_TEMPLATES_FOLDER = "observatory.templates";
+
+    private static final String DEFAULT_TEMPLATES_FOLDER = "../config";
+
+    private static final long SEED = 42;
+
+    private Fixtures() {}
+
+    /**
+     * Get the name of a synthetic domain.
+     * @param list - The index of the list.
+     * @param domain - The index of the domain in the list.
+     * @return The domain.
+     */
+    public static String domain(int list, int domain)
+    {
+        return String.format("domain-%d-%07d.pt", list, domain);
+    }
+
+    /**
+     * Generate the results of a list.
+     * @param name - The name of the list.
+     * @param type - The type of test.
+     * @param domains - The number of domains.
+     * @return The results of the list.
+     */
+    public static TestResult testResult(String name, RequestType type, int domains)
+    {
+        SyntheticResults generator = new SyntheticResults(SEED);
+        String requestId = "bench-" + name;
+
+        LinkedHashMap<String, DomainResults> results = new LinkedHashMap<>();
+        for (int i = 0; i < domains; i++)
+        {
+            String domain = domain(0, i);
+            results.put(domain, generator.generate(domain, type, requestId));
+        }
+
+        InternetnlRequest request = new InternetnlRequest();
+        request.setRequest_id(requestId);
+        request.setName(name);
+        request.setRequest_type(type);
+        request.setStatus("done");
+        request.setSubmit_date(Instant.EPOCH.toString());
+        request.setFinished_date(Instant.EPOCH.toString());
+
+        TestResult result = new TestResult();
+        result.setApi_version("2.0");
+        result.setRequest(request);
+        result.setDomains(results);
+        return result;
+    }
+
+    /**
+     * Write a domains workbook with the format expected by the test command:
+     * one sheet per list, with a web and a mail column.
+     * @param file - The workbook file.
+     * @param lists - The number of lists (sheets), named LIST1, LIST2, ...
+     * @param domains - The number of domains of each list.
+     * @throws IOException
+     */
+    public static void domainsWorkbook(File file, int lists, int domains) throws IOException
+    {
+        try
+        (
+            SXSSFWorkbook workbook = new SXSSFWorkbook(1000);
+            OutputStream output = new FileOutputStream(file);
+        )
+        {
+            for (int list = 1; list <= lists; list++)
+            {
+                Sheet sheet = workbook.createSheet(listName(list));
+                Row header = sheet.createRow(0);
+                header.createCell(0).setCellValue(RequestType.WEB.getType());
+                header.createCell(1).setCellValue(RequestType.MAIL.getType());
+
+                for (int i = 0; i < domains; i++)
+                {
+                    Row row = sheet.createRow(i + 1);
+                    row.createCell(0).setCellValue(domain(list, i));
+                    row.createCell(1).setCellValue(domain(list, i));
+                }
+            }
+
+            workbook.write(output);
+            workbook.dispose();
+        }
+    }
+
+    /**
+     * @param list - The index of the list, from 1.
+     * @return The name of the list in a domains workbook.
+     */
+    public static String listName(int list)
+    {
+        return "LIST" + list;
+    }
+
+    /**
+     * @param type - The type of report.
+     * @return The report template of the specified type.
+     */
+    public static File reportTemplate(RequestType type)
+    {
+        File folder = new File(System.getProperty(PROPERTY_TEMPLATES_FOLDER, DEFAULT_TEMPLATES_FOLDER));
+        return new File(folder, "template-report-" + type.getType() + ".xlsx");
+    }
+
+    /**
+     * @param prefix
+     * @param suffix
+     * @return A temporary file deleted when the JVM exits.
+     * @throws IOException
+     */
+    public static File tempFile(String prefix, String suffix) throws IOException
+    {
+        File file = File.createTempFile(prefix, suffix);
+        file.deleteOnExit();
+        return file;
+    }
+}
@@ -0,0 +1,86 @@
+package observatory.benchmarks;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import observatory.tests.Index;
+import observatory.util.InvalidFormatException;
+
+/**
+ * Tracking the tests of a scan in the Index: each test is associated to its list,
+ * then saved, and the index is saved after each change, as done by TestDomains.
+ *
+ * @author Henrique Campos Ferreira
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Fork(1)
+public class IndexBenchmark
+{
+    @Param({ "100", "1000" })
+    public int lists;
+
+    private File indexFile;
+
+    private File populatedIndexFile;
+
+    @Setup(Level.Trial)
+    public void setupPopulated() throws IOException
+    {
+        this.populatedIndexFile = Fixtures.tempFile("index-populated", ".journal");
+        this.populatedIndexFile.delete();
+        track(Index.empty(this.populatedIndexFile), this.lists);
+    }
+
+    @Setup(Level.Invocation)
+    public void setupEmpty() throws IOException
+    {
+        this.indexFile = Fixtures.tempFile("index", ".journal");
+        this.indexFile.delete();
+    }
+
+    @Benchmark
+    public Index trackTests() throws IOException
+    {
+        Index index = Index.empty(this.indexFile);
+        track(index, this.lists);
+        return index;
+    }
+
+    @Benchmark
+    public Index fromFile() throws IOException, InvalidFormatException
+    {
+        return Index.fromFile(this.populatedIndexFile);
+    }
+
+    private static void track(Index index, int lists) throws IOException
+    {
+        for (int i = 0; i < lists; i++)
+        {
+            String list = Fixtures.listName(i + 1);
+            String testId = "bench-" + i;
+
+            index.assocList(list, testId);
+            index.save();
+            index.assocSavedList(list, testId);
+            index.save();
+        }
+    }
+}
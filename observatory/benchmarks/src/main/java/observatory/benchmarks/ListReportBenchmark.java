@@ -0,0 +1,89 @@
+package observatory.benchmarks;
+
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.poi.ss.usermodel.Sheet;
+import org.apache.poi.ss.usermodel.Workbook;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import observatory.internetnlAPI.config.RequestType;
+import observatory.internetnlAPI.config.testResult.ListResultsTable;
+import observatory.report.ListReport;
+import observatory.util.InvalidFormatException;
+import observatory.util.Util;
+
+/**
+ * Generating the report of a list, on a fresh copy of the report template each time.
+ *
+ * @author Henrique Campos Ferreira
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class ListReportBenchmark
+{
+    private static final String LIST_RESULTS_TEMPLATE_SHEET_NAME = "ListResults";
+
+    @Param({ "1000", "10000", "100000" })
+    public int domains;
+
+    @Param({ "WEB" })
+    public RequestType type;
+
+    @Param({ "false" })
+    public boolean fullReport;
+
+    private ListResultsTable listResults;
+
+    private Workbook workbook;
+
+    private Sheet template;
+
+    @Setup(Level.Trial)
+    public void setupResults()
+    {
+        this.listResults = ListResultsTable.from(Fixtures.testResult("LIST1", this.type, this.domains));
+    }
+
+    @Setup(Level.Invocation)
+    public void setupTemplate() throws IOException, InvalidFormatException
+    {
+        // opened read-only, so the template is never written back.
+        try (InputStream input = new FileInputStream(Fixtures.reportTemplate(this.type))) {
+            this.workbook = Util.openWorkbook(input);
+        }
+        this.template = this.workbook.getSheet(LIST_RESULTS_TEMPLATE_SHEET_NAME);
+    }
+
+    @TearDown(Level.Invocation)
+    public void closeTemplate() throws IOException
+    {
+        this.workbook.close();
+    }
+
+    @Benchmark
+    public Sheet generateReport()
+    {
+        ListReport report = new ListReport(this.template, this.listResults.getName(), this.listResults);
+        report.setFullReport(this.fullReport);
+        return report.generateReport();
+    }
+}
@@ -0,0 +1,94 @@
+package observatory.benchmarks;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+
+import observatory.internetnlAPI.config.RequestType;
+import observatory.internetnlAPI.config.testResult.domain.Category;
+import observatory.internetnlAPI.config.testResult.domain.CustomTest;
+import observatory.internetnlAPI.config.testResult.domain.DomainResults;
+import observatory.internetnlAPI.config.testResult.domain.Results;
+import observatory.internetnlAPI.config.testResult.domain.Test;
+import observatory.util.JSONconfig;
+
+/**
+ * Decoding the results of the domains of a list into the enum maps of {@link Results},
+ * and looking up the names of the tests, categories and custom tests.
+ *
+ * @author Henrique Campos Ferreira
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ResultsEnumBenchmark
+{
+    @Param({ "1000" })
+    public int domains;
+
+    @Param({ "WEB", "MAIL" })
+    public RequestType type;
+
+    private List<byte[]> encoded;
+
+    private List<String> names;
+
+    private ObjectReader reader;
+
+    @Setup
+    public void setup() throws IOException
+    {
+        JsonMapper mapper = JSONconfig.getJSONmapper();
+        this.reader = mapper.readerFor(Results.class);
+        this.encoded = new ArrayList<>(this.domains);
+        for (DomainResults domain : Fixtures.testResult("LIST1", this.type, this.domains).getDomains().values())
+            this.encoded.add(mapper.writeValueAsBytes(domain.getResults()));
+
+        this.names = new ArrayList<>();
+        for (Test test : Test.values(this.type))
+            this.names.add(test.getTest());
+        for (Category category : Category.values(this.type))
+            this.names.add(category.getCategory());
+        for (CustomTest test : CustomTest.values())
+            this.names.add(test.getTest());
+    }
+
+    @Benchmark
+    public void decode(Blackhole blackhole) throws IOException
+    {
+        for (byte[] domain : this.encoded)
+            blackhole.consume(this.reader.<Results>readValue(domain));
+    }
+
+    @Benchmark
+    public void lookup(Blackhole blackhole)
+    {
+        for (int i = 0; i < this.domains; i++)
+            for (String name : this.names)
+            {
+                blackhole.consume(Test.getEnumValue(name));
+                blackhole.consume(Category.getEnumValue(name));
+                blackhole.consume(CustomTest.getEnumValue(name));
+            }
+    }
+}
@@ -0,0 +1,283 @@
+package observatory.benchmarks;
+
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.Writer;
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+
+import observatory.Main;
+import observatory.argsParser.ParserException;
+import observatory.argsParser.options.Option;
+import observatory.argsParser.options.OptionType;
+import observatory.argsParser.options.OptionValue;
+import observatory.argsParser.options.ParseOptions;
+import observatory.internetnlAPI.config.RequestType;
+import observatory.simulator.BatchSimulator;
+import observatory.simulator.SimulatorSettings;
+import observatory.util.PhaseTimer;
+
+/**
+ * End-to-end scan harness: generates a domains workbook with N lists of M domains,
+ * runs the test command against an in-process {@link BatchSimulator} and then the report command,
+ * and writes the time spent in each phase, the peak memory and the GC activity to a JSON file.
+ * The commands run through {@link Main#main(String[])}, so the whole test and report paths are measured.
+ * The tests are polled every second, so the wait phase measures the simulated test time
+ * and not the interval between two polls.
+ *
+ * @author Henrique Campos Ferreira
+ */
+public class ScanHarness
+{
+    private static final Option OPTION_LISTS = new Option("--lists", OptionType.SINGLE);
+    private static final Option OPTION_DOMAINS = new Option("--domains", OptionType.SINGLE);
+    private static final Option OPTION_TYPE = new Option("--type", OptionType.SINGLE);
+    private static final Option OPTION_PARALLEL = new Option("--parallel", OptionType.SINGLE);
+    private static final Option OPTION_COMPLETION_PER_DOMAIN = new Option("--completion-per-domain", OptionType.SINGLE);
+    private static final Option OPTION_DIR = new Option("--dir", OptionType.SINGLE);
+    private static final Option OPTION_OUT = new Option("--out", OptionType.SINGLE);
+
+    private static final ParseOptions PARSE_OPTIONS = new ParseOptions(Set.of(OPTION_LISTS, OPTION_DOMAINS,
+        OPTION_TYPE, OPTION_PARALLEL, OPTION_COMPLETION_PER_DOMAIN, OPTION_DIR, OPTION_OUT));
+
+    private static final String POLL_INTERVAL_SECONDS = "1";
+
+    private static final String PROC_STATUS = "/proc/self/status";
+    private static final String PEAK_RSS_FIELD = "VmHWM:";
+
+    public static void main(String[] args) throws Exception
+    {
+        List<String> argsList = new LinkedList<>(List.of(args));
+        Map<Option, OptionValue> options;
+        try {
+            options = PARSE_OPTIONS.parse(argsList);
+            if (!argsList.isEmpty())
+                throw new ParserException("Unknown arguments: " + String.join(" ", argsList));
+        } catch (ParserException e) {
+            System.err.println(e.getMessage());
+            printHelp();
+            System.exit(1);
+            return;
+        }
+
+        int lists = Integer.parseInt(getOption(options, OPTION_LISTS, "10"));
+        int domains = Integer.parseInt(getOption(options, OPTION_DOMAINS, "1000"));
+        RequestType type = RequestType.parseType(getOption(options, OPTION_TYPE, RequestType.WEB.getType()));
+        int parallel = Integer.parseInt(getOption(options, OPTION_PARALLEL, "4"));
+        long completionPerDomain = Long.parseLong(getOption(options, OPTION_COMPLETION_PER_DOMAIN, "1"));
+        File dir = options.containsKey(OPTION_DIR) ? new File(options.get(OPTION_DIR).getSingle())
+            : Files.createTempDirectory("observatory-scan").toFile();
+        File out = new File(getOption(options, OPTION_OUT, new File(dir, "scan-harness.json").getPath()));
+
+        if (type == null || lists <= 0 || domains <= 0 || parallel <= 0 || completionPerDomain < 0)
+            throw new IllegalArgumentException("Invalid harness parameters.");
+
+        dir.mkdirs();
+        new ScanHarness(lists, domains, type, parallel, completionPerDomain, dir).run(out);
+        System.out.println("Scan harness results saved to " + out);
+    }
+
+    private static String getOption(Map<Option, OptionValue> options, Option option, String defaultValue)
+    {
+        OptionValue value = options.get(option);
+        return value == null ? defaultValue : value.getSingle();
+    }
+
+    private static void printHelp()
+    {
+        System.out.println("-> ScanHarness [options]");
+        System.out.println("Run the test and report commands against a local batch API simulator.\n");
+        System.out.println(
+            "[options]:\n" +
+            "\t" + OPTION_LISTS.getName() + " n -> The number of lists (sheets) of the domains workbook. Defaults to 10.\n" +
+            "\t" + OPTION_DOMAINS.getName() + " n -> The number of domains of each list. Defaults to 1000.\n" +
+            "\t" + OPTION_TYPE.getName() + " <web | mail> -> The type of tests. Defaults to web.\n" +
+            "\t" + OPTION_PARALLEL.getName() + " n -> The number of lists tested concurrently. Defaults to 4.\n" +
+            "\t" + OPTION_COMPLETION_PER_DOMAIN.getName() + " millis -> The simulated test time per domain. Defaults to 1.\n" +
+            "\t" + OPTION_DIR.getName() + " dir -> The working directory. Defaults to a new temporary directory.\n" +
+            "\t" + OPTION_OUT.getName() + " file -> The results file. Defaults to scan-harness.json in the working directory.\n"
+        );
+    }
+
+
+    private final int lists, domains, parallel;
+
+    private final RequestType type;
+
+    private final long completionPerDomain;
+
+    private final File dir;
+
+    private ScanHarness(int lists, int domains, RequestType type, int parallel, long completionPerDomain, File dir)
+    {
+        this.lists = lists;
+        this.domains = domains;
+        this.type = type;
+        this.parallel = parallel;
+        this.completionPerDomain = completionPerDomain;
+        this.dir = dir;
+    }
+
+    private void run(File out) throws IOException
+    {
+        Map<String, Object> results = new LinkedHashMap<>();
+        results.put("date", Instant.now().toString());
+        results.put("version", Main.VERSION);
+        results.put("java", System.getProperty("java.version"));
+        results.put("parameters", parameters());
+
+        Map<String, Object> commands = new LinkedHashMap<>();
+
+        long startedAt = System.nanoTime();
+        File domainsFile = new File(this.dir, "domains.xlsx");
+        Fixtures.domainsWorkbook(domainsFile, this.lists, this.domains);
+        commands.put("generate_workbook_ms", millisSince(startedAt));
+
+        SimulatorSettings settings = new SimulatorSettings();
+        settings.setCompletionMillis(0);
+        settings.setCompletionMillisPerDomain(this.completionPerDomain);
+        settings.setMaxDomains(Math.max(this.domains, settings.getMaxDomains()));
+
+        try (BatchSimulator simulator = new BatchSimulator(0, settings))
+        {
+            simulator.start();
+            File configFile = writeConfig(simulator);
+
+            PhaseTimer.reset();
+            startedAt = System.nanoTime();
+            Main.main(new String[] {
+                "test", this.type.getType(),
+                "--dir", this.dir.getPath(),
+                "--conf", configFile.getPath(),
+                "--dom", domainsFile.getPath(),
+                "--parallel", Integer.toString(this.parallel),
+                "--poll", "fixed",
+                "--poll-interval", POLL_INTERVAL_SECONDS
+            });
+            commands.put("test_ms", millisSince(startedAt));
+            results.put("simulator", simulator.toString());
+        }
+
+        List<String> reportArgs = new ArrayList<>(List.of(
+            "report", this.type.getType(),
+            "--template", Fixtures.reportTemplate(this.type).getPath(),
+            new File(this.dir, "report.xlsx").getPath()));
+        for (int list = 1; list <= this.lists; list++)
+            reportArgs.add(new File(this.dir, Fixtures.listName(list) + ".json").getPath());
+
+        startedAt = System.nanoTime();
+        Main.main(reportArgs.toArray(String[]::new));
+        commands.put("report_ms", millisSince(startedAt));
+
+        results.put("commands", commands);
+        results.put("phases", phases());
+        results.put("memory", memory());
+        results.put("gc", gc());
+
+        try (Writer writer = new FileWriter(out)) {
+            JsonMapper.builder().enable(SerializationFeature.INDENT_OUTPUT).build().writeValue(writer, results);
+        }
+    }
+
+    private Map<String, Object> parameters()
+    {
+        Map<String, Object> parameters = new LinkedHashMap<>();
+        parameters.put("lists", this.lists);
+        parameters.put("domains_per_list", this.domains);
+        parameters.put("type", this.type.getType());
+        parameters.put("parallel", this.parallel);
+        parameters.put("completion_per_domain_ms", this.completionPerDomain);
+        parameters.put("poll_interval_s", Integer.parseInt(POLL_INTERVAL_SECONDS));
+        parameters.put("max_heap_bytes", Runtime.getRuntime().maxMemory());
+        parameters.put("processors", Runtime.getRuntime().availableProcessors());
+        return parameters;
+    }
+
+    private File writeConfig(BatchSimulator simulator) throws IOException
+    {
+        File configFile = new File(this.dir, "intnl.properties");
+        try (Writer writer = new FileWriter(configFile))
+        {
+            writer.write("endpoint=" + simulator.getEndpoint() + "\n");
+            writer.write("username=harness\n");
+            writer.write("password=harness\n");
+        }
+        return configFile;
+    }
+
+    private static Map<String, Object> phases()
+    {
+        Map<String, Object> phases = new LinkedHashMap<>();
+        PhaseTimer.snapshot().forEach((name, phase) ->
+            {
+                Map<String, Object> values = new LinkedHashMap<>();
+                values.put("count", phase.getCount());
+                values.put("total_ms", phase.getTotalMillis());
+                values.put("wall_ms", phase.getWallMillis());
+                phases.put(name, values);
+            });
+        return phases;
+    }
+
+    private static Map<String, Object> memory() throws IOException
+    {
+        long peakHeap = 0;
+        for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans())
+            if (pool.getType() == MemoryType.HEAP && pool.getPeakUsage() != null)
+                peakHeap += pool.getPeakUsage().getUsed();
+
+        Map<String, Object> memory = new LinkedHashMap<>();
+        memory.put("peak_rss_bytes", peakRss());
+        memory.put("peak_heap_bytes", peakHeap);
+        return memory;
+    }
+
+    /**
+     * @return The peak resident set size of the process, or null if not available (only on Linux).
+     */
+    private static Long peakRss() throws IOException
+    {
+        Path status = Path.of(PROC_STATUS);
+        if (!Files.isReadable(status))
+            return null;
+
+        for (String line : Files.readAllLines(status))
+            if (line.startsWith(PEAK_RSS_FIELD))
+                return Long.parseLong(line.substring(PEAK_RSS_FIELD.length()).replace("kB", "").trim()) * 1024;
+
+        return null;
+    }
+
+    private static Map<String, Object> gc()
+    {
+        Map<String, Object> gc = new LinkedHashMap<>();
+        for (GarbageCollectorMXBean collector : ManagementFactory.getGarbageCollectorMXBeans())
+        {
+            Map<String, Object> values = new LinkedHashMap<>();
+            values.put("count", collector.getCollectionCount());
+            values.put("time_ms", collector.getCollectionTime());
+            gc.put(collector.getName(), values);
+        }
+        return gc;
+    }
+
+    private static long millisSince(long startedAt)
+    {
+        return (System.nanoTime() - startedAt) / 1_000_000;
+    }
+}
@@ -0,0 +1,100 @@
+package observatory.benchmarks;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import observatory.internetnlAPI.config.RequestType;
+import observatory.internetnlAPI.config.TestInfo;
+import observatory.internetnlAPI.config.testResult.TestResult;
+import observatory.util.JSONserialization;
+
+/**
+ * Reading and writing the results of a list and the information of a test with the shared
+ * readers and writers of {@link JSONserialization}, against a new mapper for each call.
+ *
+ * @author Henrique Campos Ferreira
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SerializationBenchmark
+{
+    @Param({ "10", "1000" })
+    public int domains;
+
+    private TestResult result;
+
+    private File input, output;
+
+    private byte[] testInfo;
+
+    @Setup
+    public void setup() throws IOException
+    {
+        this.result = Fixtures.testResult("LIST1", RequestType.WEB, this.domains);
+        this.input = Fixtures.tempFile("results", ".json");
+        this.output = Fixtures.tempFile("results-out", ".json");
+        JSONserialization.writeFile(this.input, this.result, TestResult.class);
+
+        TestInfo info = new TestInfo();
+        info.setApi_version(this.result.getApi_version());
+        info.setRequest(this.result.getRequest());
+        this.testInfo = JSONserialization.writer(TestInfo.class).writeValueAsBytes(info);
+    }
+
+    @Benchmark
+    public TestResult readResultsNewMapper() throws IOException
+    {
+        return new ObjectMapper().readValue(this.input, TestResult.class);
+    }
+
+    @Benchmark
+    public TestResult readResultsShared() throws IOException
+    {
+        return JSONserialization.readFile(this.input, TestResult.class);
+    }
+
+    @Benchmark
+    public long writeResultsNewMapper() throws IOException
+    {
+        new ObjectMapper().writeValue(this.output, this.result);
+        return this.output.length();
+    }
+
+    @Benchmark
+    public long writeResultsShared() throws IOException
+    {
+        JSONserialization.writeFile(this.output, this.result, TestResult.class);
+        return this.output.length();
+    }
+
+    @Benchmark
+    public TestInfo readTestInfoNewMapper() throws IOException
+    {
+        return new ObjectMapper().readValue(this.testInfo, TestInfo.class);
+    }
+
+    @Benchmark
+    public TestInfo readTestInfoShared() throws IOException
+    {
+        return JSONserialization.reader(TestInfo.class).readValue(this.testInfo);
+    }
+}
@@ -0,0 +1,95 @@
+package observatory.benchmarks;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import observatory.internetnlAPI.config.RequestType;
+import observatory.internetnlAPI.config.testResult.BinaryResultsFormat;
+import observatory.internetnlAPI.config.testResult.ListResultsTable;
+import observatory.internetnlAPI.config.testResult.TestResult;
+import observatory.util.InvalidFormatException;
+
+/**
+ * Loading and saving the results of a list, in JSON and in the binary format,
+ * and loading them as a columnar table.
+ *
+ * @author Henrique Campos Ferreira
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class TestResultBenchmark
+{
+    @Param({ "1000", "10000" })
+    public int domains;
+
+    private TestResult result;
+
+    private File input, output, binaryInput, binaryOutput;
+
+    @Setup
+    public void setup() throws IOException
+    {
+        this.result = Fixtures.testResult("LIST1", RequestType.WEB, this.domains);
+        this.input = Fixtures.tempFile("results", ".json");
+        this.output = Fixtures.tempFile("results-out", ".json");
+        this.binaryInput = Fixtures.tempFile("results", BinaryResultsFormat.FILE_EXTENSION);
+        this.binaryOutput = Fixtures.tempFile("results-out", BinaryResultsFormat.FILE_EXTENSION);
+        this.result.save(this.input);
+        BinaryResultsFormat.write(this.result, this.binaryInput);
+    }
+
+    @Benchmark
+    public TestResult fromFile() throws IOException, InvalidFormatException
+    {
+        return TestResult.fromFile(this.input);
+    }
+
+    @Benchmark
+    public ListResultsTable tableFromFile() throws IOException, InvalidFormatException
+    {
+        return ListResultsTable.fromFile(this.input);
+    }
+
+    @Benchmark
+    public long save() throws IOException
+    {
+        this.result.save(this.output);
+        return this.output.length();
+    }
+
+    @Benchmark
+    public TestResult fromBinaryFile() throws IOException, InvalidFormatException
+    {
+        return BinaryResultsFormat.read(this.binaryInput);
+    }
+
+    @Benchmark
+    public ListResultsTable tableFromBinaryFile() throws IOException, InvalidFormatException
+    {
+        return ListResultsTable.fromFile(this.binaryInput);
+    }
+
+    @Benchmark
+    public long saveBinary() throws IOException
+    {
+        BinaryResultsFormat.write(this.result, this.binaryOutput);
+        return this.binaryOutput.length();
+    }
+}
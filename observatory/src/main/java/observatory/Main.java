@@ -7,26 +7,55 @@ import java.io.InputStream;
 import java.net.URI;
 import java.net.URISyntaxException;
 import java.text.SimpleDateFormat;
+import java.time.Duration;
+import java.util.ArrayList;
 import java.util.Calendar;
+import java.util.LinkedHashMap;
 import java.util.LinkedHashSet;
 import java.util.LinkedList;
 import java.util.List;
+import java.util.Locale;
+import java.util.Objects;
+import java.util.Optional;
 import java.util.Properties;
 import java.util.Set;
 import java.util.function.Function;
 
+import observatory.argsParser.HistoryArgs;
 import observatory.argsParser.ParserException;
 import observatory.argsParser.ReportArgs;
+import observatory.argsParser.SimulatorArgs;
 import observatory.argsParser.TestDomainsArgs;
+import observatory.history.AdoptionPoint;
+import observatory.history.DomainSnapshot;
+import observatory.history.Ingestion;
+import observatory.history.ResultsStore;
+import observatory.history.ResultsStore.SegmentRecord;
+import observatory.internetnlAPI.AsyncInternetnlAPI;
+import observatory.internetnlAPI.AsyncInternetnlAPIOverNetwork;
+import observatory.internetnlAPI.BlockingInternetnlAPI;
+import observatory.internetnlAPI.EndpointRegistry;
 import observatory.internetnlAPI.InternetnlAPI;
-import observatory.internetnlAPI.InternetnlAPIOverNetwork;
+import observatory.internetnlAPI.LoadBalancedInternetnlAPI;
 import observatory.internetnlAPI.config.InternetnlRequest;
-import observatory.internetnlAPI.config.testResult.TestResult;
+import observatory.internetnlAPI.config.testResult.ListResultsTable;
+import observatory.internetnlAPI.config.testResult.domain.Category;
+import observatory.internetnlAPI.config.testResult.domain.ResultStatus;
+import observatory.internetnlAPI.resilience.RateLimits;
+import observatory.internetnlAPI.resilience.Resilience;
+import observatory.internetnlAPI.transport.HttpTransport;
 import observatory.report.Report;
+import observatory.simulator.BatchSimulator;
+import observatory.tests.BatchLimiter;
 import observatory.tests.Index;
-import observatory.tests.ListTest;
+import observatory.tests.ListTestCollection;
 import observatory.tests.TestDomains;
+import observatory.tests.cache.DomainResultsCache;
+import observatory.tests.polling.AdaptivePollPolicy;
+import observatory.tests.polling.FixedPollPolicy;
+import observatory.tests.polling.PollHistory;
 import observatory.util.InvalidFormatException;
+import observatory.util.PhaseTimer;
 import observatory.util.Util;
 
 /**
@@ -63,6 +92,14 @@ public class Main
                     report(new ReportArgs(nextArgs));
                     break;
 
+                case "simulate":
+                    simulate(new SimulatorArgs(nextArgs));
+                    break;
+
+                case "history":
+                    history(new HistoryArgs(nextArgs));
+                    break;
+
                 default:
                     invalidArgsExit();
                     break;
@@ -78,6 +115,10 @@ public class Main
         TestDomainsArgs.printHelp();
         System.out.println("-------------------------------------------------------------------------------------------------------\n");
         ReportArgs.printHelp();
+        System.out.println("-------------------------------------------------------------------------------------------------------\n");
+        SimulatorArgs.printHelp();
+        System.out.println("-------------------------------------------------------------------------------------------------------\n");
+        HistoryArgs.printHelp();
     }
 
     private static void invalidArgsExit()
@@ -99,12 +140,23 @@ public class Main
     private static void testDomains(TestDomainsArgs args)
     {
         try
-        (
-            InternetnlAPI api = getInternetnlAPI(args.getConfigFile());
-            TestDomains tests = initTestDomains(args, api);
-        )
         {
-            tests.start();
+            Index index = Util.getIndexIfExists(new File(args.getWorkingDir(), Index.DEFAULT_FILE_NAME));
+            PollHistory pollHistory = PollHistory.fromFileIfExists(
+                new File(args.getWorkingDir(), PollHistory.DEFAULT_FILE_NAME));
+
+            try
+            (
+                InternetnlAPI api = getInternetnlAPI(args.getConfigFile(), index);
+                TestDomains tests = initTestDomains(args, api, index, pollHistory);
+            )
+            {
+                tests.start();
+            }
+            finally {
+                if (args.getWorkingDir().isDirectory())
+                    pollHistory.save();
+            }
         }
         catch (Exception e) {
             System.err.println(e.getMessage());
@@ -112,12 +164,12 @@ public class Main
         }
     }
 
-    private static TestDomains initTestDomains(TestDomainsArgs args, InternetnlAPI api)
-        throws InvalidFormatException, IOException
+    private static TestDomains initTestDomains(TestDomainsArgs args, InternetnlAPI api, Index index,
+        PollHistory pollHistory)
+        throws InvalidFormatException, IOException, ParserException
     {
         File workingDir = args.getWorkingDir();
         File domainsFile = args.getDomainsFile();
-        Index index = Util.getIndexIfExists(new File(args.getWorkingDir(), Index.DEFAULT_FILE_NAME));
 
         TestDomains tests;
         if (args.getListsToTest().isEmpty()) // test all lists
@@ -126,11 +178,35 @@ public class Main
             // test the specified lists
             tests = new TestDomains(args.getType(), api, index, workingDir, domainsFile, args.getListsToTest());
 
+        tests.setParallelism(args.getParallelism());
+        tests.setShardSize(args.getShardSize());
+        tests.setDeduplicate(args.isDeduplicate());
+        tests.setRetryFailed(args.isRetryFailed());
+        tests.setResultsFormat(args.getResultsFormat());
+        tests.setResultsCompression(args.getResultsCompression());
+
+        if (args.getCacheTtlHours() > 0)
+            tests.setCache(new DomainResultsCache(new File(workingDir, DomainResultsCache.DEFAULT_FOLDER_NAME),
+                Duration.ofHours(args.getCacheTtlHours())));
+
+        long pollInterval = Duration.ofSeconds(args.getPollIntervalSeconds()).toMillis();
+        if (args.getPollPolicy().equals(TestDomainsArgs.POLL_POLICY_ADAPTIVE))
+            tests.setPollPolicy(new AdaptivePollPolicy(pollHistory));
+        else
+            tests.setPollPolicy(new FixedPollPolicy(pollInterval,
+                Math.min(pollInterval, FixedPollPolicy.DEFAULT_RESULTS_DELAY_MILLIS)));
+
+        if (args.getBatchLimit() == TestDomainsArgs.BATCH_LIMIT_ADAPTIVE)
+            tests.setBatchLimiter(
+                BatchLimiter.adaptive(BatchLimiter.DEFAULT_INITIAL_LIMIT, BatchLimiter.DEFAULT_MAX_LIMIT));
+        else if (args.getBatchLimit() > 0)
+            tests.setBatchLimiter(BatchLimiter.fixed(args.getBatchLimit()));
+
         tests.setListSubmittedListener((submitted) ->
             printTestProgress(submitted.getRequest(), "submitted"));
 
         tests.setListFetchedResultsListener((fetchedResults) ->
-            printTestProgress(fetchedResults.getResults().getRequest(), "fetched"));
+            printTestProgress(fetchedResults.getRequest(), "fetched"));
 
         return tests;
     }
@@ -142,7 +218,7 @@ public class Main
             DATE_FORMAT_PRINT_TEST_PROGRESS.format(Calendar.getInstance().getTime()),
             info.getName(),
             info.getRequest_type().getType(),
-            info.getRequest_id(),
+            Objects.toString(info.getRequest_id(), "-"),
             status);
     }
 
@@ -170,15 +246,16 @@ public class Main
         }
     }
 
-    private static Set<ListTest> parseListResults(ReportArgs args) throws IOException, InvalidFormatException
+    private static Set<ListResultsTable> parseListResults(ReportArgs args) throws IOException, InvalidFormatException
     {
         List<File> listsResultFiles = args.getListsResultFiles();
-        Set<ListTest> result = new LinkedHashSet<>(listsResultFiles.size());
+        Set<ListResultsTable> result = new LinkedHashSet<>(listsResultFiles.size());
         
         for (File listResultFile : listsResultFiles)
         {
-            TestResult testResult = TestResult.fromFile(listResultFile);
-            result.add(ListTest.from(testResult));
+            long startedAt = PhaseTimer.start();
+            result.add(ListResultsTable.fromFile(listResultFile));
+            PhaseTimer.stop(PhaseTimer.RESULTS_LOAD, startedAt);
         }
 
         return result;
@@ -186,12 +263,138 @@ public class Main
 
     //#endregion
 
+    //#region Simulate
+
+    private static void simulate(SimulatorArgs args) throws ParserException
+    {
+        try
+        {
+            BatchSimulator simulator = new BatchSimulator(args.getPort(), args.getSettings());
+            simulator.start();
+
+            Runtime.getRuntime().addShutdownHook(new Thread(() ->
+                {
+                    System.out.println("Simulator " + simulator);
+                    simulator.close();
+                }));
+
+            System.out.println("Simulating the Internet.nl batch API at " + simulator.getEndpoint());
+        } catch (IOException e) {
+            System.err.println(e.getMessage());
+            System.exit(EXIT_ERROR_STATUS);
+        }
+    }
+
+    //#endregion
+
+    //#region History
+
+    private static void history(HistoryArgs args) throws ParserException
+    {
+        try
+        {
+            ResultsStore store = ResultsStore.open(args.getStoreFolder());
+            switch (args.getAction()) {
+                case HistoryArgs.ACTION_INGEST:
+                    ingestHistory(store, args);
+                    break;
+
+                case HistoryArgs.ACTION_DOMAIN:
+                    printDomainHistory(store, args.getDomain(), args.getTest());
+                    break;
+
+                case HistoryArgs.ACTION_ADOPTION:
+                    printAdoptionCurve(store, args.getList(), args.getKey());
+                    break;
+            }
+        } catch (IOException | InvalidFormatException e) {
+            System.err.println(e.getMessage());
+            System.exit(EXIT_ERROR_STATUS);
+        }
+    }
+
+    private static void ingestHistory(ResultsStore store, HistoryArgs args) throws IOException, InvalidFormatException
+    {
+        for (File file : args.getIngestFiles())
+        {
+            List<SegmentRecord> records;
+            if (file.isDirectory())
+            {
+                Ingestion ingestion = store.ingest(args.getRun(), new ListTestCollection(file));
+                ingestion.getSkipped().forEach((list, reason) ->
+                    System.err.printf("Skipped list %s of %s: %s\n", list, file, reason));
+                records = ingestion.getRecords();
+            }
+            else if (file.isFile())
+            {
+                ListResultsTable table = ListResultsTable.fromFile(file);
+                String run = args.getRun() != null ? args.getRun() : ResultsStore.defaultRunName(List.of(table));
+                records = List.of(store.ingest(run, table));
+            }
+            else
+                throw new IOException("The results " + file + " do not exist.");
+
+            for (SegmentRecord record : records)
+                System.out.printf("%s\t%s\t%d domains\n", record.getRun(), record.getList(), record.getDomains());
+        }
+    }
+
+    private static void printDomainHistory(ResultsStore store, String domain, Optional<Enum<?>> test)
+        throws IOException, InvalidFormatException
+    {
+        for (DomainSnapshot snapshot : store.getDomainHistory(domain))
+        {
+            StringBuilder line = new StringBuilder(snapshot.getRun()).append('\t').append(snapshot.getList());
+            if (test.isPresent())
+                line.append('\t').append(statusName(snapshot.getStatus(test.get())));
+            else
+                for (Category category : Category.values())
+                {
+                    ResultStatus status = snapshot.getStatus(category);
+                    if (status != null)
+                        line.append('\t').append(category.getCategory()).append('=').append(status.getStatus());
+                }
+
+            System.out.println(line);
+        }
+    }
+
+    private static void printAdoptionCurve(ResultsStore store, String list, Enum<?> key)
+    {
+        StringBuilder header = new StringBuilder("run\tdate\tdomains\ttested");
+        for (ResultStatus status : ResultStatus.values())
+            header.append('\t').append(status.getStatus());
+        System.out.println(header);
+
+        for (AdoptionPoint point : store.getAdoptionCurve(list, key))
+        {
+            StringBuilder line = new StringBuilder(point.getRun()).append('\t').append(point.getDate())
+                .append('\t').append(point.getDomains()).append('\t').append(point.getTested());
+            for (ResultStatus status : ResultStatus.values())
+                line.append('\t').append(String.format(Locale.ROOT, "%d (%.1f%%)",
+                    point.getCount(status), point.getShare(status) * 100));
+
+            System.out.println(line);
+        }
+    }
+
+    private static String statusName(ResultStatus status)
+    {
+        return status == null ? "-" : status.getStatus();
+    }
+
+    //#endregion
+
     /**
      * Get the Internet.nl API based on the specified config file.
+     * If several endpoints are defined (endpoint.1, endpoint.2, ...), the tests are spread
+     * over all of them and the endpoint of each test is saved in the specified registry.
+     * The requests are sent with the JDK HTTP client, unless transport=jersey is defined.
      * @param configFile - The config file.
+     * @param registry - Saves the endpoint of each test.
      * @return The Internet.nl API
      */
-    private static InternetnlAPI getInternetnlAPI(File configFile)
+    private static InternetnlAPI getInternetnlAPI(File configFile, EndpointRegistry registry)
     {
         Properties props = new Properties();
         try (InputStream input = new FileInputStream(configFile))
@@ -212,17 +415,55 @@ public class Main
                 return value;
             };
 
-        URI endpoint = null;
-        String username = getProperty.apply("username");
-        String password = getProperty.apply("password");
+        List<String> suffixes = new ArrayList<>();
+        if (props.getProperty("endpoint") != null)
+            suffixes.add("");
+
+        for (int i = 1; props.getProperty("endpoint." + i) != null; i++)
+            suffixes.add("." + i);
 
-        try {
-            endpoint = new URI(getProperty.apply("endpoint"));
-        } catch (URISyntaxException e)
+        if (suffixes.isEmpty())
+            getProperty.apply("endpoint");
+
+        LinkedHashMap<String, AsyncInternetnlAPI> endpoints = new LinkedHashMap<>();
+        for (String suffix : suffixes)
         {
-            invalidArgsExit("Invalid endpoint URI in Internet.nl API config file.");
+            URI endpoint = null;
+            String username = props.getProperty("username" + suffix, props.getProperty("username"));
+            String password = props.getProperty("password" + suffix, props.getProperty("password"));
+
+            if (username == null)
+                getProperty.apply("username" + suffix);
+            if (password == null)
+                getProperty.apply("password" + suffix);
+
+            try {
+                endpoint = new URI(getProperty.apply("endpoint" + suffix));
+            } catch (URISyntaxException e)
+            {
+                invalidArgsExit("Invalid endpoint URI in Internet.nl API config file.");
+            }
+
+            // each server has its own connections, retries, circuit breaker and rate limits.
+            Resilience resilience = null;
+            RateLimits rateLimits = null;
+            HttpTransport transport = null;
+            try {
+                resilience = Resilience.fromProperties(props);
+                rateLimits = RateLimits.fromProperties(props);
+                transport = HttpTransport.fromProperties(props);
+            } catch (IllegalArgumentException e)
+            {
+                invalidArgsExit("Invalid Internet.nl API config file. " + e.getMessage());
+            }
+
+            endpoints.put(endpoint.toString(),
+                new AsyncInternetnlAPIOverNetwork(endpoint, username, password, resilience, rateLimits, transport));
         }
 
-        return new InternetnlAPIOverNetwork(endpoint, username, password);
+        if (endpoints.size() == 1)
+            return new BlockingInternetnlAPI(endpoints.values().iterator().next());
+
+        return new BlockingInternetnlAPI(new LoadBalancedInternetnlAPI(endpoints, registry));
     }
 }
@@ -28,6 +28,87 @@ class ArgsParser
         }
     }
 
+    /**
+     * Parse a positive integer value of an option.
+     * @param value
+     * @param option - The option of the value.
+     * @return The parsed value.
+     * @throws ParserException if the value is not a positive integer.
+     */
+    public static int parsePositiveInt(String value, Option option) throws ParserException
+    {
+        try
+        {
+            int result = Integer.parseInt(value);
+            if (result > 0)
+                return result;
+        } catch (NumberFormatException e) {}
+
+        throw new ParserException(
+            String.format("The option %s must be a positive integer.", option.getName()));
+    }
+
+    /**
+     * Parse a non negative integer value of an option.
+     * @param value
+     * @param option - The option of the value.
+     * @return The parsed value.
+     * @throws ParserException if the value is not a non negative integer.
+     */
+    public static long parseNonNegativeLong(String value, Option option) throws ParserException
+    {
+        try
+        {
+            long result = Long.parseLong(value);
+            if (result >= 0)
+                return result;
+        } catch (NumberFormatException e) {}
+
+        throw new ParserException(
+            String.format("The option %s must be a non negative integer.", option.getName()));
+    }
+
+    /**
+     * Parse a rate value of an option, between 0 and 1.
+     * @param value
+     * @param option - The option of the value.
+     * @return The parsed value.
+     * @throws ParserException if the value is not a number between 0 and 1.
+     */
+    public static double parseRate(String value, Option option) throws ParserException
+    {
+        try
+        {
+            double result = Double.parseDouble(value);
+            if (result >= 0 && result <= 1)
+                return result;
+        } catch (NumberFormatException e) {}
+
+        throw new ParserException(
+            String.format("The option %s must be a number between 0 and 1.", option.getName()));
+    }
+
+    /**
+     * Parse a yes/no value of an option.
+     * @param value
+     * @param option - The option of the value.
+     * @return true if the value is yes or false if it is no.
+     * @throws ParserException if the value is neither yes nor no.
+     */
+    public static boolean parseBoolean(String value, Option option) throws ParserException
+    {
+        switch (value.toLowerCase()) {
+            case "yes":
+                return true;
+            case "no":
+                return false;
+
+            default:
+                throw new ParserException(
+                    String.format("The option %s must be yes or no.", option.getName()));
+        }
+    }
+
     public static <T> T getOption(Map<Option, OptionValue> options, Option option,
         Function<OptionValue, T> parseValueFunc, Supplier<T> defaultValueFunc)
     {
@@ -0,0 +1,179 @@
+package observatory.argsParser;
+
+import java.io.File;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.Function;
+
+import observatory.argsParser.options.Option;
+import observatory.argsParser.options.OptionType;
+import observatory.argsParser.options.OptionValue;
+import observatory.argsParser.options.ParseOptions;
+import observatory.history.ResultsStore;
+
+import static observatory.argsParser.ArgsParser.*;
+
+/**
+ * A class to parse the arguments for the history cmd.
+ *
+ * @author Henrique Campos Ferreira
+ */
+public class HistoryArgs
+{
+    public static final String ACTION_INGEST = "ingest";
+    public static final String ACTION_DOMAIN = "domain";
+    public static final String ACTION_ADOPTION = "adoption";
+
+    public static final Option OPTION_RUN = new Option("--run", OptionType.SINGLE);
+    public static final Option OPTION_TEST = new Option("--test", OptionType.SINGLE);
+
+    private static final ParseOptions PARSE_OPTIONS = new ParseOptions(Set.of(OPTION_RUN, OPTION_TEST));
+
+    private final File storeFolder;
+
+    private final String action;
+
+    private final Map<Option, OptionValue> options;
+
+    private final List<String> arguments;
+
+    private String run;
+
+    private Optional<Enum<?>> test;
+
+    public HistoryArgs(List<String> args) throws ParserException
+    {
+        if (args.size() < 2)
+            throw new ParserException("Not enough arguments.");
+
+        this.storeFolder = new File(args.remove(0));
+        this.action = args.remove(0).toLowerCase();
+        this.options = PARSE_OPTIONS.parse(args);
+        this.arguments = List.copyOf(args);
+
+        switch (this.action) {
+            case ACTION_INGEST:
+                if (this.arguments.isEmpty())
+                    throw new ParserException("Not enough arguments.");
+                break;
+
+            case ACTION_DOMAIN:
+                if (this.arguments.size() != 1)
+                    throw new ParserException("Expected a domain.");
+                break;
+
+            case ACTION_ADOPTION:
+                if (this.arguments.size() != 2)
+                    throw new ParserException("Expected a list and a category, test or custom test.");
+                parseKey(this.arguments.get(1));
+                break;
+
+            default:
+                throw new ParserException("Unknown history action: " + this.action);
+        }
+
+        args.clear();
+    }
+
+    private static Enum<?> parseKey(String name) throws ParserException
+    {
+        return ResultsStore.parseKey(name).orElseThrow(
+            () -> new ParserException("Unknown category, test or custom test: " + name));
+    }
+
+    /**
+     * @return the folder of the results store.
+     */
+    public File getStoreFolder() {
+        return storeFolder;
+    }
+
+    /**
+     * @return the action: ingest, domain or adoption.
+     */
+    public String getAction() {
+        return action;
+    }
+
+    /**
+     * @return the results folders or files to ingest.
+     */
+    public List<File> getIngestFiles() {
+        return arguments.stream().map(File::new).toList();
+    }
+
+    /**
+     * @return the domain whose history is queried.
+     */
+    public String getDomain() {
+        return arguments.get(0);
+    }
+
+    /**
+     * @return the list whose adoption curve is queried.
+     */
+    public String getList() {
+        return arguments.get(0);
+    }
+
+    /**
+     * @return the category, test or custom test whose adoption curve is queried.
+     * @throws ParserException
+     */
+    public Enum<?> getKey() throws ParserException {
+        return parseKey(arguments.get(1));
+    }
+
+    //#region Options
+
+    /**
+     * @return The name of the run of the ingested results or null to name it by the date of the results.
+     */
+    public String getRun()
+    {
+        if (this.run == null)
+            this.run = getOption(this.options, OPTION_RUN,
+                (Function<OptionValue, String>) OptionValue::getSingle,
+                () -> null);
+
+        return this.run;
+    }
+
+    /**
+     * @return The category, test or custom test of the domain history, if defined.
+     * @throws ParserException
+     */
+    public Optional<Enum<?>> getTest() throws ParserException
+    {
+        if (this.test == null)
+            this.test = getOption(this.options, OPTION_TEST,
+                (ParseValueFunction<Optional<Enum<?>>>) (optionValue) -> Optional.of(parseKey(optionValue.getSingle())),
+                Optional::empty);
+
+        return this.test;
+    }
+
+    //#endregion
+
+    public static void printHelp() {
+        System.out.println("-> history <store-folder> " + ACTION_INGEST + " [options] <results folders or files>");
+        System.out.println("-> history <store-folder> " + ACTION_DOMAIN + " [options] <domain>");
+        System.out.println("-> history <store-folder> " + ACTION_ADOPTION + " <list> <category | test | custom test>");
+        System.out.println("Keep the results of many runs in a store, to follow them over time.");
+        System.out.println(ACTION_INGEST + ": add the results of the lists of a working directory (or of the results files) " +
+            "to the store. Each folder or file is a run; the results of a list already in the run are replaced.");
+        System.out.println(ACTION_DOMAIN + ": print the results of the categories (or of a test) of a domain in each run.");
+        System.out.println(ACTION_ADOPTION + ": print the number of domains of a list with each status in each run.\n");
+        System.out.println(
+            "[options]:\n" +
+
+            "\t" + OPTION_RUN.getName() + " name -> The name of the run of the ingested results. " +
+            "If not defined, defaults to the date (yyyy-MM-dd) of the list submitted first.\n" +
+
+            "\t" + OPTION_TEST.getName() + " name -> The category, test or custom test of the domain history. " +
+            "If not defined, the results of all categories are printed.\n"
+        );
+    }
+}
@@ -0,0 +1,163 @@
+package observatory.argsParser;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import observatory.argsParser.options.Option;
+import observatory.argsParser.options.OptionType;
+import observatory.argsParser.options.OptionValue;
+import observatory.argsParser.options.ParseOptions;
+import observatory.simulator.SimulatorSettings;
+
+import static observatory.argsParser.ArgsParser.*;
+
+/**
+ * A class to parse the arguments for the simulate cmd.
+ *
+ * @author Henrique Campos Ferreira
+ */
+public class SimulatorArgs
+{
+    public static final int DEFAULT_PORT = 8080;
+
+    public static final Option OPTION_PORT = new Option("--port", OptionType.SINGLE);
+    public static final Option OPTION_THREADS = new Option("--threads", OptionType.SINGLE);
+    public static final Option OPTION_LATENCY = new Option("--latency", OptionType.SINGLE);
+    public static final Option OPTION_COMPLETION = new Option("--completion", OptionType.SINGLE);
+    public static final Option OPTION_COMPLETION_PER_DOMAIN = new Option("--completion-per-domain", OptionType.SINGLE);
+    public static final Option OPTION_ERROR_RATE = new Option("--error-rate", OptionType.SINGLE);
+    public static final Option OPTION_NOT_FOUND_RATE = new Option("--not-found-rate", OptionType.SINGLE);
+    public static final Option OPTION_MAX_DOMAINS = new Option("--max-domains", OptionType.SINGLE);
+    public static final Option OPTION_SEED = new Option("--seed", OptionType.SINGLE);
+    public static final Option OPTION_COMPRESSION = new Option("--compression", OptionType.SINGLE);
+
+    private static final ParseOptions PARSE_OPTIONS = new ParseOptions(
+            Set.of(OPTION_PORT, OPTION_THREADS, OPTION_LATENCY, OPTION_COMPLETION, OPTION_COMPLETION_PER_DOMAIN,
+                OPTION_ERROR_RATE, OPTION_NOT_FOUND_RATE, OPTION_MAX_DOMAINS, OPTION_SEED, OPTION_COMPRESSION));
+
+    private final Map<Option, OptionValue> options;
+
+    private Integer port;
+
+    private SimulatorSettings settings;
+
+    public SimulatorArgs(List<String> args) throws ParserException
+    {
+        this.options = PARSE_OPTIONS.parse(args);
+        if (!args.isEmpty())
+            throw new ParserException("Unknown arguments: " + String.join(" ", args));
+    }
+
+    //#region Options
+
+    public int getPort() throws ParserException
+    {
+        if (this.port == null)
+            this.port = getOption(this.options, OPTION_PORT,
+                (ParseValueFunction<Integer>) (optionValue) ->
+                {
+                    return parsePositiveInt(optionValue.getSingle(), OPTION_PORT);
+                },
+                () -> DEFAULT_PORT);
+
+        return this.port;
+    }
+
+    /**
+     * @return The behaviour of the simulator.
+     * @throws ParserException
+     */
+    public SimulatorSettings getSettings() throws ParserException
+    {
+        if (this.settings != null)
+            return this.settings;
+
+        SimulatorSettings settings = new SimulatorSettings();
+
+        settings.setThreads(getOption(this.options, OPTION_THREADS,
+            (ParseValueFunction<Integer>) (optionValue) -> parsePositiveInt(optionValue.getSingle(), OPTION_THREADS),
+            () -> SimulatorSettings.DEFAULT_THREADS));
+
+        settings.setLatencyMillis(getOption(this.options, OPTION_LATENCY,
+            (ParseValueFunction<Long>) (optionValue) -> parseNonNegativeLong(optionValue.getSingle(), OPTION_LATENCY),
+            () -> SimulatorSettings.DEFAULT_LATENCY_MILLIS));
+
+        settings.setCompletionMillis(getOption(this.options, OPTION_COMPLETION,
+            (ParseValueFunction<Long>) (optionValue) ->
+                parseNonNegativeLong(optionValue.getSingle(), OPTION_COMPLETION),
+            () -> SimulatorSettings.DEFAULT_COMPLETION_MILLIS));
+
+        settings.setCompletionMillisPerDomain(getOption(this.options, OPTION_COMPLETION_PER_DOMAIN,
+            (ParseValueFunction<Long>) (optionValue) ->
+                parseNonNegativeLong(optionValue.getSingle(), OPTION_COMPLETION_PER_DOMAIN),
+            () -> SimulatorSettings.DEFAULT_COMPLETION_MILLIS_PER_DOMAIN));
+
+        settings.setErrorRate(getOption(this.options, OPTION_ERROR_RATE,
+            (ParseValueFunction<Double>) (optionValue) -> parseRate(optionValue.getSingle(), OPTION_ERROR_RATE),
+            () -> SimulatorSettings.DEFAULT_ERROR_RATE));
+
+        settings.setNotFoundRate(getOption(this.options, OPTION_NOT_FOUND_RATE,
+            (ParseValueFunction<Double>) (optionValue) -> parseRate(optionValue.getSingle(), OPTION_NOT_FOUND_RATE),
+            () -> SimulatorSettings.DEFAULT_NOT_FOUND_RATE));
+
+        settings.setMaxDomains(getOption(this.options, OPTION_MAX_DOMAINS,
+            (ParseValueFunction<Integer>) (optionValue) ->
+                parsePositiveInt(optionValue.getSingle(), OPTION_MAX_DOMAINS),
+            () -> SimulatorSettings.DEFAULT_MAX_DOMAINS));
+
+        settings.setSeed(getOption(this.options, OPTION_SEED,
+            (ParseValueFunction<Long>) (optionValue) -> parseNonNegativeLong(optionValue.getSingle(), OPTION_SEED),
+            () -> SimulatorSettings.DEFAULT_SEED));
+
+        settings.setCompression(getOption(this.options, OPTION_COMPRESSION,
+            (ParseValueFunction<Boolean>) (optionValue) -> parseBoolean(optionValue.getSingle(), OPTION_COMPRESSION),
+            () -> true));
+
+        this.settings = settings;
+        return this.settings;
+    }
+
+    //#endregion
+
+    public static void printHelp() {
+        System.out.println("-> simulate [options]");
+        System.out.println("Run a simulator of the Internet.nl batch API with synthetic results, to test offline.");
+        System.out.println("The endpoint of the simulator is printed when it starts.\n");
+        System.out.println(
+            "[options]:\n" +
+
+            "\t" + OPTION_PORT.getName() + " port -> The port of the simulator. " +
+            "If not defined, defaults to " + DEFAULT_PORT + ".\n" +
+
+            "\t" + OPTION_THREADS.getName() + " threads -> The number of threads that serve the requests. " +
+            "If not defined, defaults to " + SimulatorSettings.DEFAULT_THREADS + ".\n" +
+
+            "\t" + OPTION_LATENCY.getName() + " millis -> The time to answer each request. " +
+            "If not defined, defaults to " + SimulatorSettings.DEFAULT_LATENCY_MILLIS + ".\n" +
+
+            "\t" + OPTION_COMPLETION.getName() + " millis -> The fixed time a test takes to complete. " +
+            "If not defined, defaults to " + SimulatorSettings.DEFAULT_COMPLETION_MILLIS + ".\n" +
+
+            "\t" + OPTION_COMPLETION_PER_DOMAIN.getName() + " millis -> The time each domain adds to the " +
+            "completion of a test. If not defined, defaults to " +
+            SimulatorSettings.DEFAULT_COMPLETION_MILLIS_PER_DOMAIN + ".\n" +
+
+            "\t" + OPTION_ERROR_RATE.getName() + " rate -> The fraction (0 to 1) of the requests answered with " +
+            "400 Bad Request. If not defined, defaults to " + SimulatorSettings.DEFAULT_ERROR_RATE + ".\n" +
+
+            "\t" + OPTION_NOT_FOUND_RATE.getName() + " rate -> The fraction (0 to 1) of the requests about a test " +
+            "that make the simulator forget the test and answer 404 Not Found. " +
+            "If not defined, defaults to " + SimulatorSettings.DEFAULT_NOT_FOUND_RATE + ".\n" +
+
+            "\t" + OPTION_MAX_DOMAINS.getName() + " domains -> The maximum number of domains of a test. " +
+            "If not defined, defaults to " + SimulatorSettings.DEFAULT_MAX_DOMAINS + ".\n" +
+
+            "\t" + OPTION_SEED.getName() + " seed -> The seed of the synthetic results and of the injected errors. " +
+            "If not defined, defaults to " + SimulatorSettings.DEFAULT_SEED + ".\n" +
+
+            "\t" + OPTION_COMPRESSION.getName() + " <yes | no> -> Compress the results when the client accepts gzip. " +
+            "If not defined, defaults to yes.\n"
+        );
+    }
+}
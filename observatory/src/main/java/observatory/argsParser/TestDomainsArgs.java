@@ -11,6 +11,9 @@ import observatory.argsParser.options.OptionType;
 import observatory.argsParser.options.OptionValue;
 import observatory.argsParser.options.ParseOptions;
 import observatory.internetnlAPI.config.RequestType;
+import observatory.tests.ListTestCollection;
+import observatory.tests.polling.FixedPollPolicy;
+import observatory.util.Compression;
 import observatory.util.Util;
 
 import static observatory.argsParser.ArgsParser.*;
@@ -27,9 +30,32 @@ public class TestDomainsArgs {
     public static final Option OPTION_WORKING_DIR = new Option("--dir", OptionType.SINGLE);
     public static final Option OPTION_CONFIG_FILE = new Option("--conf", OptionType.SINGLE);
     public static final Option OPTION_DOMAINS_FILE = new Option("--dom", OptionType.SINGLE);
+    public static final Option OPTION_PARALLEL = new Option("--parallel", OptionType.SINGLE);
+    public static final Option OPTION_POLL_POLICY = new Option("--poll", OptionType.SINGLE);
+    public static final Option OPTION_POLL_INTERVAL = new Option("--poll-interval", OptionType.SINGLE);
+    public static final Option OPTION_SHARD_SIZE = new Option("--shard-size", OptionType.SINGLE);
+    public static final Option OPTION_DEDUPLICATE = new Option("--dedup", OptionType.SINGLE);
+    public static final Option OPTION_CACHE_TTL = new Option("--cache-ttl", OptionType.SINGLE);
+    public static final Option OPTION_RETRY_FAILED = new Option("--retry-failed", OptionType.SINGLE);
+    public static final Option OPTION_BATCHES = new Option("--batches", OptionType.SINGLE);
+    public static final Option OPTION_RESULTS_FORMAT = new Option("--results-format", OptionType.SINGLE);
+    public static final Option OPTION_RESULTS_COMPRESSION = new Option("--results-compression", OptionType.SINGLE);
+
+    public static final String POLL_POLICY_ADAPTIVE = "adaptive";
+    public static final String POLL_POLICY_FIXED = "fixed";
+
+    public static final String BATCHES_ADAPTIVE = "adaptive";
+
+    /**
+     * The batch limit returned when the limit is adaptive.
+     */
+    public static final int BATCH_LIMIT_ADAPTIVE = -1;
 
     private static final ParseOptions PARSE_OPTIONS = new ParseOptions(
-            Set.of(OPTION_WORKING_DIR, OPTION_CONFIG_FILE, OPTION_DOMAINS_FILE));
+            Set.of(OPTION_WORKING_DIR, OPTION_CONFIG_FILE, OPTION_DOMAINS_FILE, OPTION_PARALLEL,
+                OPTION_POLL_POLICY, OPTION_POLL_INTERVAL, OPTION_SHARD_SIZE, OPTION_DEDUPLICATE,
+                OPTION_CACHE_TTL, OPTION_RETRY_FAILED, OPTION_BATCHES, OPTION_RESULTS_FORMAT,
+                OPTION_RESULTS_COMPRESSION));
 
     private final RequestType type;
 
@@ -39,6 +65,16 @@ public class TestDomainsArgs {
 
     private File workingDir, configFile, domainsFile;
 
+    private Integer parallelism, shardSize, cacheTtlHours, batchLimit, pollIntervalSeconds;
+
+    private String pollPolicy;
+
+    private Boolean deduplicate, retryFailed;
+
+    private ListTestCollection.Format resultsFormat;
+
+    private Compression resultsCompression;
+
     public TestDomainsArgs(List<String> args) throws ParserException {
         if (args.isEmpty())
             throw new ParserException("Not enough arguments.");
@@ -103,6 +139,176 @@ public class TestDomainsArgs {
         return this.domainsFile;
     }
 
+    public int getParallelism() throws ParserException
+    {
+        if (this.parallelism == null)
+            this.parallelism = getOption(this.options, OPTION_PARALLEL,
+                (ParseValueFunction<Integer>) (optionValue) ->
+                {
+                    return parsePositiveInt(optionValue.getSingle(), OPTION_PARALLEL);
+                },
+                () -> 1);
+
+        return this.parallelism;
+    }
+
+    public int getShardSize() throws ParserException
+    {
+        if (this.shardSize == null)
+            this.shardSize = getOption(this.options, OPTION_SHARD_SIZE,
+                (ParseValueFunction<Integer>) (optionValue) ->
+                {
+                    return parsePositiveInt(optionValue.getSingle(), OPTION_SHARD_SIZE);
+                },
+                () -> 0);
+
+        return this.shardSize;
+    }
+
+    /**
+     * @return The time to live (in hours) of the cached domain results or 0 if results are not cached.
+     * @throws ParserException
+     */
+    public int getCacheTtlHours() throws ParserException
+    {
+        if (this.cacheTtlHours == null)
+            this.cacheTtlHours = getOption(this.options, OPTION_CACHE_TTL,
+                (ParseValueFunction<Integer>) (optionValue) ->
+                {
+                    return parsePositiveInt(optionValue.getSingle(), OPTION_CACHE_TTL);
+                },
+                () -> 0);
+
+        return this.cacheTtlHours;
+    }
+
+    public boolean isDeduplicate() throws ParserException
+    {
+        if (this.deduplicate == null)
+            this.deduplicate = getOption(this.options, OPTION_DEDUPLICATE,
+                (ParseValueFunction<Boolean>) (optionValue) ->
+                {
+                    return parseBoolean(optionValue.getSingle(), OPTION_DEDUPLICATE);
+                },
+                () -> false);
+
+        return this.deduplicate;
+    }
+
+    public boolean isRetryFailed() throws ParserException
+    {
+        if (this.retryFailed == null)
+            this.retryFailed = getOption(this.options, OPTION_RETRY_FAILED,
+                (ParseValueFunction<Boolean>) (optionValue) ->
+                {
+                    return parseBoolean(optionValue.getSingle(), OPTION_RETRY_FAILED);
+                },
+                () -> false);
+
+        return this.retryFailed;
+    }
+
+    /**
+     * @return The maximum number of batches in flight, {@link #BATCH_LIMIT_ADAPTIVE} if the
+     * limit is adaptive or 0 if there is no limit.
+     * @throws ParserException
+     */
+    public int getBatchLimit() throws ParserException
+    {
+        if (this.batchLimit == null)
+            this.batchLimit = getOption(this.options, OPTION_BATCHES,
+                (ParseValueFunction<Integer>) (optionValue) ->
+                {
+                    if (optionValue.getSingle().equalsIgnoreCase(BATCHES_ADAPTIVE))
+                        return BATCH_LIMIT_ADAPTIVE;
+
+                    return parsePositiveInt(optionValue.getSingle(), OPTION_BATCHES);
+                },
+                () -> 0);
+
+        return this.batchLimit;
+    }
+
+    /**
+     * @return The format of the saved results.
+     * @throws ParserException
+     */
+    public ListTestCollection.Format getResultsFormat() throws ParserException
+    {
+        if (this.resultsFormat == null)
+            this.resultsFormat = getOption(this.options, OPTION_RESULTS_FORMAT,
+                (ParseValueFunction<ListTestCollection.Format>) (optionValue) ->
+                {
+                    try {
+                        return ListTestCollection.Format.valueOf(optionValue.getSingle().toUpperCase());
+                    } catch (IllegalArgumentException e) {
+                        throw new ParserException("Invalid results format: " + optionValue.getSingle());
+                    }
+                },
+                () -> ListTestCollection.Format.JSON);
+
+        return this.resultsFormat;
+    }
+
+    /**
+     * @return The compression of the saved results.
+     * @throws ParserException
+     */
+    public Compression getResultsCompression() throws ParserException
+    {
+        if (this.resultsCompression == null)
+            this.resultsCompression = getOption(this.options, OPTION_RESULTS_COMPRESSION,
+                (ParseValueFunction<Compression>) (optionValue) ->
+                {
+                    try {
+                        return Compression.fromName(optionValue.getSingle());
+                    } catch (IllegalArgumentException e) {
+                        throw new ParserException("Invalid results compression: " + optionValue.getSingle());
+                    }
+                },
+                () -> Compression.NONE);
+
+        return this.resultsCompression;
+    }
+
+    public String getPollPolicy() throws ParserException
+    {
+        if (this.pollPolicy == null)
+            this.pollPolicy = getOption(this.options, OPTION_POLL_POLICY,
+                (ParseValueFunction<String>) (optionValue) ->
+                {
+                    String value = optionValue.getSingle().toLowerCase();
+                    if (!value.equals(POLL_POLICY_ADAPTIVE) && !value.equals(POLL_POLICY_FIXED))
+                        throw new ParserException("Invalid poll policy: " + optionValue.getSingle());
+
+                    return value;
+                },
+                () -> POLL_POLICY_ADAPTIVE);
+
+        return this.pollPolicy;
+    }
+
+    /**
+     * @return The interval (in seconds) between two polls of the fixed poll policy.
+     * @throws ParserException
+     */
+    public int getPollIntervalSeconds() throws ParserException
+    {
+        if (this.pollIntervalSeconds == null)
+            this.pollIntervalSeconds = getOption(this.options, OPTION_POLL_INTERVAL,
+                (ParseValueFunction<Integer>) (optionValue) ->
+                {
+                    if (!getPollPolicy().equals(POLL_POLICY_FIXED))
+                        throw new ParserException(String.format("The option %s requires %s %s.",
+                            OPTION_POLL_INTERVAL.getName(), OPTION_POLL_POLICY.getName(), POLL_POLICY_FIXED));
+
+                    return parsePositiveInt(optionValue.getSingle(), OPTION_POLL_INTERVAL);
+                },
+                () -> (int) (FixedPollPolicy.DEFAULT_INTERVAL_MILLIS / 1000));
+
+        return this.pollIntervalSeconds;
+    }
+
     public static void printHelp() {
         System.out.println("-> test <web | mail> [options] [name of lists to test]");
         System.out.println("Test the lists of domains specified in the domains workbook file and place " +
@@ -118,6 +324,45 @@ public class TestDomainsArgs {
                 "If not defined, defaults to \"" + DEFAULT_INTERNTNL_API_CONFIG_FILE_NAME + "\" in the working directory (working-dir-path).\n" +
 
                 "\t" + OPTION_DOMAINS_FILE.getName() + " domains-file-path -> The path to the workbook file that contains the lists of domains to test. " +
-                "If not defined, defaults to \"" + DEFAULT_DOMAINS_WORKBOOK_FILE_NAME + "\" in the working directory (working-dir-path).\n");
+                "If not defined, defaults to \"" + DEFAULT_DOMAINS_WORKBOOK_FILE_NAME + "\" in the working directory (working-dir-path).\n" +
+
+                "\t" + OPTION_PARALLEL.getName() + " max-lists -> The maximum number of lists tested concurrently. " +
+                "If not defined, defaults to 1 (the lists are tested one by one).\n" +
+
+                "\t" + OPTION_POLL_POLICY.getName() + " <" + POLL_POLICY_ADAPTIVE + " | " + POLL_POLICY_FIXED + "> -> " +
+                "How the status of the running tests is polled. The " + POLL_POLICY_ADAPTIVE + " policy polls close to " +
+                "the expected completion time of each list, based on its size and past tests, and backs off exponentially. " +
+                "The " + POLL_POLICY_FIXED + " policy polls every 30 seconds. If not defined, defaults to " + POLL_POLICY_ADAPTIVE + ".\n" +
+
+                "\t" + OPTION_POLL_INTERVAL.getName() + " seconds -> The interval between two polls of the " +
+                POLL_POLICY_FIXED + " policy. If not defined, defaults to 30.\n" +
+
+                "\t" + OPTION_SHARD_SIZE.getName() + " max-domains -> Lists with more domains are split in shards of at most " +
+                "max-domains domains that are tested concurrently and merged in the original order. " +
+                "If not defined, the lists are not split.\n" +
+
+                "\t" + OPTION_DEDUPLICATE.getName() + " <yes | no> -> If yes, a domain that appears in several lists " +
+                "is tested only once and its results are shared by all those lists. If not defined, defaults to no.\n" +
+
+                "\t" + OPTION_CACHE_TTL.getName() + " hours -> Cache the results of each domain in the \"cache\" folder of the " +
+                "working directory and reuse the results tested less than the specified hours ago. " +
+                "If not defined, the results are not cached.\n" +
+
+                "\t" + OPTION_RETRY_FAILED.getName() + " <yes | no> -> If yes, the domains of already tested lists that " +
+                "were not tested successfully are tested again and their results are replaced in the saved results. " +
+                "If not defined, defaults to no.\n" +
+
+                "\t" + OPTION_BATCHES.getName() + " <max-batches | " + BATCHES_ADAPTIVE + "> -> The maximum number of " +
+                "tests (lists or shards) running at the same time in the batch server. The " + BATCHES_ADAPTIVE + " limit " +
+                "starts at 4 and grows while the tests complete in a healthy time, and is cut in half when a " +
+                "test fails or slows down. If not defined, there is no limit.\n" +
+
+                "\t" + OPTION_RESULTS_FORMAT.getName() + " <json | binary | both> -> The format of the saved results of each list: " +
+                "<list>.json, a compact binary <list>.bin that is read much faster by the report command, or both. " +
+                "If not defined, defaults to json.\n" +
+
+                "\t" + OPTION_RESULTS_COMPRESSION.getName() + " <none | gzip> -> The compression of the saved results " +
+                "of each list. Compressed results are saved as <list>.json.gz or <list>.bin.gz and are read directly " +
+                "by the report command. If not defined, defaults to none.\n");
     }
 }
@@ -0,0 +1,89 @@
+package observatory.history;
+
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.Map;
+
+import observatory.internetnlAPI.config.testResult.domain.ResultStatus;
+
+/**
+ * A point of the adoption curve of a category, test or custom test in a list:
+ * the number of domains with each status in a run.
+ *
+ * @author Henrique Campos Ferreira
+ */
+public class AdoptionPoint
+{
+    private final String run, date;
+
+    private final int domains;
+
+    private final EnumMap<ResultStatus, Integer> counts;
+
+    AdoptionPoint(String run, String date, int domains, EnumMap<ResultStatus, Integer> counts)
+    {
+        this.run = run;
+        this.date = date;
+        this.domains = domains;
+        this.counts = counts;
+    }
+
+    /**
+     * @param status
+     * @return The share (0 to 1) of the domains with results that have the specified status.
+     */
+    public double getShare(ResultStatus status)
+    {
+        int total = getTested();
+        return total == 0 ? 0 : (double) getCount(status) / total;
+    }
+
+    /**
+     * @param status
+     * @return The number of domains with the specified status.
+     */
+    public int getCount(ResultStatus status)
+    {
+        return this.counts.getOrDefault(status, 0);
+    }
+
+    /**
+     * @return The number of domains with results.
+     */
+    public int getTested()
+    {
+        return this.counts.values().stream().mapToInt(Integer::intValue).sum();
+    }
+
+    //#region Getters
+
+    /**
+     * @return the name of the run.
+     */
+    public String getRun() {
+        return run;
+    }
+
+    /**
+     * @return the date the list was submitted in the run.
+     */
+    public String getDate() {
+        return date;
+    }
+
+    /**
+     * @return the number of domains of the list in the run.
+     */
+    public int getDomains() {
+        return domains;
+    }
+
+    /**
+     * @return the number of domains with each status.
+     */
+    public Map<ResultStatus, Integer> getCounts() {
+        return Collections.unmodifiableMap(counts);
+    }
+
+    //#endregion
+}
@@ -0,0 +1,84 @@
+package observatory.history;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import observatory.internetnlAPI.config.testResult.domain.ResultStatus;
+
+/**
+ * The results of a domain of a list in a run. The statuses are read from the segment when requested.
+ *
+ * @author Henrique Campos Ferreira
+ */
+public class DomainSnapshot
+{
+    private final ResultsStore.SegmentRecord record;
+
+    private final Segment segment;
+
+    private final int row;
+
+    DomainSnapshot(ResultsStore.SegmentRecord record, Segment segment, int row)
+    {
+        this.record = record;
+        this.segment = segment;
+        this.row = row;
+    }
+
+    /**
+     * @param key - A category, test or custom test.
+     * @return The status of the result of the domain or null if the domain has none.
+     */
+    public ResultStatus getStatus(Enum<?> key)
+    {
+        return this.segment.getStatus(this.row, key);
+    }
+
+    /**
+     * @return The status of every category, test and custom test with a result.
+     */
+    public Map<Enum<?>, ResultStatus> getStatuses()
+    {
+        Map<Enum<?>, ResultStatus> result = new LinkedHashMap<>();
+        for (Enum<?> key : Segment.keys())
+        {
+            ResultStatus status = getStatus(key);
+            if (status != null)
+                result.put(key, status);
+        }
+
+        return result;
+    }
+
+    //#region Getters
+
+    /**
+     * @return the name of the run.
+     */
+    public String getRun() {
+        return record.getRun();
+    }
+
+    /**
+     * @return the name of the list.
+     */
+    public String getList() {
+        return record.getList();
+    }
+
+    /**
+     * @return the date the list was submitted in the run.
+     */
+    public String getDate() {
+        return record.getDate();
+    }
+
+    /**
+     * @return the name of the domain.
+     */
+    public String getDomain() {
+        return segment.getDomain(row);
+    }
+
+    //#endregion
+}
@@ -0,0 +1,44 @@
+package observatory.history;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+import observatory.history.ResultsStore.SegmentRecord;
+
+/**
+ * The outcome of adding the results of a collection of lists to a {@link ResultsStore}:
+ * the records of the lists added and the lists whose results could not be read.
+ *
+ * @author Henrique Campos Ferreira
+ */
+public class Ingestion
+{
+    private final List<SegmentRecord> records;
+
+    private final Map<String, String> skipped;
+
+    Ingestion(List<SegmentRecord> records, Map<String, String> skipped)
+    {
+        this.records = Collections.unmodifiableList(records);
+        this.skipped = Collections.unmodifiableMap(skipped);
+    }
+
+    //#region Getters
+
+    /**
+     * @return the records of the lists added to the store.
+     */
+    public List<SegmentRecord> getRecords() {
+        return records;
+    }
+
+    /**
+     * @return the reason each list was skipped, by list.
+     */
+    public Map<String, String> getSkipped() {
+        return skipped;
+    }
+
+    //#endregion
+}
@@ -0,0 +1,590 @@
+package observatory.history;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.SortedSet;
+import java.util.TreeSet;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.JsonToken;
+
+import observatory.internetnlAPI.config.InternetnlRequest;
+import observatory.internetnlAPI.config.testResult.BinaryResultsFormat;
+import observatory.internetnlAPI.config.testResult.ListResultsTable;
+import observatory.internetnlAPI.config.testResult.domain.Category;
+import observatory.internetnlAPI.config.testResult.domain.CustomTest;
+import observatory.internetnlAPI.config.testResult.domain.ResultStatus;
+import observatory.internetnlAPI.config.testResult.domain.Test;
+import observatory.tests.ListTestCollection;
+import observatory.util.Compression;
+import observatory.util.InvalidFormatException;
+import observatory.util.JSONserialization;
+import observatory.util.Journal;
+
+/**
+ * An embedded store of the results of many runs, to follow the results over time.
+ * The results are keyed by run, list, domain and category, test or custom test.
+ * <p>
+ * The results of each list of a run are saved in a {@link Segment} and described by a record
+ * of the catalog, an append-only {@link Journal} like the {@link observatory.tests.Index Index},
+ * compacted when it has many stale records of lists added again to a run.
+ * Each record keeps the number of domains with each status, for each category, test and
+ * custom test of the list, so the adoption curve of a test is answered from the catalog
+ * without reading the segments. The history of a domain is answered from the sorted domains
+ * saved in each segment, with a binary search, and reads a byte per run.
+ * <p>
+ * All operations are synchronized.
+ *
+ * @author Henrique Campos Ferreira
+ */
+public class ResultsStore
+{
+    public static final String CATALOG_FILE_NAME = "catalog.journal";
+
+    public static final String SEGMENTS_FOLDER_NAME = "segments";
+
+    /**
+     * The minimum number of stale records before compacting the catalog.
+     */
+    private static final int MIN_STALE_RECORDS_TO_COMPACT = 64;
+
+    private final File folder, segmentsFolder;
+
+    private final Journal<SegmentRecord> catalog;
+
+    /**
+     * The number of records in the catalog.
+     */
+    private int records;
+
+    /**
+     * The number of lists of all runs.
+     */
+    private int lists;
+
+    /**
+     * The record of the segment of each list, by run.
+     */
+    private final Map<String, Map<String, SegmentRecord>> runs;
+
+    private final Map<String, Segment> openSegments;
+
+    private ResultsStore(File folder)
+    {
+        this.folder = folder;
+        this.catalog = new Journal<>(new File(folder, CATALOG_FILE_NAME), SegmentRecord.class);
+        this.segmentsFolder = new File(folder, SEGMENTS_FOLDER_NAME);
+        this.runs = new HashMap<>();
+        this.openSegments = new HashMap<>();
+    }
+
+    /**
+     * Open the store in the specified folder, creating it if it does not exist.
+     * The catalog is replayed; a partial record written during a crash is removed
+     * and the records that cannot be parsed are ignored.
+     *
+     * @param folder - The folder of the store.
+     * @return The store.
+     * @throws IOException
+     */
+    public static ResultsStore open(File folder) throws IOException
+    {
+        ResultsStore store = new ResultsStore(Objects.requireNonNull(folder));
+        store.segmentsFolder.mkdirs();
+        if (!store.segmentsFolder.isDirectory())
+            throw new IOException("Invalid results store location.");
+
+        store.records = store.catalog.replay(store::put);
+        return store;
+    }
+
+    //#region Ingestion
+
+    /**
+     * Add the results of a list to a run. The results of the list previously added to the run are replaced.
+     *
+     * @param run - The name of the run.
+     * @param table - The results of the list.
+     * @return The record of the results in the catalog.
+     * @throws IOException
+     */
+    public synchronized SegmentRecord ingest(String run, ListResultsTable table) throws IOException
+    {
+        Objects.requireNonNull(run);
+        InternetnlRequest request = table.getRequest();
+
+        File runFolder = new File(this.segmentsFolder, run.replaceAll("[^A-Za-z0-9._-]", "_"));
+        runFolder.mkdirs();
+        File segmentFile = File.createTempFile("list-", Segment.FILE_EXTENSION, runFolder);
+        Map<Enum<?>, int[]> counts = Segment.write(table, segmentFile);
+
+        SegmentRecord record = new SegmentRecord();
+        record.setRun(run);
+        record.setList(request.getName());
+        record.setType(request.getRequest_type() == null ? null : request.getRequest_type().getType());
+        record.setDate(request.getSubmit_date());
+        record.setFile(this.folder.toPath().relativize(segmentFile.toPath()).toString());
+        record.setDomains(table.size());
+        record.putCounts(counts);
+
+        append(record);
+        SegmentRecord previous = put(record);
+        if (previous != null)
+        {
+            this.openSegments.remove(previous.getFile());
+            new File(this.folder, previous.getFile()).delete();
+        }
+
+        int staleRecords = this.records - this.lists;
+        if (staleRecords >= MIN_STALE_RECORDS_TO_COMPACT && staleRecords > this.lists)
+            compact();
+
+        return record;
+    }
+
+    /**
+     * Add the results of every list of a collection to a run.
+     * The JSON files in the collection without a request (which are not results of a list) are ignored;
+     * the lists whose results cannot be read are skipped and reported.
+     *
+     * @param run - The name of the run or null to name it by the date of the list submitted first.
+     * @param collection - The results of the lists.
+     * @return The records of the results in the catalog and the lists skipped.
+     * @throws IOException
+     */
+    public synchronized Ingestion ingest(String run, ListTestCollection collection) throws IOException
+    {
+        List<ListResultsTable> tables = new ArrayList<>();
+        Map<String, String> skipped = new LinkedHashMap<>();
+        for (String list : collection.getListNames())
+        {
+            try {
+                tables.add(collection.getListResultsTable(list));
+            } catch (InvalidFormatException | JsonProcessingException e) {
+                if (hasRequest(collection.getListResultsFile(list)))
+                    skipped.put(list, e.getMessage());
+            }
+        }
+
+        if (run == null)
+            run = defaultRunName(tables);
+
+        List<SegmentRecord> records = new ArrayList<>(tables.size());
+        for (ListResultsTable table : tables)
+            records.add(ingest(run, table));
+
+        return new Ingestion(records, skipped);
+    }
+
+    /**
+     * Check if a file that could not be read has the request of the results of a list,
+     * so it is a damaged results file and not some other JSON file.
+     * @param file
+     * @return false if the file is JSON, but not an object with a request.
+     * @throws IOException
+     */
+    private static boolean hasRequest(File file) throws IOException
+    {
+        if (BinaryResultsFormat.isBinary(file))
+            return true;
+
+        try (InputStream stream = Compression.openInputStream(file);
+            JsonParser parser = JSONserialization.getMapper().createParser(stream))
+        {
+            if (parser.nextToken() != JsonToken.START_OBJECT)
+                return false;
+
+            while (parser.nextToken() == JsonToken.FIELD_NAME)
+            {
+                if (parser.getCurrentName().equals("request"))
+                    return true;
+
+                parser.nextToken();
+                parser.skipChildren();
+            }
+
+            return false;
+        } catch (JsonProcessingException e) {
+            return true;
+        }
+    }
+
+    /**
+     * @param tables - The results of the lists of a run.
+     * @return The date (yyyy-MM-dd) of the list submitted first or "unknown" if there is none.
+     */
+    public static String defaultRunName(List<ListResultsTable> tables)
+    {
+        return tables.stream().map((table) -> parseDate(table.getRequest().getSubmit_date()))
+            .filter(Objects::nonNull).min(Comparator.naturalOrder())
+            .map((date) -> LocalDate.ofInstant(date, ZoneOffset.UTC).toString())
+            .orElse("unknown");
+    }
+
+    private SegmentRecord put(SegmentRecord record)
+    {
+        SegmentRecord previous = this.runs.computeIfAbsent(record.getRun(), (run) -> new LinkedHashMap<>())
+            .put(record.getList(), record);
+        if (previous == null)
+            this.lists++;
+
+        return previous;
+    }
+
+    /**
+     * Append a record to the catalog and force it to disk.
+     * @param record
+     * @throws IOException
+     */
+    private void append(SegmentRecord record) throws IOException
+    {
+        this.catalog.append(record);
+        this.records++;
+    }
+
+    /**
+     * Rewrite the catalog with the current record of each list. The new catalog is written to
+     * a temporary file that replaces the catalog atomically.
+     * @throws IOException
+     */
+    private void compact() throws IOException
+    {
+        List<SegmentRecord> current = new ArrayList<>(this.lists);
+        this.runs.values().forEach((lists) -> current.addAll(lists.values()));
+
+        this.catalog.rewrite(current);
+        this.records = current.size();
+    }
+
+    //#endregion
+
+    //#region Queries
+
+    /**
+     * @return The names of the runs, from the oldest to the newest.
+     */
+    public synchronized List<String> getRuns()
+    {
+        List<String> result = new ArrayList<>(this.runs.keySet());
+        result.sort(Comparator.comparing((String run) -> getRunDate(run), Comparator.nullsLast(Comparator.naturalOrder()))
+            .thenComparing(Comparator.naturalOrder()));
+        return result;
+    }
+
+    /**
+     * @return The names of the lists of all runs.
+     */
+    public synchronized SortedSet<String> getLists()
+    {
+        SortedSet<String> result = new TreeSet<>();
+        this.runs.values().forEach((lists) -> result.addAll(lists.keySet()));
+        return result;
+    }
+
+    /**
+     * @param run
+     * @return The records of the lists of the run, by list.
+     */
+    public synchronized Map<String, SegmentRecord> getRun(String run)
+    {
+        return Collections.unmodifiableMap(this.runs.getOrDefault(run, Map.of()));
+    }
+
+    /**
+     * Get the share of the domains of a list with each status of a category, test or custom test,
+     * in each run. It is answered from the catalog, without reading the results.
+     *
+     * @param list - The name of the list.
+     * @param key - A category, test or custom test.
+     * @return A point of the curve for each run with results of the list, from the oldest to the newest.
+     */
+    public synchronized List<AdoptionPoint> getAdoptionCurve(String list, Enum<?> key)
+    {
+        List<AdoptionPoint> curve = new ArrayList<>();
+        for (String run : getRuns())
+        {
+            SegmentRecord record = this.runs.get(run).get(list);
+            if (record != null)
+                curve.add(new AdoptionPoint(run, record.getDate(), record.getDomains(), record.getCounts(key)));
+        }
+
+        return curve;
+    }
+
+    /**
+     * Get the results of a domain in every run and list.
+     *
+     * @param domain - The name of the domain.
+     * @return The results of the domain, from the oldest run to the newest.
+     * @throws IOException
+     * @throws InvalidFormatException if a segment is corrupted.
+     */
+    public synchronized List<DomainSnapshot> getDomainHistory(String domain) throws IOException, InvalidFormatException
+    {
+        List<DomainSnapshot> history = new ArrayList<>();
+        for (String run : getRuns())
+        {
+            List<SegmentRecord> records = new ArrayList<>(this.runs.get(run).values());
+            records.sort(Comparator.comparing(SegmentRecord::getList));
+            for (SegmentRecord record : records)
+            {
+                Segment segment = getSegment(record);
+                int row = segment.findRow(domain);
+                if (row >= 0)
+                    history.add(new DomainSnapshot(record, segment, row));
+            }
+        }
+
+        return history;
+    }
+
+    /**
+     * Parse the name of a category, test or custom test.
+     * @param name
+     * @return The category, test or custom test.
+     */
+    public static Optional<Enum<?>> parseKey(String name)
+    {
+        Optional<Enum<?>> key = Category.getEnumValue(name).map((value) -> value);
+        if (key.isEmpty())
+            key = Test.getEnumValue(name).map((value) -> value);
+        if (key.isEmpty())
+            key = CustomTest.getEnumValue(name).map((value) -> value);
+
+        return key;
+    }
+
+    //#endregion
+
+    private Segment getSegment(SegmentRecord record) throws IOException, InvalidFormatException
+    {
+        Segment segment = this.openSegments.get(record.getFile());
+        if (segment == null)
+        {
+            segment = Segment.open(new File(this.folder, record.getFile()));
+            this.openSegments.put(record.getFile(), segment);
+        }
+
+        return segment;
+    }
+
+    private Instant getRunDate(String run)
+    {
+        return this.runs.get(run).values().stream().map((record) -> parseDate(record.getDate()))
+            .filter(Objects::nonNull).min(Comparator.naturalOrder()).orElse(null);
+    }
+
+    private static Instant parseDate(String date)
+    {
+        if (date == null)
+            return null;
+
+        try {
+            return OffsetDateTime.parse(date).toInstant();
+        } catch (DateTimeParseException e) {
+            return null;
+        }
+    }
+
+    /**
+     * A record of the catalog: the results of a list in a run.
+     */
+    public static class SegmentRecord
+    {
+        private String run, list, type, date, file;
+
+        private int domains;
+
+        /**
+         * The number of domains with each status (by name), for each category, test and custom test (by name).
+         */
+        private Map<String, Map<String, Integer>> categories, tests, custom;
+
+        public SegmentRecord() {
+        }
+
+        private void putCounts(Map<Enum<?>, int[]> counts)
+        {
+            this.categories = new LinkedHashMap<>();
+            this.tests = new LinkedHashMap<>();
+            this.custom = new LinkedHashMap<>();
+
+            counts.forEach((key, count) ->
+            {
+                Map<String, Integer> byStatus = new LinkedHashMap<>();
+                for (ResultStatus status : ResultStatus.values())
+                    if (count[status.ordinal()] > 0)
+                        byStatus.put(status.getStatus(), count[status.ordinal()]);
+
+                (key instanceof Category ? this.categories : key instanceof Test ? this.tests : this.custom)
+                    .put(Segment.name(key), byStatus);
+            });
+        }
+
+        /**
+         * @param key - A category, test or custom test.
+         * @return The number of domains with each status or an empty map if the list has no results of the key.
+         */
+        public EnumMap<ResultStatus, Integer> getCounts(Enum<?> key)
+        {
+            Map<String, Map<String, Integer>> counts =
+                key instanceof Category ? this.categories : key instanceof Test ? this.tests : this.custom;
+
+            EnumMap<ResultStatus, Integer> result = new EnumMap<>(ResultStatus.class);
+            Map<String, Integer> byStatus = counts == null ? null : counts.get(Segment.name(key));
+            if (byStatus != null)
+                for (ResultStatus status : ResultStatus.values())
+                    if (byStatus.containsKey(status.getStatus()))
+                        result.put(status, byStatus.get(status.getStatus()));
+
+            return result;
+        }
+
+        //#region Getters & Setters
+
+        /**
+         * @return the name of the run.
+         */
+        public String getRun() {
+            return run;
+        }
+
+        /**
+         * @param run the run to set
+         */
+        public void setRun(String run) {
+            this.run = run;
+        }
+
+        /**
+         * @return the name of the list.
+         */
+        public String getList() {
+            return list;
+        }
+
+        /**
+         * @param list the list to set
+         */
+        public void setList(String list) {
+            this.list = list;
+        }
+
+        /**
+         * @return the type of the test of the list.
+         */
+        public String getType() {
+            return type;
+        }
+
+        /**
+         * @param type the type to set
+         */
+        public void setType(String type) {
+            this.type = type;
+        }
+
+        /**
+         * @return the date the list was submitted.
+         */
+        public String getDate() {
+            return date;
+        }
+
+        /**
+         * @param date the date to set
+         */
+        public void setDate(String date) {
+            this.date = date;
+        }
+
+        /**
+         * @return the segment file, relative to the folder of the store.
+         */
+        public String getFile() {
+            return file;
+        }
+
+        /**
+         * @param file the file to set
+         */
+        public void setFile(String file) {
+            this.file = file;
+        }
+
+        /**
+         * @return the number of domains of the list.
+         */
+        public int getDomains() {
+            return domains;
+        }
+
+        /**
+         * @param domains the domains to set
+         */
+        public void setDomains(int domains) {
+            this.domains = domains;
+        }
+
+        /**
+         * @return the categories
+         */
+        public Map<String, Map<String, Integer>> getCategories() {
+            return categories;
+        }
+
+        /**
+         * @param categories the categories to set
+         */
+        public void setCategories(Map<String, Map<String, Integer>> categories) {
+            this.categories = categories;
+        }
+
+        /**
+         * @return the tests
+         */
+        public Map<String, Map<String, Integer>> getTests() {
+            return tests;
+        }
+
+        /**
+         * @param tests the tests to set
+         */
+        public void setTests(Map<String, Map<String, Integer>> tests) {
+            this.tests = tests;
+        }
+
+        /**
+         * @return the custom
+         */
+        public Map<String, Map<String, Integer>> getCustom() {
+            return custom;
+        }
+
+        /**
+         * @param custom the custom to set
+         */
+        public void setCustom(Map<String, Map<String, Integer>> custom) {
+            this.custom = custom;
+        }
+
+        //#endregion
+    }
+}
@@ -0,0 +1,401 @@
+package observatory.history;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+
+import observatory.internetnlAPI.config.testResult.ListResultsTable;
+import observatory.internetnlAPI.config.testResult.domain.Category;
+import observatory.internetnlAPI.config.testResult.domain.CustomTest;
+import observatory.internetnlAPI.config.testResult.domain.ResultStatus;
+import observatory.internetnlAPI.config.testResult.domain.Test;
+import observatory.util.InvalidFormatException;
+
+/**
+ * A segment of the {@link ResultsStore}: the status of every category, test and custom test
+ * of each domain of a list in a run. The segment is read through a memory mapped file and
+ * the status of a domain is read directly from its column, so a query reads a byte per result.
+ * The rows are sorted by domain and the offset of the name of each row is saved, so the row
+ * of a domain is found with a binary search, without reading the names of the other domains.
+ * <pre>
+ * magic "OBSH", version (short)
+ * status names: count (byte), then each name (short length + UTF-8)
+ * rows (int), length of the names (int), offset of the name of each row (int, from the first name)
+ *   and the name of each domain (short length + UTF-8), sorted by name
+ * columns: count (short), then for each one its kind (byte), its name (short length + UTF-8)
+ *   and the index of the status name of each row (byte, -1 if the domain has no result)
+ * </pre>
+ *
+ * @author Henrique Campos Ferreira
+ */
+final class Segment
+{
+    static final String FILE_EXTENSION = ".seg";
+
+    private static final byte[] MAGIC = { 'O', 'B', 'S', 'H' };
+    private static final short VERSION = 2;
+
+    private static final byte KIND_CATEGORY = 0, KIND_TEST = 1, KIND_CUSTOM = 2;
+
+    private static final byte NO_RESULT = -1;
+
+    private static final ResultStatus[] STATUS_VALUES = ResultStatus.values();
+
+    private final ByteBuffer buffer;
+
+    private final int rows;
+
+    /**
+     * The position of the offsets of the names and of the first name in the buffer.
+     */
+    private final int offsetsPosition, namesPosition;
+
+    /**
+     * The offset of the column of each category, test or custom test in the buffer.
+     */
+    private final Map<Enum<?>, Integer> columns;
+
+    /**
+     * The current status of each status saved in the file.
+     */
+    private final ResultStatus[] statusValues;
+
+    private Segment(ByteBuffer buffer, int rows, int offsetsPosition, int namesPosition,
+        Map<Enum<?>, Integer> columns, ResultStatus[] statusValues)
+    {
+        this.buffer = buffer;
+        this.rows = rows;
+        this.offsetsPosition = offsetsPosition;
+        this.namesPosition = namesPosition;
+        this.columns = columns;
+        this.statusValues = statusValues;
+    }
+
+    //#region Keys
+
+    /**
+     * @return All the categories, tests and custom tests.
+     */
+    static List<Enum<?>> keys()
+    {
+        List<Enum<?>> keys = new ArrayList<>();
+        keys.addAll(Arrays.asList(Category.values()));
+        keys.addAll(Arrays.asList(Test.values()));
+        keys.addAll(Arrays.asList(CustomTest.values()));
+        return keys;
+    }
+
+    /**
+     * @param key - A category, test or custom test.
+     * @return The name of the key in the results.
+     */
+    static String name(Enum<?> key)
+    {
+        if (key instanceof Category)
+            return ((Category) key).getCategory();
+        else if (key instanceof Test)
+            return ((Test) key).getTest();
+        else
+            return ((CustomTest) key).getTest();
+    }
+
+    private static byte kind(Enum<?> key)
+    {
+        return key instanceof Category ? KIND_CATEGORY : key instanceof Test ? KIND_TEST : KIND_CUSTOM;
+    }
+
+    private static Optional<? extends Enum<?>> key(byte kind, String name)
+    {
+        switch (kind) {
+            case KIND_CATEGORY:
+                return Category.getEnumValue(name);
+            case KIND_TEST:
+                return Test.getEnumValue(name);
+            default:
+                return CustomTest.getEnumValue(name);
+        }
+    }
+
+    //#endregion
+
+    //#region Write
+
+    /**
+     * Save the results of a list as a segment, sorted by domain, and force it to disk.
+     * Only the columns of the categories, tests and custom tests with results are saved.
+     *
+     * @param table - The results of the list.
+     * @param output - The segment file.
+     * @return The number of domains with each status (by ordinal), for each column saved.
+     * @throws IOException
+     */
+    static Map<Enum<?>, int[]> write(ListResultsTable table, File output) throws IOException
+    {
+        int rows = table.size();
+        Integer[] order = new Integer[rows];
+        byte[][] names = new byte[rows][];
+        for (int row = 0; row < rows; row++)
+        {
+            order[row] = row;
+            names[row] = domain(table, row).getBytes(StandardCharsets.UTF_8);
+        }
+        Arrays.sort(order, Comparator.comparing((Integer row) -> domain(table, row)));
+
+        Map<Enum<?>, byte[]> columns = new LinkedHashMap<>();
+        Map<Enum<?>, int[]> counts = new LinkedHashMap<>();
+
+        for (Enum<?> key : keys())
+        {
+            byte[] column = null;
+            int[] count = null;
+            for (int row = 0; row < rows; row++)
+            {
+                ResultStatus status = getStatus(table, order[row], key);
+                if (status == null)
+                    continue;
+
+                if (column == null)
+                {
+                    column = new byte[rows];
+                    Arrays.fill(column, NO_RESULT);
+                    count = new int[STATUS_VALUES.length];
+                }
+
+                column[row] = (byte) status.ordinal();
+                count[status.ordinal()]++;
+            }
+
+            if (column != null)
+            {
+                columns.put(key, column);
+                counts.put(key, count);
+            }
+        }
+
+        try (FileChannel channel = FileChannel.open(output.toPath(), StandardOpenOption.CREATE,
+            StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE))
+        {
+            DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Channels.newOutputStream(channel)));
+            out.write(MAGIC);
+            out.writeShort(VERSION);
+
+            out.writeByte(STATUS_VALUES.length);
+            for (ResultStatus status : STATUS_VALUES)
+                writeString(out, status.getStatus());
+
+            out.writeInt(rows);
+            int namesLength = 0;
+            for (byte[] name : names)
+                namesLength += Short.BYTES + name.length;
+            out.writeInt(namesLength);
+
+            int offset = 0;
+            for (int row = 0; row < rows; row++)
+            {
+                out.writeInt(offset);
+                offset += Short.BYTES + names[order[row]].length;
+            }
+
+            for (int row = 0; row < rows; row++)
+            {
+                out.writeShort(names[order[row]].length);
+                out.write(names[order[row]]);
+            }
+
+            out.writeShort(columns.size());
+            for (Map.Entry<Enum<?>, byte[]> column : columns.entrySet())
+            {
+                out.writeByte(kind(column.getKey()));
+                writeString(out, name(column.getKey()));
+                out.write(column.getValue());
+            }
+
+            out.flush();
+            channel.force(true);
+        }
+
+        return counts;
+    }
+
+    private static String domain(ListResultsTable table, int row)
+    {
+        return table.getDomain(row) == null ? "" : table.getDomain(row);
+    }
+
+    private static ResultStatus getStatus(ListResultsTable table, int row, Enum<?> key)
+    {
+        if (key instanceof Category)
+            return table.getStatus(row, (Category) key);
+        else if (key instanceof Test)
+            return table.getStatus(row, (Test) key);
+        else
+            return table.getStatus(row, (CustomTest) key);
+    }
+
+    private static void writeString(DataOutputStream out, String string) throws IOException
+    {
+        byte[] bytes = string.getBytes(StandardCharsets.UTF_8);
+        out.writeShort(bytes.length);
+        out.write(bytes);
+    }
+
+    //#endregion
+
+    //#region Read
+
+    /**
+     * Open a segment. Only the position of the names and of the columns are read;
+     * the names and the statuses are read from the mapped file when they are queried.
+     *
+     * @param input - The segment file.
+     * @return The segment.
+     * @throws IOException
+     * @throws InvalidFormatException
+     */
+    static Segment open(File input) throws IOException, InvalidFormatException
+    {
+        ByteBuffer buffer;
+        try (FileChannel channel = FileChannel.open(input.toPath(), StandardOpenOption.READ))
+        {
+            buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        }
+
+        try
+        {
+            byte[] magic = new byte[MAGIC.length];
+            buffer.get(magic);
+            if (!Arrays.equals(magic, MAGIC))
+                throw new InvalidFormatException(input.getName() + " is not a segment of a results store.");
+
+            short version = buffer.getShort();
+            if (version != VERSION)
+                throw new InvalidFormatException("Unsupported version of segment: " + version);
+
+            ResultStatus[] statusValues = new ResultStatus[buffer.get()];
+            for (int i = 0; i < statusValues.length; i++)
+            {
+                String name = readString(buffer);
+                for (ResultStatus status : STATUS_VALUES)
+                    if (status.getStatus().equals(name))
+                        statusValues[i] = status;
+            }
+
+            int rows = buffer.getInt();
+            int namesLength = buffer.getInt();
+            if (rows < 0 || namesLength < 0)
+                throw new InvalidFormatException("The segment " + input.getName() + " is corrupted.");
+
+            int offsetsPosition = buffer.position();
+            int namesPosition = Math.addExact(offsetsPosition, Math.multiplyExact(rows, Integer.BYTES));
+            buffer.position(Math.addExact(namesPosition, namesLength));
+
+            int count = buffer.getShort();
+            Map<Enum<?>, Integer> columns = new HashMap<>(count * 2);
+            for (int i = 0; i < count; i++)
+            {
+                byte kind = buffer.get();
+                Optional<? extends Enum<?>> key = key(kind, readString(buffer));
+                if (key.isPresent())
+                    columns.put(key.get(), buffer.position());
+
+                buffer.position(buffer.position() + rows);
+            }
+
+            return new Segment(buffer, rows, offsetsPosition, namesPosition, columns, statusValues);
+        } catch (BufferUnderflowException | IllegalArgumentException | ArithmeticException e) {
+            throw new InvalidFormatException("The segment " + input.getName() + " is truncated.", e);
+        }
+    }
+
+    private static String readString(ByteBuffer buffer)
+    {
+        byte[] bytes = new byte[Short.toUnsignedInt(buffer.getShort())];
+        buffer.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    //#endregion
+
+    /**
+     * @return the number of domains (rows).
+     */
+    int size()
+    {
+        return this.rows;
+    }
+
+    /**
+     * @param row
+     * @return the name of the domain.
+     */
+    String getDomain(int row)
+    {
+        int position = this.namesPosition + this.buffer.getInt(this.offsetsPosition + row * Integer.BYTES);
+        byte[] bytes = new byte[Short.toUnsignedInt(this.buffer.getShort(position))];
+        this.buffer.get(position + Short.BYTES, bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Find the row of a domain with a binary search of the sorted names.
+     * @param domain
+     * @return The row of the domain or -1 if the segment has no results of the domain.
+     */
+    int findRow(String domain)
+    {
+        int low = 0, high = this.rows - 1;
+        while (low <= high)
+        {
+            int middle = (low + high) >>> 1;
+            int comparison = getDomain(middle).compareTo(domain);
+            if (comparison < 0)
+                low = middle + 1;
+            else if (comparison > 0)
+                high = middle - 1;
+            else
+                return middle;
+        }
+
+        return -1;
+    }
+
+    /**
+     * @return the categories, tests and custom tests with results in this segment.
+     */
+    Set<Enum<?>> getKeys()
+    {
+        return Collections.unmodifiableSet(this.columns.keySet());
+    }
+
+    /**
+     * @param row
+     * @param key - A category, test or custom test.
+     * @return The status of the result of the domain or null if the domain has none.
+     */
+    ResultStatus getStatus(int row, Enum<?> key)
+    {
+        Integer offset = this.columns.get(key);
+        if (offset == null)
+            return null;
+
+        byte value = this.buffer.get(offset + row);
+        return value == NO_RESULT ? null : this.statusValues[value];
+    }
+}
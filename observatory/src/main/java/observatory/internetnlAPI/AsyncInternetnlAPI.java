@@ -0,0 +1,96 @@
+package observatory.internetnlAPI;
+
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+
+import observatory.internetnlAPI.config.RequestType;
+import observatory.internetnlAPI.config.TestInfo;
+import observatory.internetnlAPI.config.testResult.DomainResultsSink;
+import observatory.internetnlAPI.config.testResult.TestResult;
+import observatory.internetnlAPI.config.testResult.domain.DomainResults;
+
+/**
+ * Represents the available operations to interact with the Internet.nl API without blocking
+ * the calling thread.
+ * <p>
+ * The futures returned by each operation are completed exceptionally with an
+ * {@link InternetnlAPIException} (or a {@link TestIdNotFoundException}) in case of an error.
+ *
+ * @author Henrique Campos Ferreira
+ */
+public interface AsyncInternetnlAPI extends AutoCloseable
+{
+    /**
+     * Submits a list of domains for testing.
+     *
+     * @param name - The name of the test.
+     * @param domains - A list of domains to test.
+     * @param type - The type of test to perform.
+     *
+     * @return A future completed with information about the test.
+     */
+    CompletableFuture<TestInfo> submit(String name, String[] domains, RequestType type);
+
+    /**
+     * Get the status of a submitted test.
+     *
+     * @param requestId - The id of the test.
+     *
+     * @return A future completed with information about the specified test.
+     */
+    CompletableFuture<TestInfo> status(String requestId);
+
+    /**
+     * Get the results of a completed test.
+     *
+     * @param requestId - The id of the test.
+     *
+     * @return A future completed with the results of the specified test.
+     */
+    CompletableFuture<TestResult> get(String requestId);
+
+    /**
+     * Get the results of a completed test, handing the results of each domain to a sink
+     * as they arrive instead of keeping them in the returned results.
+     * <p>
+     * By default, the results are fetched with {@link #get(String)} and then handed to the sink.
+     *
+     * @param requestId - The id of the test.
+     * @param sink - Receives the results of each domain.
+     *
+     * @return A future completed with the results of the specified test without the domains.
+     */
+    default CompletableFuture<TestResult> get(String requestId, DomainResultsSink sink)
+    {
+        return get(requestId).thenApply((result) ->
+            {
+                if (result.getDomains() != null)
+                {
+                    try {
+                        for (Map.Entry<String, DomainResults> domain : result.getDomains().entrySet())
+                            sink.accept(domain.getKey(), domain.getValue());
+                    } catch (Exception e) {
+                        throw new CompletionException(
+                            new InternetnlAPIException("Could not store the results of the test:\n" + e.getMessage(), e));
+                    }
+                }
+
+                result.setDomains(null);
+                return result;
+            });
+    }
+
+    /**
+     * Get statistics about the requests sent to the API, for monitoring.
+     *
+     * @return The statistics or null if there are none.
+     */
+    default String getStatistics()
+    {
+        return null;
+    }
+
+    @Override
+    void close();
+}
@@ -0,0 +1,84 @@
+package observatory.internetnlAPI;
+
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+
+import observatory.internetnlAPI.config.RequestType;
+import observatory.internetnlAPI.config.TestInfo;
+import observatory.internetnlAPI.config.testResult.TestResult;
+
+/**
+ * An AsyncInternetnlAPI that runs the operations of a blocking InternetnlAPI in an executor.
+ *
+ * @author Henrique Campos Ferreira
+ */
+public class AsyncInternetnlAPIAdapter implements AsyncInternetnlAPI
+{
+    private final InternetnlAPI api;
+
+    private final Executor executor;
+
+    /**
+     * @param api - The blocking API.
+     * @param executor - The executor that runs the blocking operations.
+     */
+    public AsyncInternetnlAPIAdapter(InternetnlAPI api, Executor executor)
+    {
+        this.api = Objects.requireNonNull(api);
+        this.executor = Objects.requireNonNull(executor);
+    }
+
+    @Override
+    public CompletableFuture<TestInfo> submit(String name, String[] domains, RequestType type)
+    {
+        return supply(() -> this.api.submit(name, domains, type));
+    }
+
+    @Override
+    public CompletableFuture<TestInfo> status(String requestId)
+    {
+        return supply(() -> this.api.status(requestId));
+    }
+
+    @Override
+    public CompletableFuture<TestResult> get(String requestId)
+    {
+        return supply(() -> this.api.get(requestId));
+    }
+
+    @Override
+    public String getStatistics()
+    {
+        return this.api.getStatistics();
+    }
+
+    private <T> CompletableFuture<T> supply(Operation<T> operation)
+    {
+        return CompletableFuture.supplyAsync(() ->
+            {
+                try {
+                    return operation.call();
+                } catch (InternetnlAPIException e) {
+                    throw new CompletionException(e);
+                } catch (RuntimeException e) {
+                    throw new CompletionException(new InternetnlAPIException(e));
+                }
+            },
+            this.executor);
+    }
+
+    /**
+     * The blocking API is owned by the caller, so it is not closed.
+     */
+    @Override
+    public void close() {
+    }
+
+    @FunctionalInterface
+    private interface Operation<T>
+    {
+        T call() throws InternetnlAPIException;
+    }
+}
@@ -0,0 +1,414 @@
+package observatory.internetnlAPI;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.util.Base64;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import com.fasterxml.jackson.databind.ObjectReader;
+
+import jakarta.ws.rs.core.Response.Status;
+import observatory.internetnlAPI.config.RequestType;
+import observatory.internetnlAPI.config.TestInfo;
+import observatory.internetnlAPI.config.testResult.DomainResultsSink;
+import observatory.internetnlAPI.config.testResult.TestResult;
+import observatory.internetnlAPI.config.testResult.TestResultParser;
+import observatory.internetnlAPI.resilience.RateLimiter;
+import observatory.internetnlAPI.resilience.RateLimits;
+import observatory.internetnlAPI.resilience.Resilience;
+import observatory.internetnlAPI.transport.ContentDecoder;
+import observatory.internetnlAPI.transport.HttpReply;
+import observatory.internetnlAPI.transport.HttpTransport;
+import observatory.internetnlAPI.transport.JdkHttpTransport;
+import observatory.util.JSONserialization;
+
+/**
+ * An implementation of AsyncInternetnlAPI that communicates via HTTP without blocking.
+ * Requests are sent by a {@link HttpTransport}, the JDK HTTP client by default, so any number
+ * of operations can be in flight using the few threads of the client. The replies are
+ * requested compressed and are decoded and parsed while they are streamed from the connection,
+ * by threads that only read the bodies, so a slow body never holds the threads of the client
+ * or of the transport.
+ *
+ * @author Henrique Campos Ferreira
+ */
+public class AsyncInternetnlAPIOverNetwork implements AsyncInternetnlAPI
+{
+    private static final int HTTP_OK = 200;
+    private static final int HTTP_NO_CONTENT = 204;
+    private static final int HTTP_NOT_FOUND = 404;
+
+    private static final int CLIENT_THREADS = 2;
+
+    private final ExecutorService executor;
+
+    /**
+     * Reads the bodies of the replies, blocking while the data is received.
+     */
+    private final ExecutorService bodyExecutor;
+
+    private final HttpTransport transport;
+
+    private final URI endpoint;
+
+    /**
+     * The headers of every request, built once.
+     */
+    private final Map<String, String> headers, postHeaders;
+
+    private final ContentDecoder decoder;
+
+    private final TestResultParser resultParser;
+
+    private final Resilience resilience;
+
+    private final RateLimits rateLimits;
+
+
+    /**
+     * Creates a new non-blocking HTTP client to communicate with the Internetnl API.
+     *
+     * @param endpoint
+     * @param username
+     * @param password
+     */
+    public AsyncInternetnlAPIOverNetwork(URI endpoint, String username, String password)
+    {
+        this(endpoint, username, password, new Resilience(), new RateLimits(), new JdkHttpTransport());
+    }
+
+    /**
+     * Creates a new non-blocking HTTP client to communicate with the Internetnl API.
+     *
+     * @param endpoint
+     * @param username
+     * @param password
+     * @param resilience - Retries the failed requests.
+     * @param rateLimits - Limits the rate of each kind of request.
+     */
+    public AsyncInternetnlAPIOverNetwork(URI endpoint, String username, String password, Resilience resilience,
+        RateLimits rateLimits)
+    {
+        this(endpoint, username, password, resilience, rateLimits, new JdkHttpTransport());
+    }
+
+    /**
+     * Creates a new non-blocking HTTP client to communicate with the Internetnl API.
+     *
+     * @param endpoint
+     * @param username
+     * @param password
+     * @param resilience - Retries the failed requests.
+     * @param rateLimits - Limits the rate of each kind of request.
+     * @param transport - Sends the requests. It is closed with the client.
+     */
+    public AsyncInternetnlAPIOverNetwork(URI endpoint, String username, String password, Resilience resilience,
+        RateLimits rateLimits, HttpTransport transport)
+    {
+        this.executor = Executors.newFixedThreadPool(CLIENT_THREADS,
+            (r) ->
+            {
+                Thread thread = new Thread(r, "internetnl-client");
+                thread.setDaemon(true);
+                return thread;
+            });
+
+        this.bodyExecutor = Executors.newCachedThreadPool(
+            (r) ->
+            {
+                Thread thread = new Thread(r, "internetnl-body");
+                thread.setDaemon(true);
+                return thread;
+            });
+
+        this.transport = Objects.requireNonNull(transport);
+
+        this.endpoint = endpoint;
+        this.headers = Map.of(
+            "Accept", "application/json",
+            "Accept-Encoding", ContentDecoder.ACCEPT_ENCODING,
+            "Authorization", "Basic " + Base64.getEncoder().encodeToString((username + ":" + password).getBytes()));
+        this.postHeaders = Map.of(
+            "Accept", "application/json",
+            "Accept-Encoding", ContentDecoder.ACCEPT_ENCODING,
+            "Authorization", this.headers.get("Authorization"),
+            "Content-Type", "application/json");
+        this.decoder = new ContentDecoder();
+
+        this.resultParser = new TestResultParser(JSONserialization.getMapper());
+        this.resilience = Objects.requireNonNull(resilience);
+        this.rateLimits = Objects.requireNonNull(rateLimits);
+    }
+
+    @Override
+    public CompletableFuture<TestInfo> submit(String name, String[] domains, RequestType type)
+    {
+        SubmitRequestInfo info = new SubmitRequestInfo(name, type.getType(), domains);
+
+        byte[] body;
+        try {
+            body = JSONserialization.writer(SubmitRequestInfo.class).writeValueAsBytes(info);
+        } catch (Exception e) {
+            return CompletableFuture.failedFuture(
+                new InternetnlAPIException("An error occurred calling the API:\n" + e.getMessage(), e));
+        }
+
+        return request("POST", this.endpoint, body, bind(TestInfo.class), null, this.rateLimits.getSubmit());
+    }
+
+    @Override
+    public CompletableFuture<TestInfo> status(String requestId)
+    {
+        return request("GET", resolve(requestId), null, bind(TestInfo.class), requestId,
+            this.rateLimits.getStatus());
+    }
+
+    @Override
+    public CompletableFuture<TestResult> get(String requestId)
+    {
+        return request("GET", resolve(requestId + "/results"), null, bind(TestResult.class), requestId,
+            this.rateLimits.getResults());
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * The results are parsed while they are streamed from the connection.
+     */
+    @Override
+    public CompletableFuture<TestResult> get(String requestId, DomainResultsSink sink)
+    {
+        return request("GET", resolve(requestId + "/results"), null, (input) -> this.resultParser.parse(input, sink),
+            requestId, this.rateLimits.getResults());
+    }
+
+    /**
+     * Reads the body of a response.
+     * @param <T> - The type of the response.
+     */
+    @FunctionalInterface
+    private static interface BodyReader<T>
+    {
+        T read(InputStream input) throws IOException;
+    }
+
+    /**
+     * @param <T> - The type of the response.
+     * @param responseType - The class object of the response type.
+     * @return A reader that binds the body to the specified type.
+     */
+    private <T> BodyReader<T> bind(Class<T> responseType)
+    {
+        ObjectReader reader = JSONserialization.reader(responseType);
+        return (input) -> reader.readValue(input);
+    }
+
+    /**
+     * Resolve a path relative to the endpoint.
+     * @param path
+     * @return The URI of the path.
+     */
+    private URI resolve(String path)
+    {
+        String base = this.endpoint.toString();
+        return URI.create(base.endsWith("/") ? base + path : base + "/" + path);
+    }
+
+    /**
+     * Send a HTTP request. Failed requests are retried by the resilience layer
+     * and each try waits for a token of the rate limiter.
+     * @param <T> - The type of the response.
+     * @param method - The HTTP method.
+     * @param uri
+     * @param body - The JSON body of the request or null if none.
+     * @param reader - Reads the body of the response.
+     * @param requestId - The request id of the submitted test or null if none.
+     * @param rateLimiter - The rate limiter of the request.
+     * @return A future completed with a value of the specified type.
+     */
+    private <T> CompletableFuture<T> request(String method, URI uri, byte[] body, BodyReader<T> reader,
+        String requestId, RateLimiter rateLimiter)
+    {
+        return this.resilience.executeAsync(
+            () -> rateLimiter.acquireAsync(this.executor)
+                .thenCompose((ignored) -> this.transport.send(method, uri,
+                    body == null ? this.headers : this.postHeaders, body))
+                .handleAsync((response, error) ->
+                {
+                    if (error != null)
+                    {
+                        Throwable cause = error instanceof CompletionException ? error.getCause() : error;
+                        throw new CompletionException(
+                            new InternetnlAPIException("An error occurred calling the API:\n" + cause.getMessage(), cause));
+                    }
+
+                    try {
+                        return parseResponse(response, reader, requestId);
+                    } catch (InternetnlAPIException e) {
+                        throw new CompletionException(e);
+                    }
+                }, this.bodyExecutor),
+            this.executor);
+    }
+
+    /**
+     * Parse the response.
+     * @param <T> - The type of the response.
+     * @param response
+     * @param reader - Reads the body of the response.
+     * @param requestId - The request id of the submitted test or null if none.
+     * @return The value read from the body or null if there is no content.
+     * @throws InternetnlAPIException If an error occurrs.
+     */
+    private <T> T parseResponse(HttpReply response, BodyReader<T> reader, String requestId)
+        throws InternetnlAPIException
+    {
+        int status = response.getStatusCode();
+        try
+        {
+            if (status == HTTP_OK)
+            {
+                try (InputStream decoded = this.decoder.decode(response)) {
+                    return reader.read(decoded);
+                }
+            }
+            else if (status == HTTP_NO_CONTENT)
+                return null;
+        } catch (Exception e) {
+            throw new InternetnlAPIException("An error occurred calling the API:\n" + e.getMessage(), e);
+        } finally {
+            // the body is closed even if it was not read or could not be decoded.
+            close(response);
+        }
+
+        if (status == HTTP_NOT_FOUND && requestId != null)
+            throw new TestIdNotFoundException(requestId);
+
+        throw statusCodeError(status);
+    }
+
+    private static void close(HttpReply response)
+    {
+        try {
+            response.close();
+        } catch (IOException e) {
+            // the body was already read or is not needed.
+        }
+    }
+
+    private static StatusCodeException statusCodeError(int status)
+    {
+        Status statusInfo = Status.fromStatusCode(status);
+        return new StatusCodeException(status, statusInfo == null ? "Unknown" : statusInfo.getReasonPhrase());
+    }
+
+    /**
+     * @return the resilience layer, with the counters of retries and open circuits.
+     */
+    public Resilience getResilience() {
+        return resilience;
+    }
+
+    /**
+     * @return the rate limits of the requests.
+     */
+    public RateLimits getRateLimits() {
+        return rateLimits;
+    }
+
+    @Override
+    public String getStatistics()
+    {
+        return this.resilience + "; " + this.rateLimits + "; " + this.decoder;
+    }
+
+    /**
+     * @return the decoder of the replies, with the counters of bytes received and decoded.
+     */
+    public ContentDecoder getDecoder() {
+        return decoder;
+    }
+
+    @Override
+    public void close()
+    {
+        this.transport.close();
+        this.executor.shutdownNow();
+        this.bodyExecutor.shutdownNow();
+    }
+
+
+    public static class SubmitRequestInfo
+    {
+        private String name;
+
+        private String type;
+
+        private String[] domains;
+
+        /**
+         * 
+         */
+        public SubmitRequestInfo() {
+        }
+
+        /**
+         * @param name
+         * @param type
+         * @param domains
+         */
+        public SubmitRequestInfo(String name, String type, String[] domains) {
+            this.name = name;
+            this.type = type;
+            this.domains = domains;
+        }
+
+        /**
+         * @return the name
+         */
+        public String getName() {
+            return name;
+        }
+
+        /**
+         * @param name the name to set
+         */
+        public void setName(String name) {
+            this.name = name;
+        }
+
+        /**
+         * @return the type
+         */
+        public String getType() {
+            return type;
+        }
+
+        /**
+         * @param type the type to set
+         */
+        public void setType(String type) {
+            this.type = type;
+        }
+
+        /**
+         * @return the domains
+         */
+        public String[] getDomains() {
+            return domains;
+        }
+
+        /**
+         * @param domains the domains to set
+         */
+        public void setDomains(String[] domains) {
+            this.domains = domains;
+        }
+    }
+}
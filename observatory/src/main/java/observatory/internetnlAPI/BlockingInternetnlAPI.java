@@ -0,0 +1,104 @@
+package observatory.internetnlAPI;
+
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+
+import observatory.internetnlAPI.config.RequestType;
+import observatory.internetnlAPI.config.TestInfo;
+import observatory.internetnlAPI.config.testResult.TestResult;
+import observatory.util.Interrupts;
+
+/**
+ * An InternetnlAPI that waits for the operations of an AsyncInternetnlAPI, so existing
+ * callers of the blocking API can use a non-blocking implementation.
+ *
+ * @author Henrique Campos Ferreira
+ */
+public class BlockingInternetnlAPI implements InternetnlAPI
+{
+    private final AsyncInternetnlAPI api;
+
+    /**
+     * @param api - The non-blocking API.
+     */
+    public BlockingInternetnlAPI(AsyncInternetnlAPI api)
+    {
+        this.api = Objects.requireNonNull(api);
+    }
+
+    @Override
+    public TestInfo submit(String name, String[] domains, RequestType type) throws InternetnlAPIException
+    {
+        return await(this.api.submit(name, domains, type));
+    }
+
+    @Override
+    public TestInfo status(String requestId) throws TestIdNotFoundException, InternetnlAPIException
+    {
+        return await(this.api.status(requestId));
+    }
+
+    @Override
+    public TestResult get(String requestId) throws TestIdNotFoundException, InternetnlAPIException
+    {
+        return await(this.api.get(requestId));
+    }
+
+    /**
+     * The operations are already non-blocking, so the executor is not used.
+     */
+    @Override
+    public AsyncInternetnlAPI toAsync(Executor executor)
+    {
+        return this.api;
+    }
+
+    @Override
+    public String getStatistics()
+    {
+        return this.api.getStatistics();
+    }
+
+    /**
+     * Wait for an operation.
+     * @param <T> - The type of the result.
+     * @param future - The future of the operation.
+     * @return The result of the operation.
+     * @throws InternetnlAPIException If the operation failed.
+     * @throws java.util.concurrent.CancellationException If the thread was interrupted.
+     */
+    static <T> T await(CompletableFuture<T> future) throws InternetnlAPIException
+    {
+        try {
+            return Interrupts.await(future);
+        } catch (ExecutionException e) {
+            throw unwrap(e.getCause());
+        }
+    }
+
+    /**
+     * Get the InternetnlAPIException that caused an asynchronous operation to fail.
+     * @param error - The error of the operation.
+     * @return The InternetnlAPIException.
+     */
+    public static InternetnlAPIException unwrap(Throwable error)
+    {
+        while ((error instanceof CompletionException || error instanceof ExecutionException)
+            && error.getCause() != null)
+            error = error.getCause();
+
+        if (error instanceof InternetnlAPIException)
+            return (InternetnlAPIException) error;
+
+        return new InternetnlAPIException(error);
+    }
+
+    @Override
+    public void close()
+    {
+        this.api.close();
+    }
+}
@@ -0,0 +1,32 @@
+package observatory.internetnlAPI;
+
+import java.io.IOException;
+
+/**
+ * Remembers which endpoint (batch server) owns each submitted test, so the status and the
+ * results of a test are requested from the server that runs it, even after a restart.
+ *
+ * @author Henrique Campos Ferreira
+ */
+public interface EndpointRegistry
+{
+    /**
+     * Get the endpoint that owns a test.
+     *
+     * @param requestId - The id of the test.
+     *
+     * @return The endpoint or null if it is unknown.
+     */
+    String getEndpoint(String requestId);
+
+    /**
+     * Associates a submitted test to the endpoint that owns it.
+     *
+     * @param name - The name of the test.
+     * @param requestId - The id of the test.
+     * @param endpoint - The endpoint.
+     *
+     * @throws IOException If the association could not be saved.
+     */
+    void assocEndpoint(String name, String requestId, String endpoint) throws IOException;
+}
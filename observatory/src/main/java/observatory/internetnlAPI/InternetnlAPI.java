@@ -4,6 +4,7 @@ import java.io.File;
 import java.io.FileInputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.util.concurrent.Executor;
 
 import org.apache.poi.ss.usermodel.Workbook;
 
@@ -86,4 +87,27 @@ public interface InternetnlAPI extends AutoCloseable
      * @throws InternetnlAPIException In case of an error while executing the operation.
      */
     TestResult get(String requestId) throws TestIdNotFoundException, InternetnlAPIException;
+
+    /**
+     * Get a non-blocking view of this API.
+     * By default, the operations of this API are run in the specified executor.
+     *
+     * @param executor - The executor that runs blocking operations.
+     *
+     * @return The non-blocking API.
+     */
+    default AsyncInternetnlAPI toAsync(Executor executor)
+    {
+        return new AsyncInternetnlAPIAdapter(this, executor);
+    }
+
+    /**
+     * Get statistics about the requests sent to the API, for monitoring.
+     *
+     * @return The statistics or null if there are none.
+     */
+    default String getStatistics()
+    {
+        return null;
+    }
 }
@@ -0,0 +1,255 @@
+package observatory.internetnlAPI;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.function.Function;
+
+import observatory.internetnlAPI.config.RequestType;
+import observatory.internetnlAPI.config.TestInfo;
+import observatory.internetnlAPI.config.testResult.DomainResultsSink;
+import observatory.internetnlAPI.config.testResult.TestResult;
+
+/**
+ * An AsyncInternetnlAPI that spreads the tests over several Internet.nl batch servers.
+ * <p>
+ * A new test is submitted to the endpoint with the least outstanding domains, i.e. the
+ * domains of the tests submitted to it that did not end yet. A test ends when its results are
+ * requested, whatever the outcome, or when a request of its status fails, since the test is then
+ * abandoned. The endpoint that owns each test is kept in memory, until the test ends, and in an
+ * {@link EndpointRegistry}, so the status and the results of a test are requested from its own
+ * server. The status of a test of an unknown endpoint is requested from each endpoint until
+ * one knows the test.
+ *
+ * @author Henrique Campos Ferreira
+ */
+public class LoadBalancedInternetnlAPI implements AsyncInternetnlAPI
+{
+    /**
+     * The API of each endpoint, in configuration order.
+     */
+    private final Map<String, AsyncInternetnlAPI> endpoints;
+
+    private final EndpointRegistry registry;
+
+    /**
+     * The endpoint that owns each test.
+     */
+    private final Map<String, String> owners;
+
+    /**
+     * The number of domains of each test that did not end yet.
+     */
+    private final Map<String, Integer> testDomains;
+
+    /**
+     * The outstanding domains of each endpoint.
+     */
+    private final Map<String, Long> outstanding;
+
+    /**
+     * @param endpoints - The API of each endpoint (identified by its URI).
+     * @param registry - Saves the endpoint that owns each test.
+     */
+    public LoadBalancedInternetnlAPI(LinkedHashMap<String, AsyncInternetnlAPI> endpoints, EndpointRegistry registry)
+    {
+        if (endpoints.isEmpty())
+            throw new IllegalArgumentException("There are no endpoints.");
+
+        this.endpoints = Collections.unmodifiableMap(new LinkedHashMap<>(endpoints));
+        this.registry = Objects.requireNonNull(registry);
+        this.owners = new HashMap<>();
+        this.testDomains = new HashMap<>();
+        this.outstanding = new HashMap<>();
+
+        this.endpoints.keySet().forEach((endpoint) -> this.outstanding.put(endpoint, 0L));
+    }
+
+    @Override
+    public CompletableFuture<TestInfo> submit(String name, String[] domains, RequestType type)
+    {
+        String endpoint = reserve(domains.length);
+
+        return this.endpoints.get(endpoint).submit(name, domains, type)
+            .handle((testInfo, error) ->
+            {
+                if (error != null)
+                {
+                    release(endpoint, domains.length);
+                    throw error instanceof CompletionException ? (CompletionException) error
+                        : new CompletionException(error);
+                }
+
+                String requestId = testInfo.getRequest().getRequest_id();
+                synchronized (this)
+                {
+                    this.owners.put(requestId, endpoint);
+                    this.testDomains.put(requestId, domains.length);
+                }
+
+                try {
+                    this.registry.assocEndpoint(name, requestId, endpoint);
+                } catch (Exception e) {
+                    ended(requestId);
+                    throw new CompletionException(new InternetnlAPIException(
+                        String.format("Could not save the endpoint of test %s: %s", requestId, e.getMessage()), e));
+                }
+
+                return testInfo;
+            });
+    }
+
+    @Override
+    public CompletableFuture<TestInfo> status(String requestId)
+    {
+        return route(requestId, (api) -> api.status(requestId))
+            .whenComplete((info, error) ->
+            {
+                if (error != null)
+                    ended(requestId);
+            });
+    }
+
+    @Override
+    public CompletableFuture<TestResult> get(String requestId)
+    {
+        return route(requestId, (api) -> api.get(requestId))
+            .whenComplete((result, error) -> ended(requestId));
+    }
+
+    @Override
+    public CompletableFuture<TestResult> get(String requestId, DomainResultsSink sink)
+    {
+        return route(requestId, (api) -> api.get(requestId, sink))
+            .whenComplete((result, error) -> ended(requestId));
+    }
+
+    /**
+     * Choose the endpoint of a new test and add its domains to the outstanding domains.
+     * @param domains - The number of domains of the test.
+     * @return The endpoint with the least outstanding domains.
+     */
+    private synchronized String reserve(int domains)
+    {
+        String endpoint = null;
+        for (String candidate : this.endpoints.keySet())
+        {
+            if (endpoint == null || this.outstanding.get(candidate) < this.outstanding.get(endpoint))
+                endpoint = candidate;
+        }
+
+        this.outstanding.merge(endpoint, (long) domains, Long::sum);
+        return endpoint;
+    }
+
+    private synchronized void release(String endpoint, int domains)
+    {
+        this.outstanding.merge(endpoint, (long) -domains, Long::sum);
+    }
+
+    /**
+     * A test ended, so its domains are not outstanding anymore and its owner is forgotten.
+     * A later request about the test is routed by the registry.
+     * @param requestId
+     */
+    private synchronized void ended(String requestId)
+    {
+        Integer domains = this.testDomains.remove(requestId);
+        String endpoint = this.owners.remove(requestId);
+        if (domains != null && endpoint != null)
+            release(endpoint, domains);
+    }
+
+    /**
+     * Send a request about a test to the endpoint that owns it.
+     * @param <T> - The type of the response.
+     * @param requestId - The id of the test.
+     * @param request - Sends the request to an endpoint.
+     * @return A future completed with the response.
+     */
+    private <T> CompletableFuture<T> route(String requestId, Function<AsyncInternetnlAPI, CompletableFuture<T>> request)
+    {
+        String owner;
+        synchronized (this) {
+            owner = this.owners.get(requestId);
+        }
+
+        if (owner == null)
+            owner = this.registry.getEndpoint(requestId);
+
+        if (owner != null && this.endpoints.containsKey(owner))
+            return request.apply(this.endpoints.get(owner));
+
+        return find(requestId, request, new ArrayList<>(this.endpoints.keySet()), 0);
+    }
+
+    /**
+     * Send a request about a test of an unknown endpoint to each endpoint until one knows the test.
+     * @param <T> - The type of the response.
+     * @param requestId - The id of the test.
+     * @param request - Sends the request to an endpoint.
+     * @param candidates - The endpoints.
+     * @param next - The index of the next endpoint to try.
+     * @return A future completed with the response.
+     */
+    private <T> CompletableFuture<T> find(String requestId, Function<AsyncInternetnlAPI, CompletableFuture<T>> request,
+        List<String> candidates, int next)
+    {
+        String endpoint = candidates.get(next);
+
+        return request.apply(this.endpoints.get(endpoint))
+            .handle((value, error) ->
+            {
+                if (error == null)
+                {
+                    synchronized (this) {
+                        this.owners.put(requestId, endpoint);
+                    }
+                    return CompletableFuture.completedFuture(value);
+                }
+
+                if (BlockingInternetnlAPI.unwrap(error) instanceof TestIdNotFoundException
+                    && next + 1 < candidates.size())
+                    return find(requestId, request, candidates, next + 1);
+
+                return CompletableFuture.<T>failedFuture(BlockingInternetnlAPI.unwrap(error));
+            })
+            .thenCompose((result) -> result);
+    }
+
+    /**
+     * @return the outstanding domains of each endpoint.
+     */
+    public synchronized Map<String, Long> getOutstandingDomains()
+    {
+        Map<String, Long> result = new LinkedHashMap<>();
+        this.endpoints.keySet().forEach((endpoint) -> result.put(endpoint, this.outstanding.get(endpoint)));
+        return result;
+    }
+
+    @Override
+    public String getStatistics()
+    {
+        StringBuilder statistics = new StringBuilder();
+        for (Map.Entry<String, AsyncInternetnlAPI> endpoint : this.endpoints.entrySet())
+        {
+            String endpointStatistics = endpoint.getValue().getStatistics();
+            statistics.append(String.format("%n\t%s: %s", endpoint.getKey(),
+                endpointStatistics == null ? "no statistics" : endpointStatistics));
+        }
+
+        return statistics.toString();
+    }
+
+    @Override
+    public void close()
+    {
+        this.endpoints.values().forEach(AsyncInternetnlAPI::close);
+    }
+}
@@ -0,0 +1,31 @@
+package observatory.internetnlAPI;
+
+/**
+ * Thrown when the Internet.nl API replies with an unexpected HTTP status code.
+ *
+ * @author Henrique Campos Ferreira
+ */
+public class StatusCodeException extends InternetnlAPIException
+{
+    private static final String DEFAULT_MSG_FORMAT =
+        "An error occurred calling the API: The server replied with code: %d - %s";
+
+    private final int statusCode;
+
+    /**
+     * @param statusCode - The HTTP status code of the reply.
+     * @param reasonPhrase - The reason phrase of the status code.
+     */
+    public StatusCodeException(int statusCode, String reasonPhrase)
+    {
+        super(String.format(DEFAULT_MSG_FORMAT, statusCode, reasonPhrase));
+        this.statusCode = statusCode;
+    }
+
+    /**
+     * @return the HTTP status code of the reply.
+     */
+    public int getStatusCode() {
+        return statusCode;
+    }
+}
@@ -0,0 +1,1046 @@
+package observatory.internetnlAPI.config.testResult;
+
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+import observatory.internetnlAPI.config.testResult.domain.Category;
+import observatory.internetnlAPI.config.testResult.domain.CustomTest;
+import observatory.internetnlAPI.config.testResult.domain.DomainResults;
+import observatory.internetnlAPI.config.testResult.domain.Report;
+import observatory.internetnlAPI.config.testResult.domain.Result;
+import observatory.internetnlAPI.config.testResult.domain.ResultStatus;
+import observatory.internetnlAPI.config.testResult.domain.Results;
+import observatory.internetnlAPI.config.testResult.domain.Scoring;
+import observatory.internetnlAPI.config.testResult.domain.Test;
+import observatory.util.Compression;
+import observatory.util.InvalidFormatException;
+import observatory.util.JSONserialization;
+
+/**
+ * A compact binary format for the results of a list, read through a memory mapped file.
+ * The file keeps everything needed to rebuild the JSON results:
+ * <pre>
+ * magic "OBSR", version (short)
+ * header: the results without the domains, as JSON (int length + UTF-8)
+ * rows (int, -1 if there are no domains)
+ * string dictionary: count (int), then each string (int length + UTF-8)
+ * status names: count (short), then the dictionary index of each name
+ * row columns: flags (byte), domain, status, score, report url and unknown results (int)
+ * result columns: count (short), then for each one its kind (byte), the dictionary index of its name (int)
+ *   and either a status (byte) and a verdict (int) per row, or the JSON value (int) of a custom test per row
+ * </pre>
+ * Every string (domain names, urls, verdicts, custom values) is stored once in the dictionary
+ * and referenced by its index, so the columns have a fixed width.
+ * A compressed file is decompressed into memory instead of being mapped.
+ *
+ * @author Henrique Campos Ferreira
+ */
+public final class BinaryResultsFormat
+{
+    public static final String FILE_EXTENSION = ".bin";
+
+    private static final byte[] MAGIC = { 'O', 'B', 'S', 'R' };
+    private static final short VERSION = 1;
+
+    private static final byte KIND_CATEGORY = 0, KIND_TEST = 1, KIND_CUSTOM = 2;
+
+    private static final int FLAG_DOMAIN = 1, FLAG_SCORING = 2, FLAG_REPORT = 4, FLAG_RESULTS = 8;
+
+    private static final int NULL_INDEX = -1;
+    private static final int NO_SCORE = Integer.MIN_VALUE;
+
+    /**
+     * The size of the fixed columns of a row: the flags and the domain, status, score, url and unknown results.
+     */
+    private static final int ROW_BYTES = Byte.BYTES + 5 * Integer.BYTES;
+
+    /**
+     * The status of a result column when the domain has no result, a null result or a result without status.
+     */
+    private static final byte STATUS_ABSENT = -1, STATUS_NULL_RESULT = -2, STATUS_NULL = -3;
+
+    private static final String[] STATUS_NAMES = Arrays.stream(ResultStatus.values())
+        .map(ResultStatus::getStatus).toArray(String[]::new);
+
+    private static final JsonMapper MAPPER = JSONserialization.getMapper();
+
+    /**
+     * Writes the results of a domain inside the JSON of the results, without flushing the file.
+     */
+    private static final ObjectWriter DOMAIN_WRITER = JSONserialization.writer(DomainResults.class)
+        .without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+
+    private BinaryResultsFormat() {}
+
+    /**
+     * Checks if a file is in the binary format.
+     * @param file
+     * @return true if the file, once decompressed, starts with the magic bytes of the format.
+     * @throws IOException
+     */
+    public static boolean isBinary(File file) throws IOException
+    {
+        try (InputStream input = Compression.openInputStream(file))
+        {
+            return Arrays.equals(input.readNBytes(MAGIC.length), MAGIC);
+        }
+    }
+
+    //#region Write
+
+    /**
+     * Save the results of a list in the binary format.
+     * @param result - The results of the list.
+     * @param output - The output file.
+     * @throws IOException
+     */
+    public static void write(TestResult result, File output) throws IOException
+    {
+        write(result, output, Compression.NONE);
+    }
+
+    /**
+     * Save the results of a list in the binary format, with the specified compression.
+     * @param result - The results of the list.
+     * @param output - The output file.
+     * @param compression - The compression of the file.
+     * @throws IOException
+     */
+    public static void write(TestResult result, File output, Compression compression) throws IOException
+    {
+        Map<String, DomainResults> domains = result.getDomains();
+        Encoder encoder = new Encoder(domains == null ? 0 : domains.size());
+        if (domains != null)
+            for (Map.Entry<String, DomainResults> entry : domains.entrySet())
+                encoder.accept(entry.getKey(), entry.getValue());
+
+        encoder.write(result, domains != null, output, compression);
+    }
+
+    /**
+     * Encodes the results of each domain of a list in the columns of the binary format as they are received,
+     * so the results are kept in a compact form without their object graph.
+     * The results of a domain are rebuilt only when they are read, one domain at a time,
+     * and the results are written from the columns, in the binary format or as JSON.
+     */
+    public static final class Encoder implements DomainResultsSink
+    {
+        private final Dictionary dictionary;
+
+        /**
+         * The row of each domain, to replace the results of a domain received again.
+         */
+        private final Map<String, Integer> rowOf;
+
+        private int rows, capacity;
+
+        private byte[] flags;
+
+        private int[] domainNames, statuses, scores, urls, unknown;
+
+        private final Map<Enum<?>, Column> columns;
+
+        /**
+         * @param expectedRows - The expected number of domains.
+         */
+        public Encoder(int expectedRows)
+        {
+            this.dictionary = new Dictionary();
+            this.rowOf = new HashMap<>();
+            this.columns = new LinkedHashMap<>();
+            this.capacity = Math.max(16, expectedRows);
+            this.flags = new byte[this.capacity];
+            this.domainNames = new int[this.capacity];
+            this.statuses = new int[this.capacity];
+            this.scores = new int[this.capacity];
+            this.urls = new int[this.capacity];
+            this.unknown = new int[this.capacity];
+        }
+
+        @Override
+        public void accept(String domainName, DomainResults domain) throws IOException
+        {
+            Integer previous = this.rowOf.get(domainName);
+            int row;
+            if (previous == null)
+            {
+                if (this.rows == this.capacity)
+                    grow();
+
+                row = this.rows++;
+                this.rowOf.put(domainName, row);
+            }
+            else
+            {
+                row = previous;
+                for (Column column : this.columns.values())
+                    column.clear(row);
+            }
+
+            this.domainNames[row] = this.dictionary.index(domainName);
+            this.statuses[row] = this.urls[row] = this.unknown[row] = NULL_INDEX;
+            this.scores[row] = NO_SCORE;
+            this.flags[row] = 0;
+
+            if (domain == null)
+                return;
+
+            int flag = FLAG_DOMAIN;
+            this.statuses[row] = this.dictionary.index(domain.getStatus());
+
+            if (domain.getScoring() != null)
+            {
+                flag |= FLAG_SCORING;
+                this.scores[row] = domain.getScoring().getPercentage();
+            }
+
+            if (domain.getReport() != null)
+            {
+                flag |= FLAG_REPORT;
+                this.urls[row] = this.dictionary.index(domain.getReport().getUrl());
+            }
+
+            Results results = domain.getResults();
+            if (results != null)
+            {
+                flag |= FLAG_RESULTS;
+                for (Map.Entry<Category, Result> category : results.getCategoriesEnum().entrySet())
+                    column(category.getKey(), KIND_CATEGORY).setResult(row, category.getValue(), this.dictionary);
+
+                for (Map.Entry<Test, Result> test : results.getTestsEnum().entrySet())
+                    column(test.getKey(), KIND_TEST).setResult(row, test.getValue(), this.dictionary);
+
+                for (Map.Entry<CustomTest, Object> test : results.getCustomEnum().entrySet())
+                    column(test.getKey(), KIND_CUSTOM).values[row] =
+                        this.dictionary.index(MAPPER.writeValueAsString(test.getValue()));
+
+                Results unknownResults = results.getUnknownResults();
+                if (unknownResults != null)
+                    this.unknown[row] = this.dictionary.index(MAPPER.writeValueAsString(unknownResults));
+            }
+
+            this.flags[row] = (byte) flag;
+        }
+
+        /**
+         * @return the number of domains received.
+         */
+        public int size()
+        {
+            return this.rows;
+        }
+
+        /**
+         * Decode the results of a domain.
+         * @param domainName
+         * @return The results of the domain or null if the domain has no results.
+         * @throws IOException
+         */
+        public DomainResults get(String domainName) throws IOException
+        {
+            Integer row = this.rowOf.get(domainName);
+            return row == null ? null : decode(row);
+        }
+
+        /**
+         * Decode the results of each domain, in the order of the rows.
+         * @param sink - Receives the results of each domain.
+         * @throws IOException
+         */
+        public void forEach(DomainResultsSink sink) throws IOException
+        {
+            for (int row = 0; row < this.rows; row++)
+                sink.accept(this.dictionary.strings.get(this.domainNames[row]), decode(row));
+        }
+
+        private DomainResults decode(int row) throws IOException
+        {
+            if ((this.flags[row] & FLAG_DOMAIN) == 0)
+                return null;
+
+            DomainResults domain = new DomainResults();
+            domain.setStatus(string(this.statuses[row]));
+
+            if ((this.flags[row] & FLAG_SCORING) != 0)
+            {
+                Scoring scoring = new Scoring();
+                scoring.setPercentage(this.scores[row]);
+                domain.setScoring(scoring);
+            }
+
+            if ((this.flags[row] & FLAG_REPORT) != 0)
+            {
+                Report report = new Report();
+                report.setUrl(string(this.urls[row]));
+                domain.setReport(report);
+            }
+
+            if ((this.flags[row] & FLAG_RESULTS) == 0)
+                return domain;
+
+            Results results = new Results();
+            if (this.unknown[row] != NULL_INDEX)
+                results.putAll(MAPPER.readValue(string(this.unknown[row]), Results.class));
+
+            for (Map.Entry<Enum<?>, Column> entry : this.columns.entrySet())
+            {
+                Column column = entry.getValue();
+                if (column.kind == KIND_CUSTOM)
+                {
+                    if (column.values[row] != NULL_INDEX)
+                        results.getCustomEnum().put((CustomTest) entry.getKey(),
+                            MAPPER.readValue(string(column.values[row]), Object.class));
+                    continue;
+                }
+
+                byte status = column.status[row];
+                if (status == STATUS_ABSENT)
+                    continue;
+
+                Result result = null;
+                if (status != STATUS_NULL_RESULT)
+                {
+                    result = new Result();
+                    result.setStatus(status == STATUS_NULL ? null : ResultStatus.values()[status]);
+                    result.setVerdict(string(column.values[row]));
+                }
+
+                if (column.kind == KIND_CATEGORY)
+                    results.getCategoriesEnum().put((Category) entry.getKey(), result);
+                else
+                    results.getTestsEnum().put((Test) entry.getKey(), result);
+            }
+
+            domain.setResults(results);
+            return domain;
+        }
+
+        private String string(int index)
+        {
+            return index == NULL_INDEX ? null : this.dictionary.strings.get(index);
+        }
+
+        /**
+         * Arrange the rows in the order of the specified domains. The domains without results
+         * get a row without results and the domains not specified are removed.
+         * @param domainNames - The domains in the new order. Repeated domains are ignored.
+         */
+        public void reorder(String[] domainNames)
+        {
+            Map<String, Integer> rowOf = new HashMap<>(domainNames.length * 2);
+            int[] from = new int[domainNames.length];
+            int rows = 0;
+            for (String domainName : domainNames)
+            {
+                if (rowOf.containsKey(domainName))
+                    continue;
+
+                Integer previous = this.rowOf.get(domainName);
+                from[rows] = previous == null ? -1 : previous;
+                rowOf.put(domainName, rows++);
+            }
+
+            int capacity = Math.max(16, rows);
+            byte[] flags = new byte[capacity];
+            int[] domainNameIndexes = new int[capacity], statuses = new int[capacity], scores = new int[capacity],
+                urls = new int[capacity], unknown = new int[capacity];
+
+            for (int row = 0; row < rows; row++)
+            {
+                int old = from[row];
+                if (old < 0)
+                {
+                    domainNameIndexes[row] = this.dictionary.index(domainNames[row]);
+                    statuses[row] = urls[row] = unknown[row] = NULL_INDEX;
+                    scores[row] = NO_SCORE;
+                    continue;
+                }
+
+                flags[row] = this.flags[old];
+                domainNameIndexes[row] = this.domainNames[old];
+                statuses[row] = this.statuses[old];
+                scores[row] = this.scores[old];
+                urls[row] = this.urls[old];
+                unknown[row] = this.unknown[old];
+            }
+
+            for (Column column : this.columns.values())
+                column.reorder(from, rows, capacity);
+
+            this.rowOf.clear();
+            this.rowOf.putAll(rowOf);
+            this.rows = rows;
+            this.capacity = capacity;
+            this.flags = flags;
+            this.domainNames = domainNameIndexes;
+            this.statuses = statuses;
+            this.scores = scores;
+            this.urls = urls;
+            this.unknown = unknown;
+        }
+
+        /**
+         * Save the received domains in the binary format.
+         * @param header - The results of the list without the domains.
+         * @param output - The output file.
+         * @param compression - The compression of the file.
+         * @throws IOException
+         */
+        public void write(TestResult header, File output, Compression compression) throws IOException
+        {
+            write(header, true, output, compression);
+        }
+
+        private void write(TestResult header, boolean hasDomains, File output, Compression compression)
+            throws IOException
+        {
+            try (DataOutputStream out = new DataOutputStream(compression.openOutputStream(output)))
+            {
+                write(header, hasDomains, out);
+            }
+        }
+
+        /**
+         * Save the received domains as the JSON of a {@link TestResult}, decoding one domain at a time.
+         * @param header - The results of the list without the domains.
+         * @param output - The output file.
+         * @param compression - The compression of the file.
+         * @throws IOException
+         */
+        public void writeJson(TestResult header, File output, Compression compression) throws IOException
+        {
+            TestResult emptyResult = new TestResult();
+            emptyResult.setApi_version(header.getApi_version());
+            emptyResult.setRequest(header.getRequest());
+            emptyResult.setDomains(new LinkedHashMap<>());
+            ObjectNode fields = MAPPER.valueToTree(emptyResult);
+
+            try (OutputStream stream = compression.openOutputStream(output);
+                JsonGenerator generator = JSONserialization.writer(TestResult.class).createGenerator(stream))
+            {
+                generator.writeStartObject();
+                for (Iterator<Map.Entry<String, JsonNode>> it = fields.fields(); it.hasNext();)
+                {
+                    Map.Entry<String, JsonNode> field = it.next();
+                    generator.writeFieldName(field.getKey());
+                    if (!field.getKey().equals("domains"))
+                    {
+                        generator.writeTree(field.getValue());
+                        continue;
+                    }
+
+                    generator.writeStartObject();
+                    for (int row = 0; row < this.rows; row++)
+                    {
+                        generator.writeFieldName(this.dictionary.strings.get(this.domainNames[row]));
+                        DOMAIN_WRITER.writeValue(generator, decode(row));
+                    }
+                    generator.writeEndObject();
+                }
+                generator.writeEndObject();
+            }
+        }
+
+        private void write(TestResult result, boolean hasDomains, DataOutputStream out) throws IOException
+        {
+            TestResult header = new TestResult();
+            header.setApi_version(result.getApi_version());
+            header.setRequest(result.getRequest());
+            byte[] headerJson = JSONserialization.writer(TestResult.class).writeValueAsBytes(header);
+
+            out.write(MAGIC);
+            out.writeShort(VERSION);
+
+            out.writeInt(headerJson.length);
+            out.write(headerJson);
+
+            out.writeInt(hasDomains ? this.rows : -1);
+
+            out.writeShort(STATUS_NAMES.length);
+            for (String status : STATUS_NAMES)
+                this.dictionary.index(status);
+
+            out.writeInt(this.dictionary.strings.size());
+            for (String string : this.dictionary.strings)
+                writeString(out, string);
+
+            for (String status : STATUS_NAMES)
+                out.writeInt(this.dictionary.index(status));
+
+            out.write(this.flags, 0, this.rows);
+            writeInts(out, this.domainNames, this.rows);
+            writeInts(out, this.statuses, this.rows);
+            writeInts(out, this.scores, this.rows);
+            writeInts(out, this.urls, this.rows);
+            writeInts(out, this.unknown, this.rows);
+
+            out.writeShort(this.columns.size());
+            for (Column column : this.columns.values())
+            {
+                out.writeByte(column.kind);
+                out.writeInt(column.name);
+                if (column.kind != KIND_CUSTOM)
+                    out.write(column.status, 0, this.rows);
+                writeInts(out, column.values, this.rows);
+            }
+        }
+
+        private Column column(Enum<?> key, byte kind)
+        {
+            return this.columns.computeIfAbsent(key,
+                (k) -> new Column(kind, this.dictionary.index(name(k)), this.capacity));
+        }
+
+        private void grow()
+        {
+            this.capacity *= 2;
+            this.flags = Arrays.copyOf(this.flags, this.capacity);
+            this.domainNames = Arrays.copyOf(this.domainNames, this.capacity);
+            this.statuses = Arrays.copyOf(this.statuses, this.capacity);
+            this.scores = Arrays.copyOf(this.scores, this.capacity);
+            this.urls = Arrays.copyOf(this.urls, this.capacity);
+            this.unknown = Arrays.copyOf(this.unknown, this.capacity);
+            for (Column column : this.columns.values())
+                column.grow(this.capacity);
+        }
+    }
+
+    private static String name(Enum<?> key)
+    {
+        if (key instanceof Category)
+            return ((Category) key).getCategory();
+        if (key instanceof Test)
+            return ((Test) key).getTest();
+        return ((CustomTest) key).getTest();
+    }
+
+    private static void writeString(DataOutputStream out, String string) throws IOException
+    {
+        byte[] bytes = string.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    private static void writeInts(DataOutputStream out, int[] values, int length) throws IOException
+    {
+        ByteBuffer buffer = ByteBuffer.allocate(length * Integer.BYTES);
+        buffer.asIntBuffer().put(values, 0, length);
+        out.write(buffer.array());
+    }
+
+    /**
+     * Assigns an index to each distinct string.
+     */
+    private static class Dictionary
+    {
+        private final Map<String, Integer> indexes = new HashMap<>();
+
+        private final List<String> strings = new ArrayList<>();
+
+        int index(String string)
+        {
+            if (string == null)
+                return NULL_INDEX;
+
+            return this.indexes.computeIfAbsent(string, (s) ->
+                {
+                    this.strings.add(s);
+                    return this.strings.size() - 1;
+                });
+        }
+    }
+
+    /**
+     * A result column being written.
+     */
+    private static class Column
+    {
+        final byte kind;
+
+        final int name;
+
+        byte[] status;
+
+        int[] values;
+
+        Column(byte kind, int name, int capacity)
+        {
+            this.kind = kind;
+            this.name = name;
+            this.status = kind == KIND_CUSTOM ? null : new byte[capacity];
+            this.values = new int[capacity];
+            if (this.status != null)
+                Arrays.fill(this.status, STATUS_ABSENT);
+            Arrays.fill(this.values, NULL_INDEX);
+        }
+
+        void setResult(int row, Result result, Dictionary dictionary)
+        {
+            if (result == null)
+                this.status[row] = STATUS_NULL_RESULT;
+            else
+            {
+                this.status[row] = result.getStatus() == null ? STATUS_NULL : (byte) result.getStatus().ordinal();
+                this.values[row] = dictionary.index(result.getVerdict());
+            }
+        }
+
+        void clear(int row)
+        {
+            if (this.status != null)
+                this.status[row] = STATUS_ABSENT;
+            this.values[row] = NULL_INDEX;
+        }
+
+        /**
+         * @param from - The old row of each new row or -1 if the new row is empty.
+         * @param rows - The number of new rows.
+         * @param capacity
+         */
+        void reorder(int[] from, int rows, int capacity)
+        {
+            byte[] status = this.status == null ? null : new byte[capacity];
+            int[] values = new int[capacity];
+            if (status != null)
+                Arrays.fill(status, STATUS_ABSENT);
+            Arrays.fill(values, NULL_INDEX);
+
+            for (int row = 0; row < rows; row++)
+            {
+                if (from[row] < 0)
+                    continue;
+                if (status != null)
+                    status[row] = this.status[from[row]];
+                values[row] = this.values[from[row]];
+            }
+
+            this.status = status;
+            this.values = values;
+        }
+
+        void grow(int capacity)
+        {
+            int length = this.values.length;
+            this.values = Arrays.copyOf(this.values, capacity);
+            Arrays.fill(this.values, length, capacity, NULL_INDEX);
+            if (this.status != null)
+            {
+                this.status = Arrays.copyOf(this.status, capacity);
+                Arrays.fill(this.status, length, capacity, STATUS_ABSENT);
+            }
+        }
+    }
+
+    //#endregion
+
+    //#region Read
+
+    /**
+     * Load the results of a list saved in the binary format.
+     * The results with unknown names are not read.
+     * @param input - The file that contains the results.
+     * @return The results of the list.
+     * @throws IOException
+     * @throws InvalidFormatException
+     */
+    public static TestResult read(File input) throws IOException, InvalidFormatException
+    {
+        return new Contents(map(input), input.getName()).toTestResult();
+    }
+
+    /**
+     * Load the table of the results of a list saved in the binary format.
+     * The verdicts and the results with unknown names are not read.
+     * @param input - The file that contains the results.
+     * @return The table of the results.
+     * @throws IOException
+     * @throws InvalidFormatException
+     */
+    public static ListResultsTable readTable(File input) throws IOException, InvalidFormatException
+    {
+        return new Contents(map(input), input.getName()).toTable();
+    }
+
+    /**
+     * Map a file into memory or, if it is compressed, read its uncompressed content.
+     */
+    private static ByteBuffer map(File input) throws IOException
+    {
+        if (Compression.isCompressed(input))
+            try (InputStream stream = Compression.openInputStream(input))
+            {
+                return ByteBuffer.wrap(stream.readAllBytes());
+            }
+
+        try (FileChannel channel = FileChannel.open(input.toPath(), StandardOpenOption.READ))
+        {
+            return channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        }
+    }
+
+    /**
+     * The contents of a file, decoded up to the result columns.
+     */
+    private static class Contents
+    {
+        private final ByteBuffer buffer;
+
+        private final String source;
+
+        private final TestResult header;
+
+        private final int rows;
+
+        private final String[] strings;
+
+        /**
+         * The current status of each status saved in the file.
+         */
+        private final ResultStatus[] statusValues;
+
+        private final byte[] flags;
+
+        private final int[] domainNames, statuses, scores, urls, unknown;
+
+        Contents(ByteBuffer buffer, String source) throws IOException, InvalidFormatException
+        {
+            this.buffer = buffer;
+            this.source = source;
+            try
+            {
+                byte[] magic = new byte[MAGIC.length];
+                buffer.get(magic);
+                if (!Arrays.equals(magic, MAGIC))
+                    throw new InvalidFormatException(source + " is not a binary results file.");
+
+                short version = buffer.getShort();
+                if (version != VERSION)
+                    throw new InvalidFormatException("Unsupported version of binary results file: " + version);
+
+                byte[] headerJson = new byte[length(buffer.getInt(), Byte.BYTES)];
+                buffer.get(headerJson);
+                this.header = JSONserialization.reader(TestResult.class).readValue(headerJson);
+
+                // -1 rows when the results have no domains.
+                int rows = buffer.getInt();
+                if (rows < -1)
+                    throw corrupted();
+                if (rows >= 0)
+                    this.header.setDomains(new LinkedHashMap<>());
+                this.rows = length(Math.max(0, rows), ROW_BYTES);
+
+                short statusCount = (short) length(buffer.getShort(), Integer.BYTES);
+
+                this.strings = new String[length(buffer.getInt(), Integer.BYTES)];
+                for (int i = 0; i < this.strings.length; i++)
+                {
+                    byte[] bytes = new byte[length(buffer.getInt(), Byte.BYTES)];
+                    buffer.get(bytes);
+                    this.strings[i] = new String(bytes, StandardCharsets.UTF_8);
+                }
+
+                this.statusValues = new ResultStatus[statusCount];
+                for (int i = 0; i < statusCount; i++)
+                {
+                    String name = this.strings[buffer.getInt()];
+                    this.statusValues[i] = Arrays.stream(ResultStatus.values())
+                        .filter((status) -> status.getStatus().equals(name)).findFirst()
+                        .orElseThrow(() -> new InvalidFormatException("Unknown result status: " + name));
+                }
+
+                this.flags = new byte[this.rows];
+                buffer.get(this.flags);
+                this.domainNames = readInts();
+                this.statuses = readInts();
+                this.scores = readInts();
+                this.urls = readInts();
+                this.unknown = readInts();
+            } catch (BufferUnderflowException | IndexOutOfBoundsException e) {
+                throw truncated();
+            }
+        }
+
+        private InvalidFormatException truncated()
+        {
+            return new InvalidFormatException("The binary results file " + this.source + " is truncated.");
+        }
+
+        private InvalidFormatException corrupted()
+        {
+            return new InvalidFormatException("The binary results file " + this.source + " is corrupted.");
+        }
+
+        /**
+         * Check a number of elements read from the file before an array is allocated for them.
+         * @param length - The number of elements.
+         * @param elementBytes - The minimum size (in bytes) of each element in the file.
+         * @return The number of elements.
+         * @throws InvalidFormatException if the number is negative or the elements do not fit in
+         * the rest of the file.
+         */
+        private int length(int length, int elementBytes) throws InvalidFormatException
+        {
+            if (length < 0)
+                throw corrupted();
+            if ((long) length * elementBytes > this.buffer.remaining())
+                throw truncated();
+
+            return length;
+        }
+
+        private int[] readInts()
+        {
+            int[] values = new int[this.rows];
+            this.buffer.asIntBuffer().get(values);
+            this.buffer.position(this.buffer.position() + values.length * Integer.BYTES);
+            return values;
+        }
+
+        private void skip(int bytes)
+        {
+            if (bytes > this.buffer.remaining())
+                throw new BufferUnderflowException();
+            this.buffer.position(this.buffer.position() + bytes);
+        }
+
+        private String string(int index)
+        {
+            return index == NULL_INDEX ? null : this.strings[index];
+        }
+
+        private Optional<? extends Enum<?>> columnKey(byte kind, String name) throws InvalidFormatException
+        {
+            switch (kind)
+            {
+                case KIND_CATEGORY:
+                    return Category.getEnumValue(name);
+                case KIND_TEST:
+                    return Test.getEnumValue(name);
+                case KIND_CUSTOM:
+                    return CustomTest.getEnumValue(name);
+                default:
+                    throw new InvalidFormatException("Unknown result column kind: " + kind);
+            }
+        }
+
+        TestResult toTestResult() throws IOException, InvalidFormatException
+        {
+            try {
+                return readTestResult();
+            } catch (BufferUnderflowException | IndexOutOfBoundsException e) {
+                throw truncated();
+            }
+        }
+
+        private TestResult readTestResult() throws IOException, InvalidFormatException
+        {
+            DomainResults[] domains = new DomainResults[this.rows];
+            for (int row = 0; row < this.rows; row++)
+            {
+                if ((this.flags[row] & FLAG_DOMAIN) == 0)
+                    continue;
+
+                DomainResults domain = new DomainResults();
+                domain.setStatus(string(this.statuses[row]));
+
+                if ((this.flags[row] & FLAG_SCORING) != 0)
+                {
+                    Scoring scoring = new Scoring();
+                    scoring.setPercentage(this.scores[row]);
+                    domain.setScoring(scoring);
+                }
+
+                if ((this.flags[row] & FLAG_REPORT) != 0)
+                {
+                    Report report = new Report();
+                    report.setUrl(string(this.urls[row]));
+                    domain.setReport(report);
+                }
+
+                if ((this.flags[row] & FLAG_RESULTS) != 0)
+                {
+                    Results results = new Results();
+                    if (this.unknown[row] != NULL_INDEX)
+                        results.putAll(MAPPER.readValue(this.strings[this.unknown[row]], Results.class));
+                    domain.setResults(results);
+                }
+
+                domains[row] = domain;
+            }
+
+            Map<Integer, Object> customValues = new HashMap<>();
+            short columns = this.buffer.getShort();
+            for (int i = 0; i < columns; i++)
+            {
+                byte kind = this.buffer.get();
+                String name = this.strings[this.buffer.getInt()];
+                byte[] status = null;
+                if (kind != KIND_CUSTOM)
+                {
+                    status = new byte[this.rows];
+                    this.buffer.get(status);
+                }
+                int[] values = readInts();
+
+                // The results with unknown names are not read.
+                Optional<? extends Enum<?>> column = columnKey(kind, name);
+                if (column.isEmpty())
+                    continue;
+                Enum<?> key = column.get();
+
+                for (int row = 0; row < this.rows; row++)
+                {
+                    if (domains[row] == null || domains[row].getResults() == null)
+                        continue;
+
+                    Results results = domains[row].getResults();
+                    if (kind == KIND_CUSTOM)
+                    {
+                        if (values[row] != NULL_INDEX)
+                            results.getCustomEnum().put((CustomTest) key, customValue(customValues, values[row]));
+                        continue;
+                    }
+
+                    if (status[row] == STATUS_ABSENT)
+                        continue;
+
+                    Result result = null;
+                    if (status[row] != STATUS_NULL_RESULT)
+                    {
+                        result = new Result();
+                        result.setStatus(status[row] == STATUS_NULL ? null : this.statusValues[status[row]]);
+                        result.setVerdict(string(values[row]));
+                    }
+
+                    if (kind == KIND_CATEGORY)
+                        results.getCategoriesEnum().put((Category) key, result);
+                    else
+                        results.getTestsEnum().put((Test) key, result);
+                }
+            }
+
+            LinkedHashMap<String, DomainResults> domainsMap = this.header.getDomains();
+            if (domainsMap != null)
+                for (int row = 0; row < this.rows; row++)
+                    domainsMap.put(this.strings[this.domainNames[row]], domains[row]);
+
+            return this.header;
+        }
+
+        private Object customValue(Map<Integer, Object> customValues, int index) throws IOException
+        {
+            Object value = customValues.get(index);
+            if (value == null && !customValues.containsKey(index))
+            {
+                value = MAPPER.readValue(this.strings[index], Object.class);
+                customValues.put(index, value);
+            }
+            return value;
+        }
+
+        ListResultsTable toTable() throws IOException, InvalidFormatException
+        {
+            try {
+                return readTable();
+            } catch (BufferUnderflowException | IndexOutOfBoundsException e) {
+                throw truncated();
+            }
+        }
+
+        private ListResultsTable readTable() throws IOException, InvalidFormatException
+        {
+            String[] domains = new String[this.rows], reportUrls = new String[this.rows];
+            BitSet ok = new BitSet(this.rows);
+            int[] scores = new int[this.rows];
+
+            for (int row = 0; row < this.rows; row++)
+            {
+                domains[row] = this.strings[this.domainNames[row]];
+                reportUrls[row] = string(this.urls[row]);
+                if (this.scores[row] != NO_SCORE)
+                    scores[row] = this.scores[row];
+                if (DomainResults.STATUS_OK.equals(string(this.statuses[row])))
+                    ok.set(row);
+            }
+
+            ListResultsTable table = new ListResultsTable(this.header.getRequest(), domains, ok, scores, reportUrls);
+
+            short columns = this.buffer.getShort();
+            for (int i = 0; i < columns; i++)
+            {
+                byte kind = this.buffer.get();
+                String name = this.strings[this.buffer.getInt()];
+                byte[] column = new byte[this.rows];
+                Arrays.fill(column, ListResultsTable.NO_RESULT);
+
+                Optional<? extends Enum<?>> key = columnKey(kind, name);
+                if (kind != KIND_CUSTOM)
+                {
+                    byte[] status = new byte[this.rows];
+                    this.buffer.get(status);
+                    skip(this.rows * Integer.BYTES); // verdicts
+
+                    for (int row = 0; row < this.rows; row++)
+                        if (status[row] >= 0 && this.statusValues[status[row]] != null)
+                            column[row] = (byte) this.statusValues[status[row]].ordinal();
+                }
+                else
+                {
+                    int[] values = readInts();
+                    if (key.isEmpty())
+                        continue;
+
+                    CustomTest test = (CustomTest) key.get();
+                    Map<Integer, ResultStatus> customStatus = new HashMap<>();
+                    for (int row = 0; row < this.rows; row++)
+                    {
+                        if (values[row] == NULL_INDEX)
+                            continue;
+
+                        ResultStatus status = customStatus.get(values[row]);
+                        if (status == null)
+                        {
+                            Object value = MAPPER.readValue(this.strings[values[row]], Object.class);
+                            if (value == null)
+                                continue;
+                            status = test.convertToResult(value);
+                            customStatus.put(values[row], status);
+                        }
+                        column[row] = (byte) status.ordinal();
+                    }
+                }
+
+                if (key.isPresent())
+                    table.setColumn(key.get(), column);
+            }
+
+            return table;
+        }
+    }
+
+    //#endregion
+}
@@ -0,0 +1,28 @@
+package observatory.internetnlAPI.config.testResult;
+
+import java.io.IOException;
+
+import observatory.internetnlAPI.config.testResult.domain.DomainResults;
+
+/**
+ * Receives the results of each domain of a test as they are parsed,
+ * so the results of a test never have to be in memory at once.
+ *
+ * @author Henrique Campos Ferreira
+ */
+@FunctionalInterface
+public interface DomainResultsSink
+{
+    /**
+     * Receive the results of a domain.
+     * <p>
+     * The results of a domain may be received again if the request of the results is retried,
+     * so the sink should replace the previous results of the domain.
+     *
+     * @param domain - The domain.
+     * @param results - The results of the domain.
+     *
+     * @throws IOException If the results could not be stored.
+     */
+    void accept(String domain, DomainResults results) throws IOException;
+}
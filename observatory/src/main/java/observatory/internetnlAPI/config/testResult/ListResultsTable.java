@@ -0,0 +1,326 @@
+package observatory.internetnlAPI.config.testResult;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Map;
+
+import observatory.internetnlAPI.config.InternetnlRequest;
+import observatory.internetnlAPI.config.testResult.domain.Category;
+import observatory.internetnlAPI.config.testResult.domain.CustomTest;
+import observatory.internetnlAPI.config.testResult.domain.DomainResults;
+import observatory.internetnlAPI.config.testResult.domain.Result;
+import observatory.internetnlAPI.config.testResult.domain.ResultStatus;
+import observatory.internetnlAPI.config.testResult.domain.Results;
+import observatory.internetnlAPI.config.testResult.domain.Test;
+import observatory.util.Compression;
+import observatory.util.InvalidFormatException;
+import observatory.util.JSONserialization;
+
+/**
+ * The results of a list in a compact columnar form: one row per domain, with the domain name,
+ * the score and, for each test, category and custom test, a column of {@link ResultStatus} ordinals.
+ * Only the columns of the tests present in the results are allocated, so a list uses a few bytes
+ * per test and domain instead of the objects of a {@link TestResult}.
+ * The table can be built from a {@link TestResult} or filled while the results are parsed,
+ * as a {@link DomainResultsSink}.
+ *
+ * @author Henrique Campos Ferreira
+ */
+public class ListResultsTable implements DomainResultsSink
+{
+    /**
+     * The value of a column when the domain has no result.
+     */
+    static final byte NO_RESULT = -1;
+
+    private static final ResultStatus[] STATUS_VALUES = ResultStatus.values();
+
+    private static final int DEFAULT_CAPACITY = 16;
+
+    private static final TestResultParser PARSER = new TestResultParser(JSONserialization.getMapper());
+
+    private InternetnlRequest request;
+
+    private int size;
+
+    private String[] domains, reportUrls;
+
+    private int[] scores;
+
+    private final BitSet ok;
+
+    private final byte[][] categories, tests, custom;
+
+    /**
+     * @param expectedDomains - The expected number of domains of the list.
+     */
+    public ListResultsTable(int expectedDomains)
+    {
+        int capacity = Math.max(DEFAULT_CAPACITY, expectedDomains);
+        this.domains = new String[capacity];
+        this.reportUrls = new String[capacity];
+        this.scores = new int[capacity];
+        this.ok = new BitSet(capacity);
+        this.categories = new byte[Category.values().length][];
+        this.tests = new byte[Test.values().length][];
+        this.custom = new byte[CustomTest.values().length][];
+    }
+
+    /**
+     * Creates a table with the specified rows, whose results columns are set afterwards.
+     */
+    ListResultsTable(InternetnlRequest request, String[] domains, BitSet ok, int[] scores, String[] reportUrls)
+    {
+        this(0);
+        this.request = request;
+        this.size = domains.length;
+        this.domains = domains;
+        this.ok.or(ok);
+        this.scores = scores;
+        this.reportUrls = reportUrls;
+    }
+
+    /**
+     * Set the column of a category, test or custom test.
+     * @param key - The category, test or custom test.
+     * @param values - The ordinal of the status of each row or {@link #NO_RESULT}.
+     */
+    void setColumn(Enum<?> key, byte[] values)
+    {
+        if (key instanceof Category)
+            this.categories[key.ordinal()] = values;
+        else if (key instanceof Test)
+            this.tests[key.ordinal()] = values;
+        else
+            this.custom[key.ordinal()] = values;
+    }
+
+    /**
+     * Build the table of the results of a list.
+     * @param result - The results of the list.
+     * @return The table of the results.
+     */
+    public static ListResultsTable from(TestResult result)
+    {
+        ListResultsTable table = new ListResultsTable(result.getDomains().size());
+        table.setRequest(result.getRequest());
+        result.getDomains().forEach(table::add);
+        return table;
+    }
+
+    /**
+     * Load the table of the results of a list from a file, in JSON (parsed one domain at a time)
+     * or in the {@link BinaryResultsFormat binary format}, compressed or not.
+     * @param input - The file that contains the results.
+     * @return The table of the results.
+     * @throws IOException
+     * @throws InvalidFormatException
+     */
+    public static ListResultsTable fromFile(File input) throws IOException, InvalidFormatException
+    {
+        if (BinaryResultsFormat.isBinary(input))
+            return BinaryResultsFormat.readTable(input);
+
+        ListResultsTable table = new ListResultsTable(DEFAULT_CAPACITY);
+        try (InputStream stream = Compression.openInputStream(input))
+        {
+            TestResult header = PARSER.parse(stream, table);
+            if (header.getRequest() == null)
+                throw new InvalidFormatException("There is no request in the results file " + input.getName());
+
+            table.setRequest(header.getRequest());
+            table.trim();
+            return table;
+        } catch (IOException | InvalidFormatException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new InvalidFormatException(e);
+        }
+    }
+
+    @Override
+    public void accept(String domain, DomainResults results)
+    {
+        add(domain, results);
+    }
+
+    private void add(String domain, DomainResults results)
+    {
+        if (this.size == this.domains.length)
+            grow(Math.max(DEFAULT_CAPACITY, this.size * 2));
+
+        int row = this.size++;
+        this.domains[row] = domain;
+
+        if (results == null)
+            return;
+
+        if (DomainResults.STATUS_OK.equals(results.getStatus()))
+            this.ok.set(row);
+
+        if (results.getScoring() != null)
+            this.scores[row] = results.getScoring().getPercentage();
+
+        if (results.getReport() != null)
+            this.reportUrls[row] = results.getReport().getUrl();
+
+        Results domainResults = results.getResults();
+        if (domainResults == null)
+            return;
+
+        for (Map.Entry<Category, Result> entry : domainResults.getCategoriesEnum().entrySet())
+            set(this.categories, entry.getKey().ordinal(), row, status(entry.getValue()));
+
+        for (Map.Entry<Test, Result> entry : domainResults.getTestsEnum().entrySet())
+            set(this.tests, entry.getKey().ordinal(), row, status(entry.getValue()));
+
+        for (Map.Entry<CustomTest, Object> entry : domainResults.getCustomEnum().entrySet())
+            if (entry.getValue() != null)
+                set(this.custom, entry.getKey().ordinal(), row, entry.getKey().convertToResult(entry.getValue()));
+    }
+
+    private static ResultStatus status(Result result)
+    {
+        return result == null ? null : result.getStatus();
+    }
+
+    private void set(byte[][] columns, int column, int row, ResultStatus status)
+    {
+        if (status == null)
+            return;
+
+        if (columns[column] == null)
+        {
+            columns[column] = new byte[this.domains.length];
+            Arrays.fill(columns[column], NO_RESULT);
+        }
+
+        columns[column][row] = (byte) status.ordinal();
+    }
+
+    private void grow(int capacity)
+    {
+        this.domains = Arrays.copyOf(this.domains, capacity);
+        this.reportUrls = Arrays.copyOf(this.reportUrls, capacity);
+        this.scores = Arrays.copyOf(this.scores, capacity);
+
+        for (byte[][] columns : new byte[][][] { this.categories, this.tests, this.custom })
+            for (int i = 0; i < columns.length; i++)
+                if (columns[i] != null)
+                {
+                    int previous = columns[i].length;
+                    columns[i] = Arrays.copyOf(columns[i], capacity);
+                    if (capacity > previous)
+                        Arrays.fill(columns[i], previous, capacity, NO_RESULT);
+                }
+    }
+
+    /**
+     * Release the capacity not used by the rows of the table.
+     */
+    private void trim()
+    {
+        if (this.size < this.domains.length)
+            grow(this.size);
+    }
+
+    private static ResultStatus get(byte[][] columns, int column, int row)
+    {
+        byte[] values = columns[column];
+        return values == null || values[row] == NO_RESULT ? null : STATUS_VALUES[values[row]];
+    }
+
+    //#region Getters & Setters
+
+    /**
+     * @return the request of the test of the list.
+     */
+    public InternetnlRequest getRequest() {
+        return request;
+    }
+
+    /**
+     * @param request the request to set
+     */
+    public void setRequest(InternetnlRequest request) {
+        this.request = request;
+    }
+
+    /**
+     * @return the name of the list.
+     */
+    public String getName() {
+        return request.getName();
+    }
+
+    /**
+     * @return the number of domains (rows).
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * @param row
+     * @return the name of the domain.
+     */
+    public String getDomain(int row) {
+        return domains[row];
+    }
+
+    /**
+     * @param row
+     * @return true if the domain was tested successfully.
+     */
+    public boolean isOk(int row) {
+        return ok.get(row);
+    }
+
+    /**
+     * @param row
+     * @return the Internet.nl score of the domain.
+     */
+    public int getScore(int row) {
+        return scores[row];
+    }
+
+    /**
+     * @param row
+     * @return the url of the report of the domain.
+     */
+    public String getReportUrl(int row) {
+        return reportUrls[row];
+    }
+
+    /**
+     * @param row
+     * @param category
+     * @return the result of the category or null if the domain has none.
+     */
+    public ResultStatus getStatus(int row, Category category) {
+        return get(categories, category.ordinal(), row);
+    }
+
+    /**
+     * @param row
+     * @param test
+     * @return the result of the test or null if the domain has none.
+     */
+    public ResultStatus getStatus(int row, Test test) {
+        return get(tests, test.ordinal(), row);
+    }
+
+    /**
+     * @param row
+     * @param test
+     * @return the result of the custom test converted to a status or null if the domain has none.
+     */
+    public ResultStatus getStatus(int row, CustomTest test) {
+        return get(custom, test.ordinal(), row);
+    }
+
+    //#endregion
+}
@@ -4,11 +4,11 @@ import java.io.File;
 import java.io.IOException;
 import java.util.LinkedHashMap;
 
-import com.fasterxml.jackson.databind.ObjectMapper;
-
 import observatory.internetnlAPI.config.InternetnlRequest;
 import observatory.internetnlAPI.config.testResult.domain.DomainResults;
+import observatory.util.Compression;
 import observatory.util.InvalidFormatException;
+import observatory.util.JSONserialization;
 
 /**
  * Represents the results of a test.
@@ -45,11 +45,24 @@ public class TestResult
      */
     public void save(File output) throws IOException
     {
-        new ObjectMapper().writeValue(output, this);
+        save(output, Compression.NONE);
+    }
+
+    /**
+     * Save the results to a file with the specified compression.
+     * 
+     * @param output - The output file.
+     * @param compression - The compression of the file.
+     * 
+     * @throws IOException
+     */
+    public void save(File output, Compression compression) throws IOException
+    {
+        JSONserialization.writeFile(output, this, TestResult.class, compression);
     }
 
     /**
-     * Load a test result from a file.
+     * Load a test result from a file, compressed or not.
      * @param input - The file that contains the results.
      * @return The Test Result.
      * @throws IOException
@@ -58,7 +71,7 @@ public class TestResult
     public static TestResult fromFile(File input) throws IOException, InvalidFormatException
     {
         try {
-            return new ObjectMapper().readValue(input, TestResult.class);
+            return JSONserialization.readFile(input, TestResult.class);
         } catch (IOException e) {
             throw e;
         } catch (Exception e) {
@@ -0,0 +1,148 @@
+package observatory.internetnlAPI.config.testResult;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Map;
+
+import observatory.internetnlAPI.config.testResult.domain.DomainResults;
+import observatory.util.Compression;
+
+/**
+ * The results of a test kept in memory in a compact form.
+ * Each domain is encoded in the columns of the {@link BinaryResultsFormat binary format}
+ * as it is received, so every string (domain names, urls, verdicts) is kept once.
+ * The results of a domain are only rebuilt when they are read, one domain at a time,
+ * and the results are saved from the columns, so the object graph of all the results
+ * is never built.
+ *
+ * @author Henrique Campos Ferreira
+ */
+public class TestResultCollector implements DomainResultsSink
+{
+    private final BinaryResultsFormat.Encoder encoder;
+
+    private TestResult header;
+
+    /**
+     * @param expectedDomains - The expected number of domains of the test.
+     */
+    public TestResultCollector(int expectedDomains)
+    {
+        this.encoder = new BinaryResultsFormat.Encoder(expectedDomains);
+    }
+
+    /**
+     * Collect the results of a test already in memory.
+     * @param result - The results of the test.
+     * @return The collected results.
+     * @throws IOException
+     */
+    public static TestResultCollector from(TestResult result) throws IOException
+    {
+        Map<String, DomainResults> domains = result.getDomains();
+        TestResultCollector collector = new TestResultCollector(domains == null ? 0 : domains.size());
+        if (domains != null)
+            for (Map.Entry<String, DomainResults> domain : domains.entrySet())
+                collector.accept(domain.getKey(), domain.getValue());
+
+        collector.finish(result);
+        return collector;
+    }
+
+    /**
+     * Add the results of a domain, replacing its previous results.
+     */
+    @Override
+    public void accept(String domain, DomainResults results) throws IOException
+    {
+        this.encoder.accept(domain, results);
+    }
+
+    /**
+     * Finish the collection of the results.
+     * @param result - The results of the test. Only the api version and the request are kept.
+     */
+    public void finish(TestResult result)
+    {
+        TestResult header = new TestResult();
+        header.setApi_version(result.getApi_version());
+        header.setRequest(result.getRequest());
+        this.header = header;
+    }
+
+    /**
+     * @return the results of the test without the domains or null if the collection did not finish.
+     */
+    public TestResult getHeader() {
+        return header;
+    }
+
+    /**
+     * @return the number of domains.
+     */
+    public int size()
+    {
+        return this.encoder.size();
+    }
+
+    /**
+     * Rebuild the results of a domain.
+     * @param domain
+     * @return The results of the domain or null if the domain has no results.
+     * @throws IOException
+     */
+    public DomainResults get(String domain) throws IOException
+    {
+        return this.encoder.get(domain);
+    }
+
+    /**
+     * Rebuild the results of each domain, one domain at a time.
+     * @param sink - Receives the results of each domain.
+     * @throws IOException
+     */
+    public void forEach(DomainResultsSink sink) throws IOException
+    {
+        this.encoder.forEach(sink);
+    }
+
+    /**
+     * Order the domains by the specified list of domains. The domains of the list without results
+     * are kept without results and the domains not in the list are removed.
+     * @param domains
+     */
+    public void orderBy(String[] domains)
+    {
+        this.encoder.reorder(domains);
+    }
+
+    /**
+     * Save the results as JSON, with the specified compression.
+     * @param output - The output file.
+     * @param compression - The compression of the file.
+     * @throws IOException
+     */
+    public void save(File output, Compression compression) throws IOException
+    {
+        this.encoder.writeJson(getFinishedHeader(), output, compression);
+    }
+
+    /**
+     * Save the results in the binary format, with the specified compression.
+     * @param output - The output file.
+     * @param compression - The compression of the file.
+     * @throws IOException
+     */
+    public void saveBinary(File output, Compression compression) throws IOException
+    {
+        this.encoder.write(getFinishedHeader(), output, compression);
+    }
+
+    private TestResult getFinishedHeader()
+    {
+        if (this.header == null)
+            throw new IllegalStateException("The results are still being collected.");
+
+        return this.header;
+    }
+}
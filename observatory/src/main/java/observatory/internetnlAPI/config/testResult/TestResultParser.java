@@ -0,0 +1,103 @@
+package observatory.internetnlAPI.config.testResult;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+import com.fasterxml.jackson.core.JsonParseException;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+
+import observatory.internetnlAPI.config.InternetnlRequest;
+import observatory.internetnlAPI.config.testResult.domain.DomainResults;
+
+/**
+ * Parses the results of a test as a stream.
+ * The parser walks the domains object and binds one domain at a time, handing
+ * its results to a {@link DomainResultsSink}, so the memory used by the parser is
+ * bounded by the results of one domain instead of the whole test.
+ *
+ * @author Henrique Campos Ferreira
+ */
+public class TestResultParser
+{
+    private static final String FIELD_API_VERSION = "api_version";
+    private static final String FIELD_REQUEST = "request";
+    private static final String FIELD_DOMAINS = "domains";
+
+    private final JsonMapper mapper;
+
+    private final ObjectReader requestReader, domainReader;
+
+    /**
+     * @param mapper - The mapper that binds the request and the results of each domain.
+     */
+    public TestResultParser(JsonMapper mapper)
+    {
+        this.mapper = mapper;
+        this.requestReader = mapper.readerFor(InternetnlRequest.class);
+        this.domainReader = mapper.readerFor(DomainResults.class);
+    }
+
+    /**
+     * Parse the results of a test.
+     *
+     * @param input - The results of the test. The stream is not closed.
+     * @param sink - Receives the results of each domain, in the order of the input.
+     *
+     * @return The results of the test without the domains, i.e. the api version and the request.
+     *
+     * @throws IOException If the input is not valid or the sink could not store a domain.
+     */
+    public TestResult parse(InputStream input, DomainResultsSink sink) throws IOException
+    {
+        try (JsonParser parser = this.mapper.createParser(input))
+        {
+            if (parser.nextToken() != JsonToken.START_OBJECT)
+                throw new JsonParseException(parser, "The test results are not a JSON object.");
+
+            TestResult result = new TestResult();
+            while (parser.nextToken() == JsonToken.FIELD_NAME)
+            {
+                String field = parser.getCurrentName();
+                JsonToken value = parser.nextToken();
+
+                if (value == JsonToken.VALUE_NULL)
+                    continue;
+
+                switch (field)
+                {
+                    case FIELD_API_VERSION:
+                        result.setApi_version(parser.getValueAsString());
+                        break;
+                    case FIELD_REQUEST:
+                        result.setRequest(this.requestReader.readValue(parser));
+                        break;
+                    case FIELD_DOMAINS:
+                        parseDomains(parser, sink);
+                        break;
+                    default:
+                        parser.skipChildren();
+                }
+            }
+
+            return result;
+        }
+    }
+
+    private void parseDomains(JsonParser parser, DomainResultsSink sink) throws IOException
+    {
+        if (parser.currentToken() != JsonToken.START_OBJECT)
+            throw new JsonParseException(parser, "The domains of the test results are not a JSON object.");
+
+        while (parser.nextToken() == JsonToken.FIELD_NAME)
+        {
+            String domain = parser.getCurrentName();
+            DomainResults results = parser.nextToken() == JsonToken.VALUE_NULL ? null
+                : this.domainReader.readValue(parser);
+
+            sink.accept(domain, results);
+        }
+    }
+}
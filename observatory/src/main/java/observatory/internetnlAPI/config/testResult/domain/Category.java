@@ -1,6 +1,7 @@
 package observatory.internetnlAPI.config.testResult.domain;
 
 import java.util.List;
+import java.util.Locale;
 import java.util.Map;
 import java.util.Optional;
 import java.util.stream.Collectors;
@@ -31,6 +32,9 @@ public enum Category
 
     private static Map<RequestType, List<Category>> valuesByType;
 
+    private static final Map<String, Category> BY_NAME = Stream.of(values())
+        .collect(Collectors.toUnmodifiableMap((c) -> c.category.toLowerCase(Locale.ROOT), (c) -> c));
+
     private String category, description;
 
     private RequestType type;
@@ -64,9 +68,21 @@ public enum Category
         return type;
     }
 
+    /**
+     * Get the constant with the specified name (case insensitive) in constant time.
+     * @param value - The name used by the internet.nl API.
+     * @return The constant with the specified name, if any.
+     */
     public static Optional<Category> getEnumValue(String value)
     {
-        return Stream.of(values()).filter(c -> c.getCategory().equalsIgnoreCase(value)).findFirst();
+        if (value == null)
+            return Optional.empty();
+
+        Category constant = BY_NAME.get(value);
+        if (constant == null)
+            constant = BY_NAME.get(value.toLowerCase(Locale.ROOT));
+
+        return Optional.ofNullable(constant);
     }
     
     public static List<Category> values(RequestType type)
@@ -1,7 +1,10 @@
 package observatory.internetnlAPI.config.testResult.domain;
 
+import java.util.Locale;
+import java.util.Map;
 import java.util.Optional;
 import java.util.function.Function;
+import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
 import com.fasterxml.jackson.annotation.JsonValue;
@@ -34,6 +37,9 @@ public enum CustomTest
 
     private Function<Object, ResultStatus> convertToResultFunc;
 
+    private static final Map<String, CustomTest> BY_NAME = Stream.of(values())
+        .collect(Collectors.toUnmodifiableMap((t) -> t.test.toLowerCase(Locale.ROOT), (t) -> t));
+
     private CustomTest(String test, String description, Function<Object, ResultStatus> convertToResultFunc)
     {
         this.test = test;
@@ -76,8 +82,20 @@ public enum CustomTest
         return convertToResultFunc.apply(result);
     }
 
+    /**
+     * Get the constant with the specified name (case insensitive) in constant time.
+     * @param value - The name used by the internet.nl API.
+     * @return The constant with the specified name, if any.
+     */
     public static Optional<CustomTest> getEnumValue(String value)
     {
-        return Stream.of(values()).filter(t -> t.getTest().equalsIgnoreCase(value)).findFirst();
+        if (value == null)
+            return Optional.empty();
+
+        CustomTest constant = BY_NAME.get(value);
+        if (constant == null)
+            constant = BY_NAME.get(value.toLowerCase(Locale.ROOT));
+
+        return Optional.ofNullable(constant);
     }
 }
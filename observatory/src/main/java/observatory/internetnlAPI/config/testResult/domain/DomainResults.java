@@ -5,6 +5,11 @@ package observatory.internetnlAPI.config.testResult.domain;
  */
 public class DomainResults
 {
+    /**
+     * The status of a domain that was tested successfully.
+     */
+    public static final String STATUS_OK = "ok";
+
     private String status;
 
     private Report report;
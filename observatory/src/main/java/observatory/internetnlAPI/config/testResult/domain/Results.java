@@ -1,123 +1,192 @@
 package observatory.internetnlAPI.config.testResult.domain;
 
 import java.util.EnumMap;
+import java.util.LinkedHashMap;
 import java.util.Map;
+import java.util.Optional;
+import java.util.function.Function;
 
-import com.fasterxml.jackson.annotation.JsonIgnore;
-
-import observatory.util.Util;
+import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
 
 /**
  * Represents the results of all categories and tests of a domain.
- * 
+ * The results are kept in enum maps, decoded directly by {@link ResultsDeserializer}.
+ * The results whose names are unknown to this version are kept apart, so they are not lost when saved.
+ *
  * @author Henrique Campos Ferreira
  */
+@JsonDeserialize(using = ResultsDeserializer.class)
+@JsonSerialize(using = ResultsSerializer.class)
 public class Results
 {
-    private Map<String, Result> categories;
+    static final String FIELD_CATEGORIES = "categories", FIELD_TESTS = "tests", FIELD_CUSTOM = "custom";
 
-    private Map<String, Result> tests;
+    final EnumMap<Category, Result> categories;
 
-    private Map<String, Object> custom;
+    final EnumMap<Test, Result> tests;
 
-    private EnumMap<Category, Result> categoriesEnumMap;
+    final EnumMap<CustomTest, Object> custom;
 
-    private EnumMap<Test, Result> testsEnumMap;
+    Map<String, Result> unknownCategories, unknownTests;
 
-    private EnumMap<CustomTest, Object> customEnumMap;
+    Map<String, Object> unknownCustom;
 
     /**
-     * 
+     *
      */
     public Results() {
+        this.categories = new EnumMap<>(Category.class);
+        this.tests = new EnumMap<>(Test.class);
+        this.custom = new EnumMap<>(CustomTest.class);
     }
 
 
     //#region Getters & Setters
 
     /**
-     * @return the categories
+     * @return a copy of the categories, by name.
      */
     public Map<String, Result> getCategories() {
-        return categories;
+        return toNameMap(categories, Category::getCategory, unknownCategories);
     }
 
     /**
      * @param categories the categories to set
      */
     public void setCategories(Map<String, Result> categories) {
-        this.categories = categories;
+        this.unknownCategories = fromNameMap(categories, Category::getEnumValue, this.categories);
     }
 
     /**
-     * @return the tests
+     * @return a copy of the tests, by name.
      */
     public Map<String, Result> getTests() {
-        return tests;
+        return toNameMap(tests, Test::getTest, unknownTests);
     }
 
     /**
      * @param tests the tests to set
      */
     public void setTests(Map<String, Result> tests) {
-        this.tests = tests;
+        this.unknownTests = fromNameMap(tests, Test::getEnumValue, this.tests);
     }
 
     /**
-     * @return the custom
+     * @return a copy of the custom, by name.
      */
     public Map<String, Object> getCustom() {
-        return custom;
+        return toNameMap(custom, CustomTest::getTest, unknownCustom);
     }
 
     /**
      * @param custom the custom to set
      */
     public void setCustom(Map<String, Object> custom) {
-        this.custom = custom;
+        this.unknownCustom = fromNameMap(custom, CustomTest::getEnumValue, this.custom);
     }
 
 
 
     /**
-     * @return the categories converted to an Enum Map
+     * @return the categories as an Enum Map
      */
-    @JsonIgnore
     public EnumMap<Category, Result> getCategoriesEnum() {
-
-        if (categoriesEnumMap == null)
-            categoriesEnumMap = Util.toEnumMap(categories,
-                Category::getEnumValue, Category.class);
-
-        return categoriesEnumMap;
+        return categories;
     }
 
     /**
-     * @return the tests converted to an Enum Map
+     * @return the tests as an Enum Map
      */
-    @JsonIgnore
     public EnumMap<Test, Result> getTestsEnum() {
+        return tests;
+    }
+
+    /**
+     * @return the custom as an Enum Map
+     */
+    public EnumMap<CustomTest, Object> getCustomEnum() {
+        return custom;
+    }
 
-        if (testsEnumMap == null)
-            testsEnumMap = Util.toEnumMap(tests,
-                Test::getEnumValue, Test.class);
+    //#endregion
 
-        return testsEnumMap;
+    /**
+     * @return the results whose names are unknown to this version or null if there are none.
+     */
+    public Results getUnknownResults()
+    {
+        if (unknownCategories == null && unknownTests == null && unknownCustom == null)
+            return null;
+
+        Results unknown = new Results();
+        unknown.unknownCategories = unknownCategories;
+        unknown.unknownTests = unknownTests;
+        unknown.unknownCustom = unknownCustom;
+        return unknown;
     }
 
     /**
-     * @return the custom converted to an Enum Map
+     * Add all the results of other results to these results.
+     * @param other
      */
-    @JsonIgnore
-    public EnumMap<CustomTest, Object> getCustomEnum() {
+    public void putAll(Results other)
+    {
+        categories.putAll(other.categories);
+        tests.putAll(other.tests);
+        custom.putAll(other.custom);
+        unknownCategories = putAll(unknownCategories, other.unknownCategories);
+        unknownTests = putAll(unknownTests, other.unknownTests);
+        unknownCustom = putAll(unknownCustom, other.unknownCustom);
+    }
 
-        if (customEnumMap == null)
-            customEnumMap = Util.toEnumMap(custom,
-                CustomTest::getEnumValue, CustomTest.class);
+    private static <V> Map<String, V> putAll(Map<String, V> map, Map<String, V> other)
+    {
+        if (other == null)
+            return map;
 
-        return customEnumMap;
+        if (map == null)
+            map = new LinkedHashMap<>();
+        map.putAll(other);
+        return map;
     }
 
-    //#endregion
+    private static <K extends Enum<K>, V> Map<String, V> toNameMap(EnumMap<K, V> known,
+        Function<K, String> getName, Map<String, V> unknown)
+    {
+        Map<String, V> result = new LinkedHashMap<>();
+        known.forEach((k, v) -> result.put(getName.apply(k), v));
+        if (unknown != null)
+            result.putAll(unknown);
+
+        return result;
+    }
 
+    /**
+     * Replace the content of an enum map with the specified map.
+     * @return The entries with an unknown name or null if there are none.
+     */
+    private static <K extends Enum<K>, V> Map<String, V> fromNameMap(Map<String, V> map,
+        Function<String, Optional<K>> getEnumValue, EnumMap<K, V> known)
+    {
+        known.clear();
+        if (map == null)
+            return null;
+
+        Map<String, V> unknown = null;
+        for (Map.Entry<String, V> entry : map.entrySet())
+        {
+            Optional<K> k = getEnumValue.apply(entry.getKey());
+            if (k.isPresent())
+                known.put(k.get(), entry.getValue());
+            else
+            {
+                if (unknown == null)
+                    unknown = new LinkedHashMap<>();
+                unknown.put(entry.getKey(), entry.getValue());
+            }
+        }
+
+        return unknown;
+    }
 }
@@ -0,0 +1,102 @@
+package observatory.internetnlAPI.config.testResult.domain;
+
+import java.io.IOException;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Function;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.DeserializationContext;
+import com.fasterxml.jackson.databind.JsonDeserializer;
+import com.fasterxml.jackson.databind.deser.std.StdDeserializer;
+
+/**
+ * Decodes the results of a domain straight into the enum maps of {@link Results},
+ * looking up each name once, without building intermediate maps by name.
+ * Names unknown to this version are kept in the fallback maps of {@link Results}.
+ *
+ * @author Henrique Campos Ferreira
+ */
+public class ResultsDeserializer extends StdDeserializer<Results>
+{
+    public ResultsDeserializer() {
+        super(Results.class);
+    }
+
+    @Override
+    public Results deserialize(JsonParser p, DeserializationContext ctxt) throws IOException
+    {
+        if (!p.isExpectedStartObjectToken())
+            return (Results) ctxt.handleUnexpectedToken(Results.class, p);
+
+        Results results = new Results();
+        JsonDeserializer<Object> resultDeserializer = ctxt.findRootValueDeserializer(ctxt.constructType(Result.class));
+
+        for (String field = p.nextFieldName(); field != null; field = p.nextFieldName())
+        {
+            p.nextToken();
+            switch (field)
+            {
+                case Results.FIELD_CATEGORIES:
+                    results.unknownCategories = readResults(p, ctxt, resultDeserializer, Category::getEnumValue,
+                        results.categories);
+                    break;
+
+                case Results.FIELD_TESTS:
+                    results.unknownTests = readResults(p, ctxt, resultDeserializer, Test::getEnumValue,
+                        results.tests);
+                    break;
+
+                case Results.FIELD_CUSTOM:
+                    results.unknownCustom = readResults(p, ctxt,
+                        ctxt.findRootValueDeserializer(ctxt.constructType(Object.class)),
+                        CustomTest::getEnumValue, results.custom);
+                    break;
+
+                default:
+                    p.skipChildren();
+                    break;
+            }
+        }
+
+        return results;
+    }
+
+    /**
+     * Read an object of results by name into an enum map.
+     * @return The results with an unknown name or null if there are none.
+     */
+    @SuppressWarnings("unchecked")
+    private static <K extends Enum<K>, V> Map<String, V> readResults(JsonParser p, DeserializationContext ctxt,
+        JsonDeserializer<Object> valueDeserializer, Function<String, Optional<K>> getEnumValue, EnumMap<K, V> known)
+            throws IOException
+    {
+        if (p.currentToken() == JsonToken.VALUE_NULL)
+            return null;
+        if (!p.isExpectedStartObjectToken())
+            return (Map<String, V>) ctxt.handleUnexpectedToken(Map.class, p);
+
+        Map<String, V> unknown = null;
+        for (String name = p.nextFieldName(); name != null; name = p.nextFieldName())
+        {
+            JsonToken token = p.nextToken();
+            V value = (V) (token == JsonToken.VALUE_NULL ? valueDeserializer.getNullValue(ctxt)
+                : valueDeserializer.deserialize(p, ctxt));
+
+            Optional<K> k = getEnumValue.apply(name);
+            if (k.isPresent())
+                known.put(k.get(), value);
+            else
+            {
+                if (unknown == null)
+                    unknown = new LinkedHashMap<>();
+                unknown.put(name, value);
+            }
+        }
+
+        return unknown;
+    }
+}
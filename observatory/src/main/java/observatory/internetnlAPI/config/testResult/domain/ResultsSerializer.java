@@ -0,0 +1,56 @@
+package observatory.internetnlAPI.config.testResult.domain;
+
+import java.io.IOException;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.function.Function;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.ser.std.StdSerializer;
+
+/**
+ * Writes the results of a domain in the format of the internet.nl API,
+ * i.e. objects of results by name, followed by the results with unknown names.
+ *
+ * @author Henrique Campos Ferreira
+ */
+public class ResultsSerializer extends StdSerializer<Results>
+{
+    public ResultsSerializer() {
+        super(Results.class);
+    }
+
+    @Override
+    public void serialize(Results value, JsonGenerator gen, SerializerProvider provider) throws IOException
+    {
+        gen.writeStartObject(value);
+        writeResults(gen, provider, Results.FIELD_CATEGORIES, value.categories, Category::getCategory,
+            value.unknownCategories);
+        writeResults(gen, provider, Results.FIELD_TESTS, value.tests, Test::getTest, value.unknownTests);
+        writeResults(gen, provider, Results.FIELD_CUSTOM, value.custom, CustomTest::getTest, value.unknownCustom);
+        gen.writeEndObject();
+    }
+
+    private static <K extends Enum<K>, V> void writeResults(JsonGenerator gen, SerializerProvider provider,
+        String field, EnumMap<K, V> known, Function<K, String> getName, Map<String, V> unknown) throws IOException
+    {
+        gen.writeFieldName(field);
+        gen.writeStartObject();
+
+        for (Map.Entry<K, V> entry : known.entrySet())
+        {
+            gen.writeFieldName(getName.apply(entry.getKey()));
+            provider.defaultSerializeValue(entry.getValue(), gen);
+        }
+
+        if (unknown != null)
+            for (Map.Entry<String, V> entry : unknown.entrySet())
+            {
+                gen.writeFieldName(entry.getKey());
+                provider.defaultSerializeValue(entry.getValue(), gen);
+            }
+
+        gen.writeEndObject();
+    }
+}
@@ -1,6 +1,7 @@
 package observatory.internetnlAPI.config.testResult.domain;
 
 import java.util.List;
+import java.util.Locale;
 import java.util.Map;
 import java.util.Optional;
 import java.util.stream.Collectors;
@@ -111,6 +112,9 @@ public enum Test
 
     private static Map<RequestType, List<Test>> valuesByType;
 
+    private static final Map<String, Test> BY_NAME = Stream.of(values())
+        .collect(Collectors.toUnmodifiableMap((t) -> t.test.toLowerCase(Locale.ROOT), (t) -> t));
+
     private static Map<Category, List<Test>> valuesByCategory;
 
     private String test, description;
@@ -156,9 +160,21 @@ public enum Test
         return category;
     }
 
+    /**
+     * Get the constant with the specified name (case insensitive) in constant time.
+     * @param value - The name used by the internet.nl API.
+     * @return The constant with the specified name, if any.
+     */
     public static Optional<Test> getEnumValue(String value)
     {
-        return Stream.of(values()).filter(t -> t.getTest().equalsIgnoreCase(value)).findFirst();
+        if (value == null)
+            return Optional.empty();
+
+        Test constant = BY_NAME.get(value);
+        if (constant == null)
+            constant = BY_NAME.get(value.toLowerCase(Locale.ROOT));
+
+        return Optional.ofNullable(constant);
     }
 
     public static List<Test> values(RequestType type)
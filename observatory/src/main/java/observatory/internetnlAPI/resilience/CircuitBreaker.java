@@ -0,0 +1,162 @@
+package observatory.internetnlAPI.resilience;
+
+/**
+ * A circuit breaker shared by all requests to a server.
+ * <p>
+ * After a number of consecutive failures the circuit opens and requests are held back
+ * (paused) until it is time to probe the server again. A single probe is sent: if it
+ * succeeds the circuit closes, otherwise it opens again for twice as long.
+ * Once the server has been failing for longer than the maximum outage,
+ * the requests held back fail fast.
+ *
+ * @author Henrique Campos Ferreira
+ */
+public class CircuitBreaker
+{
+    public static final int DEFAULT_FAILURE_THRESHOLD = 5;
+    public static final long DEFAULT_OPEN_MILLIS = 30 * 1000;
+    public static final long DEFAULT_MAX_OUTAGE_MILLIS = 10 * 60 * 1000;
+
+    /**
+     * The maximum time the circuit stays open before a probe.
+     */
+    private static final long MAX_OPEN_MILLIS = 5 * 60 * 1000;
+
+    /**
+     * The time the requests wait for the result of a probe.
+     */
+    private static final long PROBE_WAIT_MILLIS = 1000;
+
+    public static enum State
+    {
+        CLOSED, OPEN, HALF_OPEN
+    }
+
+    private final int failureThreshold;
+
+    private final long openMillis, maxOutageMillis;
+
+    private State state;
+
+    private int consecutiveFailures;
+
+    private long currentOpenMillis, openUntil, outageStart;
+
+    private long opened;
+
+    /**
+     * Creates a circuit breaker with the default values.
+     */
+    public CircuitBreaker()
+    {
+        this(DEFAULT_FAILURE_THRESHOLD, DEFAULT_OPEN_MILLIS, DEFAULT_MAX_OUTAGE_MILLIS);
+    }
+
+    /**
+     * @param failureThreshold - The number of consecutive failures that opens the circuit.
+     * @param openMillis - The time the circuit stays open before the first probe.
+     * @param maxOutageMillis - The time after which the requests fail fast.
+     */
+    public CircuitBreaker(int failureThreshold, long openMillis, long maxOutageMillis)
+    {
+        if (failureThreshold < 1 || openMillis < 0 || maxOutageMillis < 0)
+            throw new IllegalArgumentException("Invalid circuit breaker.");
+
+        this.failureThreshold = failureThreshold;
+        this.openMillis = openMillis;
+        this.maxOutageMillis = maxOutageMillis;
+        this.state = State.CLOSED;
+    }
+
+    /**
+     * Ask permission to send a request.
+     *
+     * @return 0 if the request can be sent now or the time (in millis) to wait
+     * before asking again.
+     * @throws CircuitOpenException if the server has been failing for too long.
+     */
+    public synchronized long permitDelay() throws CircuitOpenException
+    {
+        long now = System.currentTimeMillis();
+        switch (this.state)
+        {
+            case OPEN:
+                if (now < this.openUntil)
+                {
+                    if (now - this.outageStart > this.maxOutageMillis)
+                        throw new CircuitOpenException(now - this.outageStart);
+
+                    return this.openUntil - now;
+                }
+
+                // send a probe.
+                this.state = State.HALF_OPEN;
+                return 0;
+
+            case HALF_OPEN:
+                return PROBE_WAIT_MILLIS;
+
+            default:
+                return 0;
+        }
+    }
+
+    /**
+     * Record a request that reached the server.
+     */
+    public synchronized void succeeded()
+    {
+        this.state = State.CLOSED;
+        this.consecutiveFailures = 0;
+        this.currentOpenMillis = 0;
+    }
+
+    /**
+     * Record a request that failed because of the server or the connection.
+     */
+    public synchronized void failed()
+    {
+        long now = System.currentTimeMillis();
+        switch (this.state)
+        {
+            case HALF_OPEN:
+                // the probe failed.
+                this.currentOpenMillis = Math.min(MAX_OPEN_MILLIS, Math.max(1, this.currentOpenMillis) * 2);
+                open(now);
+                break;
+
+            case CLOSED:
+                if (++this.consecutiveFailures >= this.failureThreshold)
+                {
+                    this.currentOpenMillis = this.openMillis;
+                    this.outageStart = now;
+                    open(now);
+                }
+                break;
+
+            default:
+                break;
+        }
+    }
+
+    private void open(long now)
+    {
+        this.state = State.OPEN;
+        this.openUntil = now + this.currentOpenMillis;
+        this.opened++;
+    }
+
+    /**
+     * @return the state of the circuit.
+     */
+    public synchronized State getState() {
+        return state;
+    }
+
+    /**
+     * @return the number of times the circuit was opened.
+     */
+    public synchronized long getOpened() {
+        return opened;
+    }
+}
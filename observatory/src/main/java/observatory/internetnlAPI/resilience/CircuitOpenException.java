@@ -0,0 +1,22 @@
+package observatory.internetnlAPI.resilience;
+
+import observatory.internetnlAPI.InternetnlAPIException;
+
+/**
+ * Thrown when a request is not sent because the server has been failing for too long.
+ *
+ * @author Henrique Campos Ferreira
+ */
+public class CircuitOpenException extends InternetnlAPIException
+{
+    private static final String DEFAULT_MSG_FORMAT =
+        "An error occurred calling the API: The server has been failing for %d seconds.";
+
+    /**
+     * @param outageMillis - The duration of the outage.
+     */
+    public CircuitOpenException(long outageMillis)
+    {
+        super(String.format(DEFAULT_MSG_FORMAT, outageMillis / 1000));
+    }
+}
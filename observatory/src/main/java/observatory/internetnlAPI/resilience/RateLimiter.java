@@ -0,0 +1,110 @@
+package observatory.internetnlAPI.resilience;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A token bucket that limits the rate of requests.
+ * The bucket is refilled at a constant rate up to its capacity (the maximum burst).
+ * A request that finds the bucket empty reserves a future token and waits for it, so
+ * waiting requests are served in order at the configured rate.
+ *
+ * @author Henrique Campos Ferreira
+ */
+public class RateLimiter
+{
+    private final double permitsPerSecond;
+
+    private final int burst;
+
+    private double tokens;
+
+    private long lastRefill;
+
+    private final AtomicLong throttled, throttledMillis;
+
+    /**
+     * @param permitsPerSecond - The rate of requests. 0 disables the limit.
+     * @param burst - The maximum number of requests sent at once.
+     */
+    public RateLimiter(double permitsPerSecond, int burst)
+    {
+        if (permitsPerSecond < 0 || burst < 1)
+            throw new IllegalArgumentException("Invalid rate limit.");
+
+        this.permitsPerSecond = permitsPerSecond;
+        this.burst = burst;
+        this.tokens = burst;
+        this.lastRefill = System.nanoTime();
+        this.throttled = new AtomicLong();
+        this.throttledMillis = new AtomicLong();
+    }
+
+    /**
+     * Reserve a token for a request.
+     * @return The time (in millis) the request must wait for its token.
+     */
+    public long reserve()
+    {
+        if (this.permitsPerSecond == 0)
+            return 0;
+
+        long delay;
+        synchronized (this)
+        {
+            long now = System.nanoTime();
+            this.tokens = Math.min(this.burst,
+                this.tokens + (now - this.lastRefill) / 1e9 * this.permitsPerSecond);
+            this.lastRefill = now;
+
+            this.tokens--;
+            delay = this.tokens >= 0 ? 0 : (long) Math.ceil(-this.tokens / this.permitsPerSecond * 1000);
+        }
+
+        if (delay > 0)
+        {
+            this.throttled.incrementAndGet();
+            this.throttledMillis.addAndGet(delay);
+        }
+
+        return delay;
+    }
+
+    /**
+     * Wait for a token without blocking.
+     * @param executor - The executor that completes the future.
+     * @return A future completed when the request can be sent.
+     */
+    public CompletableFuture<Void> acquireAsync(Executor executor)
+    {
+        long delay = reserve();
+        if (delay == 0)
+            return CompletableFuture.completedFuture(null);
+
+        return CompletableFuture.runAsync(() -> {},
+            CompletableFuture.delayedExecutor(delay, TimeUnit.MILLISECONDS, executor));
+    }
+
+    /**
+     * @return the rate of requests per second or 0 if there is no limit.
+     */
+    public double getPermitsPerSecond() {
+        return permitsPerSecond;
+    }
+
+    /**
+     * @return the number of requests that waited for a token.
+     */
+    public long getThrottled() {
+        return throttled.get();
+    }
+
+    /**
+     * @return the total time (in millis) requests waited for a token.
+     */
+    public long getThrottledMillis() {
+        return throttledMillis.get();
+    }
+}
@@ -0,0 +1,114 @@
+package observatory.internetnlAPI.resilience;
+
+import java.util.Objects;
+import java.util.Properties;
+
+/**
+ * The rate limits of the requests to the Internet.nl API, with a separate budget for
+ * submissions, status polls and results, so bursts of requests stay below the limits
+ * of the batch server instead of being rejected.
+ *
+ * @author Henrique Campos Ferreira
+ */
+public class RateLimits
+{
+    //#region Properties
+
+    public static final String PROPERTY_SUBMIT_RATE = "rate.submit";
+    public static final String PROPERTY_SUBMIT_BURST = "rate.submit.burst";
+    public static final String PROPERTY_STATUS_RATE = "rate.status";
+    public static final String PROPERTY_STATUS_BURST = "rate.status.burst";
+    public static final String PROPERTY_RESULTS_RATE = "rate.results";
+    public static final String PROPERTY_RESULTS_BURST = "rate.results.burst";
+
+    //#endregion
+
+    public static final double DEFAULT_SUBMIT_RATE = 2;
+    public static final int DEFAULT_SUBMIT_BURST = 5;
+    public static final double DEFAULT_STATUS_RATE = 10;
+    public static final int DEFAULT_STATUS_BURST = 20;
+    public static final double DEFAULT_RESULTS_RATE = 2;
+    public static final int DEFAULT_RESULTS_BURST = 4;
+
+    private final RateLimiter submit, status, results;
+
+    /**
+     * Creates the rate limits with the default values.
+     */
+    public RateLimits()
+    {
+        this(new RateLimiter(DEFAULT_SUBMIT_RATE, DEFAULT_SUBMIT_BURST),
+            new RateLimiter(DEFAULT_STATUS_RATE, DEFAULT_STATUS_BURST),
+            new RateLimiter(DEFAULT_RESULTS_RATE, DEFAULT_RESULTS_BURST));
+    }
+
+    /**
+     * @param submit - The limit of submissions.
+     * @param status - The limit of status polls.
+     * @param results - The limit of results requests.
+     */
+    public RateLimits(RateLimiter submit, RateLimiter status, RateLimiter results)
+    {
+        this.submit = Objects.requireNonNull(submit);
+        this.status = Objects.requireNonNull(status);
+        this.results = Objects.requireNonNull(results);
+    }
+
+    /**
+     * Creates the rate limits from the properties of the Internet.nl API config file.
+     * Rates are in requests per second and a rate of 0 disables the limit.
+     * Properties that are not defined take the default values.
+     *
+     * @param props - The properties.
+     * @return The rate limits.
+     * @throws IllegalArgumentException if a property has an invalid value.
+     */
+    public static RateLimits fromProperties(Properties props)
+    {
+        try
+        {
+            return new RateLimits(
+                new RateLimiter(
+                    Double.parseDouble(props.getProperty(PROPERTY_SUBMIT_RATE, "" + DEFAULT_SUBMIT_RATE)),
+                    Integer.parseInt(props.getProperty(PROPERTY_SUBMIT_BURST, "" + DEFAULT_SUBMIT_BURST))),
+                new RateLimiter(
+                    Double.parseDouble(props.getProperty(PROPERTY_STATUS_RATE, "" + DEFAULT_STATUS_RATE)),
+                    Integer.parseInt(props.getProperty(PROPERTY_STATUS_BURST, "" + DEFAULT_STATUS_BURST))),
+                new RateLimiter(
+                    Double.parseDouble(props.getProperty(PROPERTY_RESULTS_RATE, "" + DEFAULT_RESULTS_RATE)),
+                    Integer.parseInt(props.getProperty(PROPERTY_RESULTS_BURST, "" + DEFAULT_RESULTS_BURST))));
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid rate limit value: " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * @return the limit of submissions.
+     */
+    public RateLimiter getSubmit() {
+        return submit;
+    }
+
+    /**
+     * @return the limit of status polls.
+     */
+    public RateLimiter getStatus() {
+        return status;
+    }
+
+    /**
+     * @return the limit of results requests.
+     */
+    public RateLimiter getResults() {
+        return results;
+    }
+
+    @Override
+    public String toString()
+    {
+        return String.format("throttled %d submissions (%d ms), %d status polls (%d ms), %d results (%d ms)",
+            this.submit.getThrottled(), this.submit.getThrottledMillis(),
+            this.status.getThrottled(), this.status.getThrottledMillis(),
+            this.results.getThrottled(), this.results.getThrottledMillis());
+    }
+}
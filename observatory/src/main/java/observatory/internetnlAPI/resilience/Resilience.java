@@ -0,0 +1,256 @@
+package observatory.internetnlAPI.resilience;
+
+import java.util.Arrays;
+import java.util.Objects;
+import java.util.Properties;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
+import observatory.internetnlAPI.BlockingInternetnlAPI;
+import observatory.internetnlAPI.InternetnlAPIException;
+
+/**
+ * Sends the requests to the Internet.nl API with retries and a circuit breaker.
+ * Failed requests are retried according to a {@link RetryPolicy} while the
+ * {@link RetryBudget} allows it, and all requests go through a {@link CircuitBreaker}
+ * that pauses them while the server is down.
+ *
+ * @author Henrique Campos Ferreira
+ */
+public class Resilience
+{
+    //#region Properties
+
+    public static final String PROPERTY_MAX_TRIES = "retry.max_tries";
+    public static final String PROPERTY_BASE_DELAY = "retry.base_delay_ms";
+    public static final String PROPERTY_MAX_DELAY = "retry.max_delay_ms";
+    public static final String PROPERTY_RETRY_STATUS_CODES = "retry.status_codes";
+    public static final String PROPERTY_BUDGET_RATIO = "retry.budget_ratio";
+    public static final String PROPERTY_BUDGET_MAX = "retry.budget_max";
+    public static final String PROPERTY_FAILURE_THRESHOLD = "circuit.failure_threshold";
+    public static final String PROPERTY_OPEN_TIME = "circuit.open_ms";
+    public static final String PROPERTY_MAX_OUTAGE = "circuit.max_outage_ms";
+
+    //#endregion
+
+    private final RetryPolicy retryPolicy;
+
+    private final RetryBudget retryBudget;
+
+    private final CircuitBreaker circuitBreaker;
+
+    private final AtomicLong retries, exhaustedBudget, rejected;
+
+    /**
+     * Creates the resilience layer with the default values.
+     */
+    public Resilience()
+    {
+        this(new RetryPolicy(), new RetryBudget(), new CircuitBreaker());
+    }
+
+    /**
+     * @param retryPolicy
+     * @param retryBudget
+     * @param circuitBreaker
+     */
+    public Resilience(RetryPolicy retryPolicy, RetryBudget retryBudget, CircuitBreaker circuitBreaker)
+    {
+        this.retryPolicy = Objects.requireNonNull(retryPolicy);
+        this.retryBudget = Objects.requireNonNull(retryBudget);
+        this.circuitBreaker = Objects.requireNonNull(circuitBreaker);
+        this.retries = new AtomicLong();
+        this.exhaustedBudget = new AtomicLong();
+        this.rejected = new AtomicLong();
+    }
+
+    /**
+     * Creates the resilience layer from the properties of the Internet.nl API config file.
+     * Properties that are not defined take the default values.
+     *
+     * @param props - The properties.
+     * @return The resilience layer.
+     * @throws IllegalArgumentException if a property has an invalid value.
+     */
+    public static Resilience fromProperties(Properties props)
+    {
+        try
+        {
+            Set<Integer> statusCodes = RetryPolicy.DEFAULT_RETRY_STATUS_CODES;
+            String statusCodesValue = props.getProperty(PROPERTY_RETRY_STATUS_CODES);
+            if (statusCodesValue != null)
+                statusCodes = Arrays.stream(statusCodesValue.split(","))
+                    .map(String::trim)
+                    .filter((code) -> !code.isEmpty())
+                    .map(Integer::valueOf)
+                    .collect(Collectors.toSet());
+
+            RetryPolicy retryPolicy = new RetryPolicy(
+                Integer.parseInt(props.getProperty(PROPERTY_MAX_TRIES, "" + RetryPolicy.DEFAULT_MAX_TRIES)),
+                Long.parseLong(props.getProperty(PROPERTY_BASE_DELAY, "" + RetryPolicy.DEFAULT_BASE_DELAY_MILLIS)),
+                Long.parseLong(props.getProperty(PROPERTY_MAX_DELAY, "" + RetryPolicy.DEFAULT_MAX_DELAY_MILLIS)),
+                statusCodes);
+
+            RetryBudget retryBudget = new RetryBudget(
+                Double.parseDouble(props.getProperty(PROPERTY_BUDGET_RATIO, "" + RetryBudget.DEFAULT_RATIO)),
+                Integer.parseInt(props.getProperty(PROPERTY_BUDGET_MAX, "" + RetryBudget.DEFAULT_MAX_TOKENS)));
+
+            CircuitBreaker circuitBreaker = new CircuitBreaker(
+                Integer.parseInt(props.getProperty(PROPERTY_FAILURE_THRESHOLD,
+                    "" + CircuitBreaker.DEFAULT_FAILURE_THRESHOLD)),
+                Long.parseLong(props.getProperty(PROPERTY_OPEN_TIME, "" + CircuitBreaker.DEFAULT_OPEN_MILLIS)),
+                Long.parseLong(props.getProperty(PROPERTY_MAX_OUTAGE, "" + CircuitBreaker.DEFAULT_MAX_OUTAGE_MILLIS)));
+
+            return new Resilience(retryPolicy, retryBudget, circuitBreaker);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid retry or circuit breaker value: " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Send a request without blocking.
+     *
+     * @param <T> - The type of the response.
+     * @param request - Sends the request. Called once for each try.
+     * @param executor - The executor that sends the delayed tries.
+     * @return A future completed with the response or exceptionally with an {@link InternetnlAPIException}.
+     */
+    public <T> CompletableFuture<T> executeAsync(Supplier<CompletableFuture<T>> request, Executor executor)
+    {
+        CompletableFuture<T> result = new CompletableFuture<>();
+        tryAsync(request, executor, 1, result);
+        return result;
+    }
+
+    private <T> void tryAsync(Supplier<CompletableFuture<T>> request, Executor executor, int tryNumber,
+        CompletableFuture<T> result)
+    {
+        long permitDelay;
+        try {
+            permitDelay = this.circuitBreaker.permitDelay();
+        } catch (CircuitOpenException e) {
+            this.rejected.incrementAndGet();
+            result.completeExceptionally(e);
+            return;
+        }
+
+        if (permitDelay > 0)
+        {
+            // the circuit is open, so wait without using a try.
+            CompletableFuture.delayedExecutor(permitDelay, TimeUnit.MILLISECONDS, executor)
+                .execute(() -> tryAsync(request, executor, tryNumber, result));
+            return;
+        }
+
+        CompletableFuture<T> response;
+        try {
+            response = request.get();
+        } catch (RuntimeException e) {
+            response = CompletableFuture.failedFuture(e);
+        }
+
+        response.whenComplete((value, error) ->
+            {
+                if (error == null)
+                {
+                    succeeded();
+                    result.complete(value);
+                    return;
+                }
+
+                Throwable cause = error instanceof CompletionException && error.getCause() != null
+                    ? error.getCause() : error;
+
+                if (retry(cause, tryNumber))
+                    CompletableFuture.delayedExecutor(this.retryPolicy.delayMillis(tryNumber),
+                        TimeUnit.MILLISECONDS, executor)
+                        .execute(() -> tryAsync(request, executor, tryNumber + 1, result));
+                else
+                    result.completeExceptionally(BlockingInternetnlAPI.unwrap(cause));
+            });
+    }
+
+    private void succeeded()
+    {
+        this.circuitBreaker.succeeded();
+        this.retryBudget.succeeded();
+    }
+
+    /**
+     * Record a failed try and decide if it is retried.
+     * @param error - The error of the try.
+     * @param tryNumber - The number of the try.
+     * @return true if the request must be retried.
+     */
+    private boolean retry(Throwable error, int tryNumber)
+    {
+        if (!this.retryPolicy.isRetryable(error))
+        {
+            // the server replied, so it is not down.
+            this.circuitBreaker.succeeded();
+            return false;
+        }
+
+        this.circuitBreaker.failed();
+
+        if (tryNumber >= this.retryPolicy.getMaxTries())
+            return false;
+
+        if (!this.retryBudget.tryRetry())
+        {
+            this.exhaustedBudget.incrementAndGet();
+            return false;
+        }
+
+        this.retries.incrementAndGet();
+        return true;
+    }
+
+    /**
+     * @return the total number of retries.
+     */
+    public long getRetries() {
+        return retries.get();
+    }
+
+    /**
+     * @return the number of requests that were not retried because the retry budget was exhausted.
+     */
+    public long getExhaustedBudget() {
+        return exhaustedBudget.get();
+    }
+
+    /**
+     * @return the number of times the circuit was opened.
+     */
+    public long getCircuitOpened() {
+        return this.circuitBreaker.getOpened();
+    }
+
+    /**
+     * @return the number of requests that failed fast because the circuit was open.
+     */
+    public long getRejected() {
+        return rejected.get();
+    }
+
+    /**
+     * @return the state of the circuit breaker.
+     */
+    public CircuitBreaker.State getCircuitState() {
+        return this.circuitBreaker.getState();
+    }
+
+    @Override
+    public String toString()
+    {
+        return String.format("%d retries, %d retries denied by the budget, circuit opened %d times, %d requests failed fast",
+            getRetries(), getExhaustedBudget(), getCircuitOpened(), getRejected());
+    }
+}
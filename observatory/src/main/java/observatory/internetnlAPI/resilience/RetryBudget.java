@@ -0,0 +1,65 @@
+package observatory.internetnlAPI.resilience;
+
+/**
+ * Limits the retries to a fraction of the successful requests, so retries cannot
+ * multiply the load on a server that is failing most requests.
+ * <p>
+ * Each successful request deposits a fraction of a token and each retry withdraws
+ * a whole token. The budget starts full.
+ *
+ * @author Henrique Campos Ferreira
+ */
+public class RetryBudget
+{
+    public static final double DEFAULT_RATIO = 0.2;
+    public static final int DEFAULT_MAX_TOKENS = 20;
+
+    private final double ratio;
+
+    private final int maxTokens;
+
+    private double tokens;
+
+    /**
+     * Creates a retry budget with the default values.
+     */
+    public RetryBudget()
+    {
+        this(DEFAULT_RATIO, DEFAULT_MAX_TOKENS);
+    }
+
+    /**
+     * @param ratio - The tokens deposited by each successful request.
+     * @param maxTokens - The maximum number of tokens, i.e. the maximum burst of retries.
+     */
+    public RetryBudget(double ratio, int maxTokens)
+    {
+        if (ratio < 0 || maxTokens < 0)
+            throw new IllegalArgumentException("Invalid retry budget.");
+
+        this.ratio = ratio;
+        this.maxTokens = maxTokens;
+        this.tokens = maxTokens;
+    }
+
+    /**
+     * Record a successful request.
+     */
+    public synchronized void succeeded()
+    {
+        this.tokens = Math.min(this.maxTokens, this.tokens + this.ratio);
+    }
+
+    /**
+     * Withdraw a token for a retry.
+     * @return true if there was a token for the retry or false if the budget is exhausted.
+     */
+    public synchronized boolean tryRetry()
+    {
+        if (this.tokens < 1)
+            return false;
+
+        this.tokens--;
+        return true;
+    }
+}
@@ -0,0 +1,105 @@
+package observatory.internetnlAPI.resilience;
+
+import java.io.IOException;
+import java.util.Set;
+import java.util.concurrent.ThreadLocalRandom;
+
+import observatory.internetnlAPI.StatusCodeException;
+import observatory.internetnlAPI.TestIdNotFoundException;
+
+/**
+ * Decides which failed requests are retried and how long to wait before each retry.
+ * The delays grow exponentially and are jittered, so callers that failed together
+ * do not retry together.
+ *
+ * @author Henrique Campos Ferreira
+ */
+public class RetryPolicy
+{
+    public static final int DEFAULT_MAX_TRIES = 3;
+    public static final long DEFAULT_BASE_DELAY_MILLIS = 500;
+    public static final long DEFAULT_MAX_DELAY_MILLIS = 15 * 1000;
+
+    /**
+     * The server sometimes replies with 400 to valid requests under load, so it is retried.
+     */
+    public static final Set<Integer> DEFAULT_RETRY_STATUS_CODES = Set.of(400, 429, 500, 502, 503, 504);
+
+    private final int maxTries;
+
+    private final long baseDelayMillis, maxDelayMillis;
+
+    private final Set<Integer> retryStatusCodes;
+
+    /**
+     * Creates a retry policy with the default values.
+     */
+    public RetryPolicy()
+    {
+        this(DEFAULT_MAX_TRIES, DEFAULT_BASE_DELAY_MILLIS, DEFAULT_MAX_DELAY_MILLIS, DEFAULT_RETRY_STATUS_CODES);
+    }
+
+    /**
+     * @param maxTries - The maximum number of tries of each request.
+     * @param baseDelayMillis - The delay before the first retry.
+     * @param maxDelayMillis - The maximum delay before a retry.
+     * @param retryStatusCodes - The HTTP status codes that are retried.
+     */
+    public RetryPolicy(int maxTries, long baseDelayMillis, long maxDelayMillis, Set<Integer> retryStatusCodes)
+    {
+        if (maxTries < 1 || baseDelayMillis < 0 || maxDelayMillis < baseDelayMillis)
+            throw new IllegalArgumentException("Invalid retry policy.");
+
+        this.maxTries = maxTries;
+        this.baseDelayMillis = baseDelayMillis;
+        this.maxDelayMillis = maxDelayMillis;
+        this.retryStatusCodes = Set.copyOf(retryStatusCodes);
+    }
+
+    /**
+     * @return the maximum number of tries of each request.
+     */
+    public int getMaxTries() {
+        return maxTries;
+    }
+
+    /**
+     * Checks if a failed request can be retried.
+     * Transport errors and the configured status codes are retried.
+     * An unknown test id is never retried.
+     *
+     * @param error - The error of the request.
+     * @return true if the request can be retried.
+     */
+    public boolean isRetryable(Throwable error)
+    {
+        if (error instanceof TestIdNotFoundException)
+            return false;
+
+        if (error instanceof StatusCodeException)
+            return this.retryStatusCodes.contains(((StatusCodeException) error).getStatusCode());
+
+        for (Throwable cause = error; cause != null; cause = cause.getCause())
+        {
+            if (cause instanceof IOException)
+                return true;
+        }
+
+        return false;
+    }
+
+    /**
+     * Get the delay before a retry: an exponential backoff with "equal jitter",
+     * i.e. a random value between half and the whole backoff.
+     *
+     * @param retry - The number of the retry, starting at 1.
+     * @return The delay in millis.
+     */
+    public long delayMillis(int retry)
+    {
+        double backoff = this.baseDelayMillis * Math.pow(2, retry - 1);
+        long delay = (long) Math.min(this.maxDelayMillis, backoff);
+
+        return delay / 2 + ThreadLocalRandom.current().nextLong(delay / 2 + 1);
+    }
+}
@@ -0,0 +1,175 @@
+package observatory.internetnlAPI.transport;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.PushbackInputStream;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.Inflater;
+import java.util.zip.InflaterInputStream;
+
+/**
+ * Decodes the compressed bodies of the replies while they are read and counts the bytes
+ * received and decoded, to show the bandwidth saved by the compression.
+ * <p>
+ * The supported encodings are gzip and deflate, which are in the JDK.
+ *
+ * @author Henrique Campos Ferreira
+ */
+public class ContentDecoder
+{
+    /**
+     * The value of the Accept-Encoding header of the requests.
+     */
+    public static final String ACCEPT_ENCODING = "gzip, deflate";
+
+    private static final String ENCODING_GZIP = "gzip";
+    private static final String ENCODING_X_GZIP = "x-gzip";
+    private static final String ENCODING_DEFLATE = "deflate";
+    private static final String ENCODING_IDENTITY = "identity";
+
+    private final AtomicLong receivedBytes, decodedBytes, compressedReplies;
+
+    public ContentDecoder()
+    {
+        this.receivedBytes = new AtomicLong();
+        this.decodedBytes = new AtomicLong();
+        this.compressedReplies = new AtomicLong();
+    }
+
+    /**
+     * Get the decoded body of a reply.
+     *
+     * @param reply
+     * @return The body of the reply, decoded as it is read.
+     * @throws IOException If the encoding is not supported or the body is not valid.
+     */
+    public InputStream decode(HttpReply reply) throws IOException
+    {
+        InputStream received = new CountingInputStream(reply.getBody(), this.receivedBytes);
+
+        String encoding = reply.getContentEncoding() == null ? ENCODING_IDENTITY
+            : reply.getContentEncoding().trim().toLowerCase();
+
+        InputStream decoded;
+        switch (encoding)
+        {
+            case ENCODING_IDENTITY:
+            case "":
+                decoded = received;
+                break;
+            case ENCODING_GZIP:
+            case ENCODING_X_GZIP:
+                decoded = new GZIPInputStream(received);
+                break;
+            case ENCODING_DEFLATE:
+                decoded = inflate(received);
+                break;
+            default:
+                received.close();
+                throw new IOException("Unsupported content encoding: " + encoding);
+        }
+
+        if (decoded == received)
+        {
+            // the bytes received are the bytes decoded.
+            return new CountingInputStream(received, this.decodedBytes);
+        }
+
+        this.compressedReplies.incrementAndGet();
+        return new CountingInputStream(decoded, this.decodedBytes);
+    }
+
+    /**
+     * Inflate a deflate body. The body should be in the zlib format, but some servers
+     * send raw deflate data, so the format is detected from the zlib header.
+     * @param input
+     * @return The inflated body.
+     * @throws IOException
+     */
+    private static InputStream inflate(InputStream input) throws IOException
+    {
+        PushbackInputStream pushback = new PushbackInputStream(input, 2);
+        byte[] header = pushback.readNBytes(2);
+        pushback.unread(header);
+
+        boolean zlib = header.length == 2 && (header[0] & 0x0F) == 8
+            && ((header[0] & 0xFF) << 8 | (header[1] & 0xFF)) % 31 == 0;
+
+        return new InflaterInputStream(pushback, new Inflater(!zlib));
+    }
+
+    /**
+     * @return the number of bytes received.
+     */
+    public long getReceivedBytes() {
+        return receivedBytes.get();
+    }
+
+    /**
+     * @return the number of bytes of the decoded bodies.
+     */
+    public long getDecodedBytes() {
+        return decodedBytes.get();
+    }
+
+    /**
+     * @return the number of compressed replies.
+     */
+    public long getCompressedReplies() {
+        return compressedReplies.get();
+    }
+
+    @Override
+    public String toString()
+    {
+        long received = getReceivedBytes(), decoded = getDecodedBytes();
+        return String.format("received %d bytes for %d decoded bytes (%d compressed replies, %.1f%% saved)",
+            received, decoded, getCompressedReplies(), decoded == 0 ? 0.0 : 100.0 * (decoded - received) / decoded);
+    }
+
+    /**
+     * Counts the bytes read from a stream.
+     */
+    private static class CountingInputStream extends FilterInputStream
+    {
+        private final AtomicLong counter;
+
+        CountingInputStream(InputStream input, AtomicLong counter)
+        {
+            super(input);
+            this.counter = counter;
+        }
+
+        @Override
+        public int read() throws IOException
+        {
+            int b = super.read();
+            if (b >= 0)
+                this.counter.incrementAndGet();
+
+            return b;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException
+        {
+            int read = super.read(b, off, len);
+            if (read > 0)
+                this.counter.addAndGet(read);
+
+            return read;
+        }
+
+        @Override
+        public long skip(long n) throws IOException
+        {
+            long skipped = super.skip(n);
+            if (skipped > 0)
+                this.counter.addAndGet(skipped);
+
+            return skipped;
+        }
+    }
+}
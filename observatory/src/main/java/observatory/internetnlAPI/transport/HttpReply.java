@@ -0,0 +1,68 @@
+package observatory.internetnlAPI.transport;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * The reply to a HTTP request. The body is streamed from the connection,
+ * so it must be closed to release the connection.
+ *
+ * @author Henrique Campos Ferreira
+ */
+public class HttpReply implements Closeable
+{
+    private final int statusCode;
+
+    private final String contentEncoding;
+
+    private final InputStream body;
+
+    /**
+     * @param statusCode - The HTTP status code.
+     * @param body - The body of the reply.
+     */
+    public HttpReply(int statusCode, InputStream body)
+    {
+        this(statusCode, null, body);
+    }
+
+    /**
+     * @param statusCode - The HTTP status code.
+     * @param contentEncoding - The value of the Content-Encoding header or null if none.
+     * @param body - The body of the reply, as received.
+     */
+    public HttpReply(int statusCode, String contentEncoding, InputStream body)
+    {
+        this.statusCode = statusCode;
+        this.contentEncoding = contentEncoding;
+        this.body = body == null ? InputStream.nullInputStream() : body;
+    }
+
+    /**
+     * @return the HTTP status code.
+     */
+    public int getStatusCode() {
+        return statusCode;
+    }
+
+    /**
+     * @return the value of the Content-Encoding header or null if none.
+     */
+    public String getContentEncoding() {
+        return contentEncoding;
+    }
+
+    /**
+     * @return the body of the reply, as received.
+     */
+    public InputStream getBody() {
+        return body;
+    }
+
+    @Override
+    public void close() throws IOException
+    {
+        this.body.close();
+    }
+}
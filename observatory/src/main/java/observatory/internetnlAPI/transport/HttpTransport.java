@@ -0,0 +1,89 @@
+package observatory.internetnlAPI.transport;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Sends the HTTP requests of a client of the Internet.nl API.
+ * <p>
+ * A transport keeps its connections open between requests and never blocks the caller,
+ * so the client only deals with the content of the requests.
+ *
+ * @author Henrique Campos Ferreira
+ */
+public interface HttpTransport extends AutoCloseable
+{
+    //#region Properties
+
+    public static final String PROPERTY_TRANSPORT = "transport";
+    public static final String PROPERTY_HTTP_VERSION = "transport.http_version";
+
+    //#endregion
+
+    public static final String TRANSPORT_JDK = "jdk";
+    public static final String TRANSPORT_JERSEY = "jersey";
+
+    public static final int CONNECT_TIMEOUT = 60;
+    public static final int READ_TIMEOUT = 60 * 3;
+
+    /**
+     * Send a HTTP request.
+     *
+     * @param method - The HTTP method.
+     * @param uri - The URI of the request.
+     * @param headers - The headers of the request.
+     * @param body - The body of the request or null if none.
+     *
+     * @return A future completed with the reply, whose body is not read yet, or completed exceptionally
+     * if the request could not be sent.
+     */
+    CompletableFuture<HttpReply> send(String method, URI uri, Map<String, String> headers, byte[] body);
+
+    /**
+     * Close the connections of the transport.
+     */
+    @Override
+    void close();
+
+    /**
+     * Creates a transport from the properties of the Internet.nl API config file.
+     * The JDK HTTP client is used by default and Jersey can be chosen as a fallback
+     * with {@code transport=jersey}. The JDK HTTP client negotiates HTTP/2 unless
+     * {@code transport.http_version=1.1} is defined.
+     *
+     * @param props - The properties.
+     * @return The transport.
+     * @throws IllegalArgumentException if a property has an invalid value.
+     */
+    public static HttpTransport fromProperties(Properties props)
+    {
+        String transport = props.getProperty(PROPERTY_TRANSPORT, TRANSPORT_JDK).trim().toLowerCase();
+        String version = props.getProperty(PROPERTY_HTTP_VERSION, "2").trim();
+
+        HttpClient.Version httpVersion;
+        switch (version)
+        {
+            case "2":
+                httpVersion = HttpClient.Version.HTTP_2;
+                break;
+            case "1.1":
+                httpVersion = HttpClient.Version.HTTP_1_1;
+                break;
+            default:
+                throw new IllegalArgumentException("Invalid HTTP version: " + version);
+        }
+
+        switch (transport)
+        {
+            case TRANSPORT_JDK:
+                return new JdkHttpTransport(httpVersion);
+            case TRANSPORT_JERSEY:
+                return new JerseyHttpTransport();
+            default:
+                throw new IllegalArgumentException("Invalid transport: " + transport);
+        }
+    }
+}
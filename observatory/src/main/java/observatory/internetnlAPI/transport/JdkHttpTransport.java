@@ -0,0 +1,97 @@
+package observatory.internetnlAPI.transport;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A transport over the JDK HTTP client.
+ * The client keeps a pool of open connections to each server, negotiates HTTP/2 when the
+ * server supports it (multiplexing the requests over one connection) and streams the bodies
+ * of the replies, so they are parsed while they are received.
+ * <p>
+ * The client only limits the wait for the headers of a reply, so the reads of the body are
+ * limited by a {@link ReadTimeoutInputStream}. The bodies must be read by threads of the caller:
+ * the threads of the client deliver the data of the body and must never block.
+ *
+ * @author Henrique Campos Ferreira
+ */
+public class JdkHttpTransport implements HttpTransport
+{
+    private static final int CLIENT_THREADS = 2;
+
+    private final ExecutorService executor;
+
+    private final ScheduledExecutorService timer;
+
+    private final HttpClient client;
+
+    /**
+     * Creates a transport that negotiates HTTP/2.
+     */
+    public JdkHttpTransport()
+    {
+        this(HttpClient.Version.HTTP_2);
+    }
+
+    /**
+     * @param version - The preferred HTTP version.
+     */
+    public JdkHttpTransport(HttpClient.Version version)
+    {
+        this.executor = Executors.newFixedThreadPool(CLIENT_THREADS,
+            (r) ->
+            {
+                Thread thread = new Thread(r, "internetnl-http");
+                thread.setDaemon(true);
+                return thread;
+            });
+
+        ScheduledThreadPoolExecutor timer = new ScheduledThreadPoolExecutor(1,
+            (r) ->
+            {
+                Thread thread = new Thread(r, "internetnl-http-timeout");
+                thread.setDaemon(true);
+                return thread;
+            });
+        timer.setRemoveOnCancelPolicy(true);
+        this.timer = timer;
+
+        this.client = HttpClient.newBuilder()
+            .version(version)
+            .connectTimeout(Duration.ofSeconds(CONNECT_TIMEOUT))
+            .executor(this.executor)
+            .build();
+    }
+
+    @Override
+    public CompletableFuture<HttpReply> send(String method, URI uri, Map<String, String> headers, byte[] body)
+    {
+        HttpRequest.Builder request = HttpRequest.newBuilder(uri)
+            .timeout(Duration.ofSeconds(READ_TIMEOUT))
+            .method(method, body == null ? HttpRequest.BodyPublishers.noBody()
+                : HttpRequest.BodyPublishers.ofByteArray(body));
+        headers.forEach(request::header);
+
+        return this.client.sendAsync(request.build(), HttpResponse.BodyHandlers.ofInputStream())
+            .thenApply((response) -> new HttpReply(response.statusCode(),
+                response.headers().firstValue("Content-Encoding").orElse(null),
+                new ReadTimeoutInputStream(response.body(), this.timer, TimeUnit.SECONDS.toMillis(READ_TIMEOUT))));
+    }
+
+    @Override
+    public void close()
+    {
+        this.executor.shutdownNow();
+        this.timer.shutdownNow();
+    }
+}
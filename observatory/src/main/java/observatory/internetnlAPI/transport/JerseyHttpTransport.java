@@ -0,0 +1,80 @@
+package observatory.internetnlAPI.transport;
+
+import java.io.InputStream;
+import java.net.URI;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import jakarta.ws.rs.client.Client;
+import jakarta.ws.rs.client.ClientBuilder;
+import jakarta.ws.rs.client.Entity;
+import jakarta.ws.rs.client.Invocation;
+import jakarta.ws.rs.core.MediaType;
+import jakarta.ws.rs.core.Response;
+
+/**
+ * A transport over the Jersey client, the fallback of the JDK HTTP client.
+ * Jersey blocks while a request is sent, so each request runs on a thread of the transport.
+ *
+ * @author Henrique Campos Ferreira
+ */
+public class JerseyHttpTransport implements HttpTransport
+{
+    private final ExecutorService executor;
+
+    private final Client client;
+
+    public JerseyHttpTransport()
+    {
+        this.executor = Executors.newCachedThreadPool(
+            (r) ->
+            {
+                Thread thread = new Thread(r, "internetnl-jersey");
+                thread.setDaemon(true);
+                return thread;
+            });
+
+        this.client = ClientBuilder.newBuilder().connectTimeout(CONNECT_TIMEOUT, TimeUnit.SECONDS)
+            .readTimeout(READ_TIMEOUT, TimeUnit.SECONDS)
+            .build();
+    }
+
+    @Override
+    public CompletableFuture<HttpReply> send(String method, URI uri, Map<String, String> headers, byte[] body)
+    {
+        return CompletableFuture.supplyAsync(() ->
+            {
+                Invocation.Builder request = this.client.target(uri).request();
+                headers.forEach((name, value) ->
+                {
+                    if (!name.equalsIgnoreCase("Content-Type"))
+                        request.header(name, value);
+                });
+
+                String contentType = headers.getOrDefault("Content-Type", MediaType.APPLICATION_OCTET_STREAM);
+                Response response = body == null ? request.method(method)
+                    : request.method(method, Entity.entity(body, contentType));
+
+                if (!response.hasEntity())
+                {
+                    response.close();
+                    return new HttpReply(response.getStatus(), null);
+                }
+
+                // closing the entity stream closes the response.
+                return new HttpReply(response.getStatus(), response.getHeaderString("Content-Encoding"),
+                    response.readEntity(InputStream.class));
+            },
+            this.executor);
+    }
+
+    @Override
+    public void close()
+    {
+        this.client.close();
+        this.executor.shutdownNow();
+    }
+}
@@ -0,0 +1,108 @@
+package observatory.internetnlAPI.transport;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.http.HttpTimeoutException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A body of a reply whose reads fail if they wait for data longer than a timeout.
+ * The JDK HTTP client only limits the wait for the headers of a reply; a read of the body
+ * that times out is stopped by closing the body, which wakes the blocked read, and fails
+ * with a {@link HttpTimeoutException}.
+ *
+ * @author Henrique Campos Ferreira
+ */
+class ReadTimeoutInputStream extends FilterInputStream
+{
+    private final ScheduledExecutorService timer;
+
+    private final long timeoutMillis;
+
+    private boolean reading, timedOut;
+
+    /**
+     * @param input - The body of the reply.
+     * @param timer - Closes the body when a read times out.
+     * @param timeoutMillis - The maximum time (in millis) a read waits for data.
+     */
+    ReadTimeoutInputStream(InputStream input, ScheduledExecutorService timer, long timeoutMillis)
+    {
+        super(input);
+        this.timer = timer;
+        this.timeoutMillis = timeoutMillis;
+    }
+
+    @FunctionalInterface
+    private static interface Read
+    {
+        long read() throws IOException;
+    }
+
+    @Override
+    public int read() throws IOException
+    {
+        return (int) timed(this.in::read);
+    }
+
+    @Override
+    public int read(byte[] b, int off, int len) throws IOException
+    {
+        return (int) timed(() -> this.in.read(b, off, len));
+    }
+
+    @Override
+    public long skip(long n) throws IOException
+    {
+        return timed(() -> this.in.skip(n));
+    }
+
+    private long timed(Read read) throws IOException
+    {
+        synchronized (this) {
+            this.reading = true;
+        }
+        ScheduledFuture<?> timeout = this.timer.schedule(this::expire, this.timeoutMillis, TimeUnit.MILLISECONDS);
+
+        try {
+            return read.read();
+        } catch (IOException e) {
+            if (isTimedOut())
+            {
+                HttpTimeoutException error = new HttpTimeoutException(
+                    String.format("No data of the reply was received in %d ms.", this.timeoutMillis));
+                error.initCause(e);
+                throw error;
+            }
+            throw e;
+        } finally {
+            timeout.cancel(false);
+            synchronized (this) {
+                this.reading = false;
+            }
+        }
+    }
+
+    private synchronized boolean isTimedOut() {
+        return timedOut;
+    }
+
+    private void expire()
+    {
+        synchronized (this)
+        {
+            if (!this.reading)
+                return;
+            this.timedOut = true;
+        }
+
+        try {
+            this.in.close();
+        } catch (IOException e) {
+            // the read fails anyway.
+        }
+    }
+}
@@ -1,12 +1,10 @@
 package observatory.report;
 
 import java.util.Comparator;
-import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Map.Entry;
-import java.util.stream.Collectors;
-import java.util.stream.Stream;
+import java.util.stream.IntStream;
 
 import org.apache.poi.ss.usermodel.Cell;
 import org.apache.poi.ss.usermodel.CellType;
@@ -23,12 +21,10 @@ import org.apache.poi.ss.util.CellRangeAddress;
 
 import observatory.internetnlAPI.config.InternetnlRequest;
 import observatory.internetnlAPI.config.RequestType;
+import observatory.internetnlAPI.config.testResult.ListResultsTable;
 import observatory.internetnlAPI.config.testResult.domain.Category;
 import observatory.internetnlAPI.config.testResult.domain.CustomTest;
-import observatory.internetnlAPI.config.testResult.domain.Report;
 import observatory.internetnlAPI.config.testResult.domain.ResultStatus;
-import observatory.internetnlAPI.config.testResult.domain.Results;
-import observatory.internetnlAPI.config.testResult.domain.Scoring;
 import observatory.internetnlAPI.config.testResult.domain.Test;
 import observatory.tests.ListTest;
 
@@ -110,7 +106,9 @@ public class ListReport
     
     private final Sheet report;
 
-    private final ListTest listResults;
+    private final String name;
+
+    private final ListResultsTable listResults;
 
     private boolean fullReport, orderByIntnl;
 
@@ -121,15 +119,28 @@ public class ListReport
      * @param listResults - The results of the List.
      */
     public ListReport(Sheet reportTemplate, ListTest listResults)
+    {
+        this(reportTemplate, listResults.getName(), ListResultsTable.from(listResults.getResults()));
+    }
+
+    /**
+     * Creates a new instance based on a report template and the results of a list.
+     * 
+     * @param reportTemplate - The template of the List Report.
+     * @param name - The name of the List.
+     * @param listResults - The results of the List.
+     */
+    public ListReport(Sheet reportTemplate, String name, ListResultsTable listResults)
     {
         Objects.requireNonNull(reportTemplate);
+        this.name = Objects.requireNonNull(name);
         this.listResults = Objects.requireNonNull(listResults);
         this.fullReport = false;
         this.orderByIntnl = true;
 
         Workbook workbook = reportTemplate.getWorkbook();
         this.report = workbook.cloneSheet(workbook.getSheetIndex(reportTemplate));
-        workbook.setSheetName(workbook.getSheetIndex(report), listResults.getName());
+        workbook.setSheetName(workbook.getSheetIndex(report), name);
     }
 
     /**
@@ -169,7 +180,7 @@ public class ListReport
      */
     public int getTotalDomains()
     {
-        return this.listResults.getResults().getDomains().size();
+        return this.listResults.size();
     }
 
     /**
@@ -187,25 +198,46 @@ public class ListReport
      */
     private InternetnlRequest getInternetnlRequest()
     {
-        return this.listResults.getResults().getRequest();
+        return this.listResults.getRequest();
     }
 
     /**
-     * Get the results of all the domains. If {@link #orderByIntnl()} is true then
-     * the result list is sorted by the Internet.nl score.
+     * Get the rows of all the domains. If {@link #orderByIntnl()} is true then
+     * the rows are sorted by the Internet.nl score, with the domains not tested last.
      * 
-     * @return A list of results of all the domains.
+     * @return The rows of all the domains, in the order of the report.
      */
-    private List<DomainResults> getDomainsResults()
+    private int[] getDomainsRows()
     {
-        Stream<DomainResults> stream = this.listResults.getResults().getDomains().entrySet().stream()
-            .map((entryDomainResult) ->
-                new DomainResults(entryDomainResult.getKey(), entryDomainResult.getValue()));
+        IntStream rows = IntStream.range(0, this.listResults.size());
 
         if (orderByIntnl())
-            stream = stream.sorted(DomainResults.ORDER_BY_INTNL_DESC);
+            rows = rows.boxed().sorted(orderByIntnlDesc()).mapToInt(Integer::intValue);
+
+        return rows.toArray();
+    }
+
+    /**
+     * @return Comparator of rows that results in a descending comparation of the Internet.nl score.
+     */
+    private Comparator<Integer> orderByIntnlDesc()
+    {
+        return (row1, row2) ->
+            {
+                boolean ok1 = this.listResults.isOk(row1);
+                boolean ok2 = this.listResults.isOk(row2);
+
+                if (!ok1 && !ok2)
+                    return 0;
 
-        return stream.collect(Collectors.toUnmodifiableList());
+                if (!ok1 && ok2)
+                    return 1;
+
+                if (ok1 && !ok2)
+                    return -1;
+
+                return Integer.compare(this.listResults.getScore(row2), this.listResults.getScore(row1));
+            };
     }
 
     /**
@@ -218,33 +250,33 @@ public class ListReport
         int testedDomains = 0;
         int currentDomainRow = ADDRESS_FIRST_DOMAIN.getRow();
 
-        for (DomainResults domainResults : getDomainsResults())
+        for (int domain : getDomainsRows())
         {
             Row row = report.createRow(currentDomainRow++);
             int currentColumn = ADDRESS_FIRST_DOMAIN.getColumn();
 
             // set list name
-            row.createCell(currentColumn++, CellType.STRING).setCellValue(listResults.getName());
+            row.createCell(currentColumn++, CellType.STRING).setCellValue(this.name);
 
             // set domain url
-            row.createCell(currentColumn++, CellType.STRING).setCellValue(domainResults.getDomain());
+            row.createCell(currentColumn++, CellType.STRING).setCellValue(listResults.getDomain(domain));
 
             // check if domain was not tested
-            if (!domainResults.isOk())
+            if (!listResults.isOk(domain))
                 continue;
 
             testedDomains++;
 
             // set score
-            row.createCell(currentColumn++, CellType.NUMERIC).setCellValue(domainResults.getScoring().getPercentage());
+            row.createCell(currentColumn++, CellType.NUMERIC).setCellValue(listResults.getScore(domain));
 
-            setDomainStatistics(domainResults.getResults());
+            setDomainStatistics(domain);
 
             if (this.fullReport)
             {
                 // set report url
-                row.createCell(currentColumn++, CellType.STRING).setCellValue(domainResults.getReport().getUrl());
-                setDomainResults(row, domainResults.getResults());
+                row.createCell(currentColumn++, CellType.STRING).setCellValue(listResults.getReportUrl(domain));
+                setDomainResults(row, domain);
             }
         }
     
@@ -280,51 +312,48 @@ public class ListReport
     //#region Domain Statistics
 
     /**
-     * Set the domain statistics given the results.
-     * @param results
+     * Set the domain statistics given the row of the domain.
+     * @param domain
      */
-    private void setDomainStatistics(Results results)
+    private void setDomainStatistics(int domain)
     {
         for (Category category : Category.values(getType()))
-            setDomainStatistics(results, category);
+            setDomainStatistics(domain, category);
 
-        setCustomFieldStatistics(results);
+        setCustomFieldStatistics(domain);
     }
 
     /**
-     * Set the domain statistics of the specified category given the results.
-     * @param results
+     * Set the domain statistics of the specified category given the row of the domain.
+     * @param domain
      * @param category
      */
-    private void setDomainStatistics(Results results, Category category)
+    private void setDomainStatistics(int domain, Category category)
     {
         CellAddress categoryAddress = ADDRESS_CATEGORY.get(category);
         int currentColumn = categoryAddress.getColumn();
 
-        ResultStatus result = results.getCategoriesEnum().get(category).getStatus();
+        ResultStatus result = listResults.getStatus(domain, category);
         incCell(result, currentColumn++);
 
         for (Test test : Test.values(category))
         {
-            result = results.getTestsEnum().get(test).getStatus();
+            result = listResults.getStatus(domain, test);
             incCell(result, currentColumn++);
         }
     }
 
     /**
-     * Set the custom field statistics given the results.
-     * @param results
+     * Set the custom field statistics given the row of the domain.
+     * @param domain
      */
-    private void setCustomFieldStatistics(Results results)
+    private void setCustomFieldStatistics(int domain)
     {
-        RequestType type = getType();
-
-        for (Entry<CustomTest, Object> test : results.getCustomEnum().entrySet())
+        for (Entry<CustomTest, CellAddress> test : ADDRESS_CUSTOM_FIELD.get(getType()).entrySet())
         {
-            CustomTest customTest = test.getKey();
-            ResultStatus result = customTest.convertToResult(test.getValue());
-
-            incCell(result, ADDRESS_CUSTOM_FIELD.get(type).get(customTest).getColumn());
+            ResultStatus result = listResults.getStatus(domain, test.getKey());
+            if (result != null)
+                incCell(result, test.getValue().getColumn());
         }
     }
 
@@ -396,24 +425,21 @@ public class ListReport
      * Set the specific results of a domain.
      * 
      * @param domainRow
-     * @param results
+     * @param domain - The row of the domain in the results.
      */
-    private void setDomainResults(Row domainRow, Results results)
+    private void setDomainResults(Row domainRow, int domain)
     {
         RequestType type = getType();
         for (Category category : Category.values(type))
-            setDomainResults(domainRow, results, category);
+            setDomainResults(domainRow, domain, category);
 
         // custom fields
 
-        Map<CustomTest, CellAddress> addresses = ADDRESS_CUSTOM_FIELD.get(type);
-
-        for (Entry<CustomTest, Object> test : results.getCustomEnum().entrySet())
+        for (Entry<CustomTest, CellAddress> test : ADDRESS_CUSTOM_FIELD.get(type).entrySet())
         {
-            CustomTest customTest = test.getKey();
-            ResultStatus result = customTest.convertToResult(test.getValue());
-
-            setDomainResult(domainRow, addresses.get(customTest).getColumn(), result);
+            ResultStatus result = listResults.getStatus(domain, test.getKey());
+            if (result != null)
+                setDomainResult(domainRow, test.getValue().getColumn(), result);
         }
     }
 
@@ -421,20 +447,20 @@ public class ListReport
      * Set the specific results of a domain.
      * 
      * @param domainRow
-     * @param results
+     * @param domain - The row of the domain in the results.
      * @param category
      */
-    private void setDomainResults(Row domainRow, Results results, Category category)
+    private void setDomainResults(Row domainRow, int domain, Category category)
     {
         CellAddress categoryAddress = ADDRESS_CATEGORY.get(category);
         int currentColumn = categoryAddress.getColumn();
 
-        ResultStatus result = results.getCategoriesEnum().get(category).getStatus();
+        ResultStatus result = listResults.getStatus(domain, category);
         setDomainResult(domainRow, currentColumn++, result);
 
         for (Test test : Test.values(category))
         {
-            result = results.getTestsEnum().get(test).getStatus();
+            result = listResults.getStatus(domain, test);
             setDomainResult(domainRow, currentColumn++, result);
         }
     }
@@ -488,121 +514,4 @@ public class ListReport
                 })
             .forEach((rule) -> formatting.addConditionalFormatting(regions, rule));
     }
-
-    private static class DomainResults extends observatory.internetnlAPI.config.testResult.domain.DomainResults
-    {
-        /**
-         * Comparator that results in a descending comparation of the Internet.nl score.
-         */
-        public final static Comparator<DomainResults> ORDER_BY_INTNL_DESC =
-            (arg1, arg2) ->
-            {
-                boolean ok1 = arg1.isOk();
-                boolean ok2 = arg2.isOk();
-
-                if (!ok1 && !ok2)
-                    return 0;
-
-                if (!ok1 && ok2)
-                    return 1;
-
-                if (ok1 && !ok2)
-                    return -1;
-
-                return Integer.compare(arg2.getScoring().getPercentage(),
-                    arg1.getScoring().getPercentage());
-            };
-
-        private final String domain;
-        private final observatory.internetnlAPI.config.testResult.domain.DomainResults results;
-        
-        /**
-         * @param domain
-         * @param results
-         */
-        public DomainResults(String domain, observatory.internetnlAPI.config.testResult.domain.DomainResults results) {
-            this.domain = domain;
-            this.results = results;
-        }
-
-        /**
-         * @return the domain name.
-         */
-        public String getDomain() {
-            return domain;
-        }
-
-        @Override
-        public Report getReport() {
-            return results.getReport();
-        }
-
-        @Override
-        public Results getResults() {
-            return results.getResults();
-        }
-
-        @Override
-        public Scoring getScoring() {
-            return results.getScoring();
-        }
-
-        @Override
-        public String getStatus() {
-            return results.getStatus();
-        }
-
-        /**
-         * 
-         * @return true if the test was completed successfully.
-         */
-        public boolean isOk()
-        {
-            return getStatus().equals("ok");
-        }
-
-        @Override
-        public void setReport(Report report) {
-            results.setReport(report);
-        }
-
-        @Override
-        public void setResults(Results results) {
-            this.results.setResults(results);
-        }
-
-        @Override
-        public void setScoring(Scoring scoring) {
-            results.setScoring(scoring);
-        }
-
-        @Override
-        public void setStatus(String status) {
-            results.setStatus(status);
-        }
-
-        @Override
-        public boolean equals(Object obj) {
-            if (obj == null)
-                return false;
-
-            if (!(obj instanceof DomainResults))
-                return false;
-
-            DomainResults other = (DomainResults) obj;
-
-            return getDomain().equals(other.getDomain()) &&
-                results.equals(other.results);
-        }
-
-        @Override
-        public int hashCode() {
-            return getDomain().hashCode() ^ results.hashCode();
-        }
-
-        @Override
-        public String toString() {
-            return String.format("Domain - %s, %s", getDomain(), results.toString());
-        }
-    }
 }
@@ -21,7 +21,8 @@ import org.apache.poi.ss.usermodel.Workbook;
 import org.apache.poi.ss.util.CellAddress;
 
 import observatory.internetnlAPI.config.RequestType;
-import observatory.tests.ListTest;
+import observatory.internetnlAPI.config.testResult.ListResultsTable;
+import observatory.util.PhaseTimer;
 import observatory.util.Util;
 
 /**
@@ -42,7 +43,7 @@ public class Report
 
     private final File templateWorkbookFile;
 
-    private final Set<ListTest> results;
+    private final Set<ListResultsTable> results;
 
     private Set<String> listsFullReport, listsNoOrderByIntnl;
 
@@ -52,10 +53,10 @@ public class Report
      * 
      * @param type - The type of report.
      * @param templateWorkbookFile - The location of the template workbook file.
-     * @param results - A set of list results.
+     * @param results - A set of list results, in columnar form.
      * @throws IOException
      */
-    public Report(RequestType type, File templateWorkbookFile, Set<ListTest> results) throws IOException
+    public Report(RequestType type, File templateWorkbookFile, Set<ListResultsTable> results) throws IOException
     {
         this.type = type;
         this.templateWorkbookFile = Objects.requireNonNull(templateWorkbookFile);
@@ -94,21 +95,25 @@ public class Report
             setReportDate(workbook, listResultsTemplate);
 
             // Generate List Reports.
-            for (ListTest listResults : this.results)
+            long startedAt = PhaseTimer.start();
+            for (ListResultsTable listResults : this.results)
             {
-                ListReport listReport = new ListReport(listResultsTemplate, listResults);
+                ListReport listReport = new ListReport(listResultsTemplate, listResults.getName(), listResults);
                 listReport.setFullReport(listsFullReport.contains(listResults.getName()));
                 listReport.setOrderByIntnl( ! listsNoOrderByIntnl.contains(listResults.getName()) );
                 listReport.generateReport();
             }
+            PhaseTimer.stop(PhaseTimer.REPORT_GENERATE, startedAt);
 
             // Remove list template from the final report.
             workbook.removeSheetAt(workbook.getSheetIndex(listResultsTemplate));
 
             workbook.setForceFormulaRecalculation(true);
 
+            startedAt = PhaseTimer.start();
             try (OutputStream output = new FileOutputStream(report))
                 {workbook.write(output);}
+            PhaseTimer.stop(PhaseTimer.REPORT_WRITE, startedAt);
         }
         catch (IOException | InvalidTemplateException e)
         {
@@ -157,7 +162,7 @@ public class Report
             .collect(Collectors.toSet());
         
         Set<String> toReturn = Set.copyOf(listsToCheck);
-        listsToCheck.removeAll(this.results.stream().map(ListTest::getName).collect(Collectors.toList()));
+        listsToCheck.removeAll(this.results.stream().map(ListResultsTable::getName).collect(Collectors.toList()));
 
         if (!listsToCheck.isEmpty())
             throw new IllegalArgumentException(
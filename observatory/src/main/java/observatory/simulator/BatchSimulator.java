@@ -0,0 +1,402 @@
+package observatory.simulator;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.time.Instant;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Random;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.zip.GZIPOutputStream;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import observatory.internetnlAPI.AsyncInternetnlAPIOverNetwork.SubmitRequestInfo;
+import observatory.internetnlAPI.config.InternetnlRequest;
+import observatory.internetnlAPI.config.RequestType;
+import observatory.internetnlAPI.config.TestInfo;
+import observatory.internetnlAPI.config.testResult.domain.DomainResults;
+import observatory.util.JSONconfig;
+
+/**
+ * A simulator of the Internet.nl batch API, to run scans offline.
+ * <p>
+ * The simulator serves the endpoints used by the clients of the API: submit a test,
+ * get the status of a test and get the results of a test. A test completes after a time
+ * that grows with its number of domains, and its results are synthetic results of every
+ * test, category and custom test, streamed as they are generated. Latency, 400 Bad Request
+ * and 404 Not Found replies can be injected to exercise the resilience of the clients.
+ * <p>
+ * The simulator runs in-process or standalone with the simulate command.
+ *
+ * @author Henrique Campos Ferreira
+ */
+public class BatchSimulator implements AutoCloseable
+{
+    public static final String API_VERSION = "2.0";
+
+    public static final String BASE_PATH = "/api/batch/v2/requests";
+
+    private static final String STATUS_RUNNING = "running";
+    private static final String STATUS_DONE = "done";
+
+    private static final int HTTP_OK = 200;
+    private static final int HTTP_BAD_REQUEST = 400;
+    private static final int HTTP_NOT_FOUND = 404;
+    private static final int HTTP_METHOD_NOT_ALLOWED = 405;
+
+    private final SimulatorSettings settings;
+
+    private final HttpServer server;
+
+    private final ExecutorService executor;
+
+    private final JsonMapper mapper;
+
+    private final ObjectWriter domainWriter;
+
+    private final SyntheticResults results;
+
+    private final Random random;
+
+    private final Map<String, SimulatedTest> tests;
+
+    private final AtomicLong nextId, requests, submittedDomains, injectedErrors, injectedNotFound;
+
+    /**
+     * Creates a simulator listening on the specified port of the loopback address.
+     *
+     * @param port - The port or 0 to choose a free port.
+     * @param settings - The behaviour of the simulator.
+     * @throws IOException If the port could not be bound.
+     */
+    public BatchSimulator(int port, SimulatorSettings settings) throws IOException
+    {
+        this(new InetSocketAddress("localhost", port), settings);
+    }
+
+    /**
+     * Creates a simulator listening on the specified address.
+     *
+     * @param address - The address of the simulator.
+     * @param settings - The behaviour of the simulator.
+     * @throws IOException If the address could not be bound.
+     */
+    public BatchSimulator(InetSocketAddress address, SimulatorSettings settings) throws IOException
+    {
+        this.settings = Objects.requireNonNull(settings);
+        this.mapper = JSONconfig.getJSONmapper();
+        this.domainWriter = this.mapper.writerFor(DomainResults.class)
+            .without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+        this.results = new SyntheticResults(settings.getSeed());
+        this.random = new Random(settings.getSeed());
+        this.tests = new ConcurrentHashMap<>();
+
+        this.nextId = new AtomicLong();
+        this.requests = new AtomicLong();
+        this.submittedDomains = new AtomicLong();
+        this.injectedErrors = new AtomicLong();
+        this.injectedNotFound = new AtomicLong();
+
+        this.executor = Executors.newFixedThreadPool(settings.getThreads(),
+            (r) ->
+            {
+                Thread thread = new Thread(r, "batch-simulator");
+                thread.setDaemon(true);
+                return thread;
+            });
+
+        this.server = HttpServer.create(address, 0);
+        this.server.setExecutor(this.executor);
+        this.server.createContext(BASE_PATH, this::handle);
+    }
+
+    /**
+     * Start serving requests.
+     */
+    public void start()
+    {
+        this.server.start();
+    }
+
+    /**
+     * @return the endpoint of the simulated batch API, to be used in the Internet.nl API config file.
+     */
+    public URI getEndpoint()
+    {
+        InetSocketAddress address = this.server.getAddress();
+        return URI.create(String.format("http://%s:%d%s", address.getHostString(), address.getPort(), BASE_PATH));
+    }
+
+    private void handle(HttpExchange exchange) throws IOException
+    {
+        try (exchange)
+        {
+            this.requests.incrementAndGet();
+            sleep(this.settings.getLatencyMillis());
+
+            if (chance(this.settings.getErrorRate()))
+            {
+                this.injectedErrors.incrementAndGet();
+                sendEmpty(exchange, HTTP_BAD_REQUEST);
+                return;
+            }
+
+            String path = exchange.getRequestURI().getPath().substring(BASE_PATH.length());
+            String[] parts = path.replaceAll("^/+|/+$", "").split("/");
+            String method = exchange.getRequestMethod();
+
+            if (parts[0].isEmpty())
+            {
+                if (method.equals("POST"))
+                    submit(exchange);
+                else
+                    sendEmpty(exchange, HTTP_METHOD_NOT_ALLOWED);
+            }
+            else if (!method.equals("GET"))
+                sendEmpty(exchange, HTTP_METHOD_NOT_ALLOWED);
+            else if (parts.length == 1)
+                status(exchange, parts[0]);
+            else if (parts.length == 2 && parts[1].equals("results"))
+                results(exchange, parts[0]);
+            else
+                sendEmpty(exchange, HTTP_NOT_FOUND);
+        }
+    }
+
+    private void submit(HttpExchange exchange) throws IOException
+    {
+        SubmitRequestInfo info;
+        RequestType type;
+        try {
+            info = this.mapper.readValue(exchange.getRequestBody(), SubmitRequestInfo.class);
+            type = RequestType.parseType(info.getType());
+        } catch (IOException | RuntimeException e) {
+            sendEmpty(exchange, HTTP_BAD_REQUEST);
+            return;
+        }
+
+        String[] domains = info.getDomains();
+        if (domains == null || domains.length == 0 || domains.length > this.settings.getMaxDomains())
+        {
+            sendEmpty(exchange, HTTP_BAD_REQUEST);
+            return;
+        }
+
+        long now = System.currentTimeMillis();
+        SimulatedTest test = new SimulatedTest(String.format("sim-%08d", this.nextId.incrementAndGet()),
+            info.getName(), type, domains, now,
+            now + this.settings.getCompletionMillis() + this.settings.getCompletionMillisPerDomain() * domains.length);
+
+        this.tests.put(test.id, test);
+        this.submittedDomains.addAndGet(domains.length);
+
+        sendJson(exchange, toTestInfo(test));
+    }
+
+    private void status(HttpExchange exchange, String requestId) throws IOException
+    {
+        SimulatedTest test = find(requestId);
+        if (test == null)
+            sendEmpty(exchange, HTTP_NOT_FOUND);
+        else
+            sendJson(exchange, toTestInfo(test));
+    }
+
+    private void results(HttpExchange exchange, String requestId) throws IOException
+    {
+        SimulatedTest test = find(requestId);
+        if (test == null)
+        {
+            sendEmpty(exchange, HTTP_NOT_FOUND);
+            return;
+        }
+
+        if (!test.isDone())
+        {
+            sendEmpty(exchange, HTTP_BAD_REQUEST);
+            return;
+        }
+
+        boolean compress = acceptsGzip(exchange);
+        exchange.getResponseHeaders().set("Content-Type", "application/json");
+        if (compress)
+            exchange.getResponseHeaders().set("Content-Encoding", "gzip");
+        exchange.sendResponseHeaders(HTTP_OK, 0);
+
+        try
+        (
+            OutputStream output = compress ? new GZIPOutputStream(exchange.getResponseBody(), 1 << 16)
+                : exchange.getResponseBody();
+            JsonGenerator generator = this.mapper.createGenerator(output);
+        )
+        {
+            generator.writeStartObject();
+            generator.writeStringField("api_version", API_VERSION);
+            generator.writeFieldName("request");
+            this.mapper.writerFor(InternetnlRequest.class).writeValue(generator, toTestInfo(test).getRequest());
+
+            generator.writeObjectFieldStart("domains");
+            for (String domain : test.domains)
+            {
+                generator.writeFieldName(domain);
+                this.domainWriter.writeValue(generator, this.results.generate(domain, test.type, test.id));
+            }
+            generator.writeEndObject();
+
+            generator.writeEndObject();
+        }
+    }
+
+    /**
+     * Find a test, forgetting it if a not found reply is injected.
+     * @param requestId
+     * @return The test or null if it was not found.
+     */
+    private SimulatedTest find(String requestId)
+    {
+        SimulatedTest test = this.tests.get(requestId);
+        if (test != null && chance(this.settings.getNotFoundRate()))
+        {
+            this.injectedNotFound.incrementAndGet();
+            this.tests.remove(requestId);
+            return null;
+        }
+
+        return test;
+    }
+
+    private static TestInfo toTestInfo(SimulatedTest test)
+    {
+        InternetnlRequest request = new InternetnlRequest();
+        request.setRequest_id(test.id);
+        request.setName(test.name);
+        request.setRequest_type(test.type);
+        request.setSubmit_date(Instant.ofEpochMilli(test.submitted).toString());
+
+        if (test.isDone())
+        {
+            request.setStatus(STATUS_DONE);
+            request.setFinished_date(Instant.ofEpochMilli(test.completesAt).toString());
+        }
+        else
+            request.setStatus(STATUS_RUNNING);
+
+        TestInfo info = new TestInfo();
+        info.setApi_version(API_VERSION);
+        info.setRequest(request);
+        return info;
+    }
+
+    private boolean acceptsGzip(HttpExchange exchange)
+    {
+        String acceptEncoding = exchange.getRequestHeaders().getFirst("Accept-Encoding");
+        return this.settings.isCompression() && acceptEncoding != null
+            && acceptEncoding.toLowerCase().contains("gzip");
+    }
+
+    private void sendJson(HttpExchange exchange, Object value) throws IOException
+    {
+        byte[] body = this.mapper.writeValueAsBytes(value);
+        exchange.getResponseHeaders().set("Content-Type", "application/json");
+        exchange.sendResponseHeaders(HTTP_OK, body.length);
+        exchange.getResponseBody().write(body);
+    }
+
+    private static void sendEmpty(HttpExchange exchange, int status) throws IOException
+    {
+        exchange.sendResponseHeaders(status, -1);
+    }
+
+    private synchronized boolean chance(double probability)
+    {
+        return probability > 0 && this.random.nextDouble() < probability;
+    }
+
+    private static void sleep(long millis)
+    {
+        if (millis <= 0)
+            return;
+
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * @return the number of requests served.
+     */
+    public long getRequests() {
+        return requests.get();
+    }
+
+    /**
+     * @return the number of tests submitted.
+     */
+    public long getSubmittedTests() {
+        return nextId.get();
+    }
+
+    /**
+     * @return the number of domains submitted.
+     */
+    public long getSubmittedDomains() {
+        return submittedDomains.get();
+    }
+
+    @Override
+    public String toString()
+    {
+        return String.format("served %d requests, %d tests with %d domains, injected %d errors and %d not found",
+            getRequests(), getSubmittedTests(), getSubmittedDomains(), this.injectedErrors.get(),
+            this.injectedNotFound.get());
+    }
+
+    @Override
+    public void close()
+    {
+        this.server.stop(0);
+        this.executor.shutdownNow();
+    }
+
+    /**
+     * A test submitted to the simulator.
+     */
+    private static class SimulatedTest
+    {
+        final String id, name;
+
+        final RequestType type;
+
+        final String[] domains;
+
+        final long submitted, completesAt;
+
+        SimulatedTest(String id, String name, RequestType type, String[] domains, long submitted, long completesAt)
+        {
+            this.id = id;
+            this.name = name;
+            this.type = type;
+            this.domains = domains;
+            this.submitted = submitted;
+            this.completesAt = completesAt;
+        }
+
+        boolean isDone()
+        {
+            return System.currentTimeMillis() >= this.completesAt;
+        }
+    }
+}
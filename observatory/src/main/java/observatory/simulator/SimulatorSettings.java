@@ -0,0 +1,203 @@
+package observatory.simulator;
+
+/**
+ * The behaviour of the batch API simulator: the latency of the requests, the time the tests
+ * take to complete, the errors injected in the replies and the maximum size of a test.
+ *
+ * @author Henrique Campos Ferreira
+ */
+public class SimulatorSettings
+{
+    public static final int DEFAULT_THREADS = 16;
+    public static final long DEFAULT_LATENCY_MILLIS = 0;
+    public static final long DEFAULT_COMPLETION_MILLIS = 2000;
+    public static final long DEFAULT_COMPLETION_MILLIS_PER_DOMAIN = 10;
+    public static final double DEFAULT_ERROR_RATE = 0;
+    public static final double DEFAULT_NOT_FOUND_RATE = 0;
+    public static final int DEFAULT_MAX_DOMAINS = 5000;
+    public static final long DEFAULT_SEED = 0;
+
+    private int threads = DEFAULT_THREADS;
+
+    private long latencyMillis = DEFAULT_LATENCY_MILLIS;
+
+    private long completionMillis = DEFAULT_COMPLETION_MILLIS;
+
+    private long completionMillisPerDomain = DEFAULT_COMPLETION_MILLIS_PER_DOMAIN;
+
+    private double errorRate = DEFAULT_ERROR_RATE;
+
+    private double notFoundRate = DEFAULT_NOT_FOUND_RATE;
+
+    private int maxDomains = DEFAULT_MAX_DOMAINS;
+
+    private long seed = DEFAULT_SEED;
+
+    private boolean compression = true;
+
+    /**
+     * Creates the settings with the default values.
+     */
+    public SimulatorSettings() {
+    }
+
+    //#region Getters & Setters
+
+    /**
+     * @return the number of threads that serve the requests.
+     */
+    public int getThreads() {
+        return threads;
+    }
+
+    /**
+     * @param threads the number of threads that serve the requests.
+     */
+    public void setThreads(int threads)
+    {
+        if (threads < 1)
+            throw new IllegalArgumentException("Invalid number of threads.");
+
+        this.threads = threads;
+    }
+
+    /**
+     * @return the time (in millis) to answer each request.
+     */
+    public long getLatencyMillis() {
+        return latencyMillis;
+    }
+
+    /**
+     * @param latencyMillis the time (in millis) to answer each request.
+     */
+    public void setLatencyMillis(long latencyMillis)
+    {
+        if (latencyMillis < 0)
+            throw new IllegalArgumentException("Invalid latency.");
+
+        this.latencyMillis = latencyMillis;
+    }
+
+    /**
+     * @return the fixed time (in millis) a test takes to complete.
+     */
+    public long getCompletionMillis() {
+        return completionMillis;
+    }
+
+    /**
+     * @param completionMillis the fixed time (in millis) a test takes to complete.
+     */
+    public void setCompletionMillis(long completionMillis)
+    {
+        if (completionMillis < 0)
+            throw new IllegalArgumentException("Invalid completion time.");
+
+        this.completionMillis = completionMillis;
+    }
+
+    /**
+     * @return the time (in millis) each domain adds to the completion of a test.
+     */
+    public long getCompletionMillisPerDomain() {
+        return completionMillisPerDomain;
+    }
+
+    /**
+     * @param completionMillisPerDomain the time (in millis) each domain adds to the completion of a test.
+     */
+    public void setCompletionMillisPerDomain(long completionMillisPerDomain)
+    {
+        if (completionMillisPerDomain < 0)
+            throw new IllegalArgumentException("Invalid completion time per domain.");
+
+        this.completionMillisPerDomain = completionMillisPerDomain;
+    }
+
+    /**
+     * @return the fraction of the requests answered with 400 Bad Request.
+     */
+    public double getErrorRate() {
+        return errorRate;
+    }
+
+    /**
+     * @param errorRate the fraction of the requests answered with 400 Bad Request.
+     */
+    public void setErrorRate(double errorRate)
+    {
+        if (errorRate < 0 || errorRate > 1)
+            throw new IllegalArgumentException("Invalid error rate.");
+
+        this.errorRate = errorRate;
+    }
+
+    /**
+     * @return the fraction of the requests about a test that make the simulator forget the test,
+     * answering 404 Not Found.
+     */
+    public double getNotFoundRate() {
+        return notFoundRate;
+    }
+
+    /**
+     * @param notFoundRate the fraction of the requests about a test that make the simulator forget the test,
+     * answering 404 Not Found.
+     */
+    public void setNotFoundRate(double notFoundRate)
+    {
+        if (notFoundRate < 0 || notFoundRate > 1)
+            throw new IllegalArgumentException("Invalid not found rate.");
+
+        this.notFoundRate = notFoundRate;
+    }
+
+    /**
+     * @return the maximum number of domains of a test. Larger tests are rejected.
+     */
+    public int getMaxDomains() {
+        return maxDomains;
+    }
+
+    /**
+     * @param maxDomains the maximum number of domains of a test. Larger tests are rejected.
+     */
+    public void setMaxDomains(int maxDomains)
+    {
+        if (maxDomains < 1)
+            throw new IllegalArgumentException("Invalid maximum number of domains.");
+
+        this.maxDomains = maxDomains;
+    }
+
+    /**
+     * @return the seed of the synthetic results and of the injected errors.
+     */
+    public long getSeed() {
+        return seed;
+    }
+
+    /**
+     * @param seed the seed of the synthetic results and of the injected errors.
+     */
+    public void setSeed(long seed) {
+        this.seed = seed;
+    }
+
+    /**
+     * @return true if the replies are compressed when the client accepts gzip.
+     */
+    public boolean isCompression() {
+        return compression;
+    }
+
+    /**
+     * @param compression true to compress the replies when the client accepts gzip.
+     */
+    public void setCompression(boolean compression) {
+        this.compression = compression;
+    }
+
+    //#endregion
+}
@@ -0,0 +1,163 @@
+package observatory.simulator;
+
+import java.util.EnumMap;
+import java.util.Random;
+
+import observatory.internetnlAPI.config.RequestType;
+import observatory.internetnlAPI.config.testResult.domain.Category;
+import observatory.internetnlAPI.config.testResult.domain.CustomTest;
+import observatory.internetnlAPI.config.testResult.domain.DomainResults;
+import observatory.internetnlAPI.config.testResult.domain.Report;
+import observatory.internetnlAPI.config.testResult.domain.Result;
+import observatory.internetnlAPI.config.testResult.domain.ResultStatus;
+import observatory.internetnlAPI.config.testResult.domain.Results;
+import observatory.internetnlAPI.config.testResult.domain.Scoring;
+import observatory.internetnlAPI.config.testResult.domain.Test;
+
+/**
+ * Generates synthetic results of a domain, with a result for every test, category and
+ * custom test of the type of test. The results of a domain only depend on the domain,
+ * the type of test and the seed, so the same scan always gets the same results.
+ * The results are also used as fixtures of the benchmarks.
+ *
+ * @author Henrique Campos Ferreira
+ */
+public class SyntheticResults
+{
+    /**
+     * The status of a test, from the most to the least frequent.
+     */
+    private static final ResultStatus[] TEST_STATUS = {
+        ResultStatus.STATUS_SUCCESS, ResultStatus.STATUS_FAIL, ResultStatus.STATUS_NOTICE,
+        ResultStatus.STATUS_INFO, ResultStatus.STATUS_NOT_TESTED
+    };
+
+    /**
+     * The cumulative probability of each status of a test.
+     */
+    private static final double[] TEST_STATUS_PROBABILITY = { 0.70, 0.85, 0.92, 0.97, 1 };
+
+    private final long seed;
+
+    /**
+     * @param seed - The seed of the results.
+     */
+    public SyntheticResults(long seed)
+    {
+        this.seed = seed;
+    }
+
+    /**
+     * Generate the results of a domain.
+     * @param domain
+     * @param type - The type of test.
+     * @param requestId - The id of the test.
+     * @return The results of the domain.
+     */
+    public DomainResults generate(String domain, RequestType type, String requestId)
+    {
+        Random random = new Random(this.seed * 31 + domain.hashCode() * 17L + type.ordinal());
+
+        Results results = new Results();
+        EnumMap<Test, Result> tests = results.getTestsEnum();
+        EnumMap<Category, ResultStatus> categoryStatus = new EnumMap<>(Category.class);
+        int passed = 0, total = 0;
+
+        for (Test test : Test.values(type))
+        {
+            ResultStatus status = nextStatus(random);
+            tests.put(test, newResult(status, test.getTest()));
+
+            categoryStatus.merge(test.getCategory(), status, SyntheticResults::worst);
+            total++;
+            if (status == ResultStatus.STATUS_SUCCESS)
+                passed++;
+        }
+
+        EnumMap<Category, Result> categories = results.getCategoriesEnum();
+        for (Category category : Category.values(type))
+        {
+            ResultStatus status = categoryStatus.getOrDefault(category, ResultStatus.STATUS_NOT_TESTED);
+            categories.put(category, newResult(status, category.getCategory()));
+        }
+
+        EnumMap<CustomTest, Object> custom = results.getCustomEnum();
+        for (CustomTest test : CustomTest.values())
+        {
+            Object value = customValue(test, type, random);
+            if (value != null)
+                custom.put(test, value);
+        }
+
+        Scoring scoring = new Scoring();
+        scoring.setPercentage(total == 0 ? 0 : passed * 100 / total);
+
+        Report report = new Report();
+        report.setUrl(String.format("https://internet.nl/%s/%s/%s/", type == RequestType.WEB ? "site" : "mail",
+            domain, requestId));
+
+        DomainResults domainResults = new DomainResults();
+        domainResults.setStatus(DomainResults.STATUS_OK);
+        domainResults.setReport(report);
+        domainResults.setScoring(scoring);
+        domainResults.setResults(results);
+        return domainResults;
+    }
+
+    private static ResultStatus nextStatus(Random random)
+    {
+        double value = random.nextDouble();
+        for (int i = 0; i < TEST_STATUS.length; i++)
+        {
+            if (value < TEST_STATUS_PROBABILITY[i])
+                return TEST_STATUS[i];
+        }
+
+        return TEST_STATUS[TEST_STATUS.length - 1];
+    }
+
+    /**
+     * The status of a category is the worst status of its tests.
+     */
+    private static ResultStatus worst(ResultStatus a, ResultStatus b)
+    {
+        for (ResultStatus status : new ResultStatus[] { ResultStatus.STATUS_FAIL, ResultStatus.STATUS_NOTICE,
+            ResultStatus.STATUS_INFO, ResultStatus.STATUS_SUCCESS })
+        {
+            if (a == status || b == status)
+                return status;
+        }
+
+        return a;
+    }
+
+    private static Result newResult(ResultStatus status, String name)
+    {
+        Result result = new Result();
+        result.setStatus(status);
+        result.setVerdict(String.format("detail %s verdict %s", name.replace('_', ' '), status.getStatus()));
+        return result;
+    }
+
+    /**
+     * Generate the value of a custom test.
+     * @param test
+     * @param type - The type of test.
+     * @param random
+     * @return The value or null if the custom test is not part of the type of test.
+     */
+    private static Object customValue(CustomTest test, RequestType type, Random random)
+    {
+        switch (test)
+        {
+            case TLS_1_3_SUPPORT:
+                return random.nextDouble() < 0.8 ? "yes" : "no";
+            case MAIL_SENDING_DOMAIN:
+                return type == RequestType.MAIL ? random.nextDouble() < 0.1 : null;
+            case MAIL_SERVER_TESTABLE:
+                return type == RequestType.MAIL ? (random.nextDouble() < 0.9 ? "ok" : "no_mx") : null;
+            default:
+                return null;
+        }
+    }
+}
@@ -0,0 +1,217 @@
+package observatory.tests;
+
+import java.util.logging.Logger;
+
+import observatory.util.Interrupts;
+
+/**
+ * Limits the number of batches (tests) running at the same time in the batch server.
+ * <p>
+ * The limit is either fixed or adaptive. An adaptive limit follows an AIMD rule:
+ * it grows by one batch for each limit's worth of batches that complete in a healthy time,
+ * and it is cut in half when a batch fails or its completion time spikes above the
+ * average. The average is scaled up for batches larger than the average batch, but not
+ * down for smaller batches, since a batch has a fixed overhead.
+ * A batch only cuts the limit if it started after the last cut, so a burst of failures
+ * caused by one overload cuts the limit once.
+ *
+ * @author Henrique Campos Ferreira
+ */
+public class BatchLimiter
+{
+    public static final int DEFAULT_INITIAL_LIMIT = 4;
+    public static final int DEFAULT_MAX_LIMIT = 256;
+
+    private static final int MIN_LIMIT = 1;
+
+    private static final double DECREASE_FACTOR = 0.5;
+
+    /**
+     * A completion time above this multiple of the expected time is a spike.
+     */
+    private static final double LATENCY_SPIKE = 2;
+
+    /**
+     * The weight of a new completion time in the average.
+     */
+    private static final double NEW_SAMPLE_WEIGHT = 0.2;
+
+    private final boolean adaptive;
+
+    private final int maxLimit;
+
+    private double limit;
+
+    private int inFlight;
+
+    /**
+     * The average completion time and size of the batches or negative values if unknown.
+     */
+    private double averageMillis, averageDomains;
+
+    private long lastDecrease;
+
+    private Logger logger;
+
+    private BatchLimiter(double limit, int maxLimit, boolean adaptive)
+    {
+        this.limit = limit;
+        this.maxLimit = maxLimit;
+        this.adaptive = adaptive;
+        this.averageMillis = -1;
+        this.averageDomains = -1;
+        this.lastDecrease = Long.MIN_VALUE;
+    }
+
+    /**
+     * Creates a fixed limit.
+     * @param limit - The maximum number of batches in flight.
+     * @return The limiter.
+     */
+    public static BatchLimiter fixed(int limit)
+    {
+        if (limit < MIN_LIMIT)
+            throw new IllegalArgumentException("Invalid batch limit.");
+
+        return new BatchLimiter(limit, limit, false);
+    }
+
+    /**
+     * Creates an adaptive limit.
+     * @param initialLimit - The initial number of batches in flight.
+     * @param maxLimit - The maximum number of batches in flight.
+     * @return The limiter.
+     */
+    public static BatchLimiter adaptive(int initialLimit, int maxLimit)
+    {
+        if (initialLimit < MIN_LIMIT || maxLimit < initialLimit)
+            throw new IllegalArgumentException("Invalid batch limit.");
+
+        return new BatchLimiter(initialLimit, maxLimit, true);
+    }
+
+    /**
+     * @param logger - The logger of the changes of the limit or null to not log them.
+     */
+    public synchronized void setLogger(Logger logger) {
+        this.logger = logger;
+    }
+
+    /**
+     * Wait until a new batch can be submitted.
+     * @return The time the batch started, to be passed when it is released.
+     * @throws java.util.concurrent.CancellationException If the thread was interrupted.
+     */
+    public synchronized long acquire()
+    {
+        while (this.inFlight >= getLimit())
+            Interrupts.waitOn(this);
+
+        return acquireNow();
+    }
+
+    /**
+     * Count a batch that is already running in the server, without waiting.
+     * @return The time the batch started being counted, to be passed when it is released.
+     */
+    public synchronized long acquireNow()
+    {
+        this.inFlight++;
+        return System.currentTimeMillis();
+    }
+
+    /**
+     * Release a batch that completed.
+     * @param startedAt - The time returned when the batch was acquired.
+     * @param elapsedMillis - The completion time of the batch or a negative value if unknown.
+     * @param domains - The number of domains of the batch.
+     */
+    public synchronized void succeeded(long startedAt, long elapsedMillis, int domains)
+    {
+        release();
+
+        if (!this.adaptive || elapsedMillis < 0 || domains == 0)
+            return;
+
+        if (this.averageMillis < 0)
+        {
+            this.averageMillis = elapsedMillis;
+            this.averageDomains = domains;
+        }
+
+        double expectedMillis = this.averageMillis * Math.max(1, domains / this.averageDomains);
+        if (elapsedMillis > expectedMillis * LATENCY_SPIKE)
+            decrease(startedAt, "slow batch");
+        else
+            setLimit(Math.min(this.maxLimit, this.limit + 1 / this.limit), "healthy batch");
+
+        this.averageMillis = NEW_SAMPLE_WEIGHT * elapsedMillis + (1 - NEW_SAMPLE_WEIGHT) * this.averageMillis;
+        this.averageDomains = NEW_SAMPLE_WEIGHT * domains + (1 - NEW_SAMPLE_WEIGHT) * this.averageDomains;
+    }
+
+    /**
+     * Release a batch that failed because of the server.
+     * @param startedAt - The time returned when the batch was acquired.
+     */
+    public synchronized void failed(long startedAt)
+    {
+        release();
+
+        if (this.adaptive)
+            decrease(startedAt, "failed batch");
+    }
+
+    /**
+     * Release a batch without changing the limit.
+     */
+    public synchronized void release()
+    {
+        this.inFlight--;
+        notifyAll();
+    }
+
+    private void decrease(long startedAt, String reason)
+    {
+        if (startedAt < this.lastDecrease)
+            return;
+
+        this.lastDecrease = System.currentTimeMillis();
+        setLimit(Math.max(MIN_LIMIT, this.limit * DECREASE_FACTOR), reason);
+    }
+
+    private void setLimit(double limit, String reason)
+    {
+        int previous = getLimit();
+        this.limit = limit;
+
+        if (previous != getLimit())
+        {
+            if (this.logger != null)
+                this.logger.info(String.format("Batch limit changed from %d to %d (%s).",
+                    previous, getLimit(), reason));
+
+            notifyAll();
+        }
+    }
+
+    /**
+     * @return the current maximum number of batches in flight.
+     */
+    public synchronized int getLimit() {
+        return (int) this.limit;
+    }
+
+    /**
+     * @return the number of batches in flight.
+     */
+    public synchronized int getInFlight() {
+        return inFlight;
+    }
+
+    /**
+     * @return true if the limit is adaptive.
+     */
+    public boolean isAdaptive() {
+        return adaptive;
+    }
+}
@@ -0,0 +1,236 @@
+package observatory.tests;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+
+import observatory.internetnlAPI.InternetnlAPIException;
+import observatory.internetnlAPI.config.InternetnlRequest;
+import observatory.internetnlAPI.config.testResult.TestResult;
+import observatory.internetnlAPI.config.testResult.TestResultCollector;
+import observatory.internetnlAPI.config.testResult.domain.DomainResults;
+import observatory.util.Interrupts;
+
+/**
+ * A plan to test each unique domain of a set of lists only once.
+ * Each domain is owned by the first list (in test order) that contains it. A list
+ * only submits the domains it owns; the results of the domains contained in other lists
+ * are shared with them, so the results of a list are completed with the shared results
+ * of the domains it does not own.
+ *
+ * @author Henrique Campos Ferreira
+ */
+class DomainsPlan
+{
+    /**
+     * Maps each domain to the list that owns it.
+     */
+    private final Map<String, String> owners;
+
+    /**
+     * The domains of each list, in test order.
+     */
+    private final Map<String, String[]> domainsByList;
+
+    /**
+     * The shared results of each domain contained in several lists.
+     */
+    private final Map<String, CompletableFuture<SharedResult>> results;
+
+    private final int totalDomains;
+
+    /**
+     * Creates a new plan.
+     *
+     * @param domainsByList - The domains of each list, in test order.
+     */
+    DomainsPlan(LinkedHashMap<String, String[]> domainsByList)
+    {
+        this.domainsByList = Objects.requireNonNull(domainsByList);
+        this.owners = new HashMap<>();
+        this.results = new HashMap<>();
+
+        int total = 0;
+        for (Map.Entry<String, String[]> list : domainsByList.entrySet())
+        {
+            total += list.getValue().length;
+            for (String domain : list.getValue())
+            {
+                String owner = this.owners.putIfAbsent(domain, list.getKey());
+                if (owner != null && !owner.equals(list.getKey()))
+                    this.results.putIfAbsent(domain, new CompletableFuture<>());
+            }
+        }
+
+        this.totalDomains = total;
+    }
+
+    /**
+     * @return the number of unique domains of all lists.
+     */
+    int getUniqueDomains() {
+        return this.owners.size();
+    }
+
+    /**
+     * @return the number of domains of all lists, including repeated domains.
+     */
+    int getTotalDomains() {
+        return this.totalDomains;
+    }
+
+    /**
+     * Get the domains of a list.
+     * @param list
+     * @return The domains of the list.
+     */
+    String[] getDomains(String list)
+    {
+        return Objects.requireNonNull(this.domainsByList.get(list));
+    }
+
+    /**
+     * Get the domains owned by a list, i.e. the domains the list must test.
+     * @param list
+     * @return The domains owned by the list in the order of the list.
+     */
+    String[] getOwnedDomains(String list)
+    {
+        return Arrays.stream(getDomains(list))
+            .filter((domain) -> list.equals(this.owners.get(domain)))
+            .distinct()
+            .toArray(String[]::new);
+    }
+
+    /**
+     * Share the results of the domains owned by a list that other lists contain.
+     *
+     * @param list - The name of the list.
+     * @param result - The results of the list.
+     * @throws IOException
+     */
+    void complete(String list, TestResultCollector result) throws IOException
+    {
+        for (String domain : getDomains(list))
+        {
+            CompletableFuture<SharedResult> shared = this.results.get(domain);
+            if (shared != null && !shared.isDone() && list.equals(this.owners.get(domain)))
+                shared.complete(new SharedResult(result.getHeader(), result.get(domain)));
+        }
+    }
+
+    /**
+     * Fail the domains owned by a list, so the lists waiting for them do not block.
+     *
+     * @param list - The name of the list.
+     * @param error - The error that occurred while testing the list.
+     */
+    void fail(String list, Throwable error)
+    {
+        for (String domain : getDomains(list))
+        {
+            CompletableFuture<SharedResult> shared = this.results.get(domain);
+            if (shared != null && list.equals(this.owners.get(domain)))
+                shared.completeExceptionally(error);
+        }
+    }
+
+    /**
+     * Build the results of a list by adding the shared results of the domains owned by other lists
+     * to the results of the domains owned by the list. Waits for the domains owned by other lists.
+     *
+     * @param list - The name of the list.
+     * @param ownResult - The results of the domains owned by the list or null if it does not own any.
+     * @return The results of the list in the order of its domains.
+     * @throws InternetnlAPIException if the results of a domain owned by other list could not be obtained.
+     * @throws IOException
+     */
+    TestResultCollector assemble(String list, TestResultCollector ownResult)
+        throws InternetnlAPIException, IOException
+    {
+        String[] domains = getDomains(list);
+        TestResultCollector result = ownResult;
+
+        for (String domain : domains)
+        {
+            if (list.equals(this.owners.get(domain)))
+                continue;
+
+            SharedResult shared = get(domain);
+            if (result == null)
+            {
+                TestResult header = new TestResult();
+                header.setApi_version(shared.header.getApi_version());
+                header.setRequest(copyRequest(shared.header.getRequest(), list));
+
+                result = new TestResultCollector(domains.length);
+                result.finish(header);
+            }
+
+            result.accept(domain, shared.domainResults);
+        }
+
+        result.orderBy(domains);
+        return result;
+    }
+
+    /**
+     * Wait for the shared results of a domain.
+     * @param domain
+     * @return The shared results.
+     * @throws InternetnlAPIException if the results could not be obtained.
+     */
+    private SharedResult get(String domain) throws InternetnlAPIException
+    {
+        try {
+            return Interrupts.await(this.results.get(domain));
+        } catch (ExecutionException e) {
+            throw new InternetnlAPIException(
+                String.format("The results of domain %s could not be obtained from list %s.",
+                    domain, this.owners.get(domain)),
+                e.getCause());
+        }
+    }
+
+    /**
+     * Build the request of a list derived only from the results of other tests.
+     * The request id is left empty, since no request was submitted for the list.
+     * @param request - The request of a test of some of the domains of the list.
+     * @param name - The name of the derived list.
+     * @return The request of the derived list.
+     */
+    static InternetnlRequest copyRequest(InternetnlRequest request, String name)
+    {
+        InternetnlRequest copy = new InternetnlRequest();
+        copy.setName(name);
+        copy.setStatus(request.getStatus());
+        copy.setRequest_type(request.getRequest_type());
+        copy.setSubmit_date(request.getSubmit_date());
+        copy.setFinished_date(request.getFinished_date());
+        return copy;
+    }
+
+    /**
+     * The results of a domain shared by the lists that contain it.
+     */
+    private static class SharedResult
+    {
+        /**
+         * The results, without the domains, of the list that tested the domain.
+         */
+        final TestResult header;
+
+        final DomainResults domainResults;
+
+        SharedResult(TestResult header, DomainResults domainResults)
+        {
+            this.header = header;
+            this.domainResults = domainResults;
+        }
+    }
+}
@@ -2,61 +2,145 @@ package observatory.tests;
 
 import java.io.File;
 import java.io.IOException;
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Set;
+import java.util.function.Predicate;
 
-import com.fasterxml.jackson.databind.json.JsonMapper;
 import com.fasterxml.jackson.databind.type.MapType;
 import com.fasterxml.jackson.databind.type.TypeFactory;
 
+import observatory.internetnlAPI.EndpointRegistry;
 import observatory.util.InvalidFormatException;
-import observatory.util.JSONconfig;
+import observatory.util.JSONserialization;
+import observatory.util.Journal;
 
 /**
- * Represents an index that maps a list name to a test id.
- * 
+ * Represents an index that maps a list name (or a shard of a list) to a test id.
+ * <p>
+ * The index is persisted as an append-only journal: each change appends a record
+ * (list, shard, requestId, state, timestamp and endpoint) to the {@link Journal} and forces it to disk,
+ * so a crash can at most lose the record being written. The index is rebuilt by
+ * replaying the journal and the journal is compacted when it has many stale records.
+ * <p>
+ * The index also records the endpoint (batch server) that owns each test, when the tests
+ * are spread over several servers.
+ * <p>
+ * All operations are synchronized, so the same index can be shared by lists
+ * tested concurrently.
+ *
  * @author Henrique Campos Ferreira
  */
-public class Index implements Map<String, String>
+public class Index implements Map<String, String>, EndpointRegistry
 {
-    public static final String DEFAULT_FILE_NAME = "index.conf";
+    public static final String DEFAULT_FILE_NAME = "index.journal";
 
-    private final Map<String, String> index;   
-    
-    private final File indexFile;
+    /**
+     * The name of the file of the index before it was journaled.
+     */
+    public static final String LEGACY_FILE_NAME = "index.conf";
+
+    /**
+     * The minimum number of stale records before compacting the journal.
+     */
+    private static final int MIN_STALE_RECORDS_TO_COMPACT = 64;
 
-    private final JsonMapper mapper;
+    private final Map<String, String> index;
 
     /**
-     * 
+     * The state of each entry of the index.
+     */
+    private final Map<String, State> states;
+
+    /**
+     * The endpoint that owns each test id.
+     */
+    private final Map<String, String> endpoints;
+
+    private final Journal<Record> journal;
+
+    /**
+     * The number of records in the journal.
+     */
+    private int records;
+
+    /**
+     *
      * @param index
      */
-    private Index(Map<String, String> index, File indexFile, JsonMapper mapper) {
+    private Index(Map<String, String> index, Map<String, State> states, Map<String, String> endpoints,
+        File indexFile, int records)
+    {
         this.index = index;
-        this.indexFile = indexFile;
-        this.mapper = mapper;
+        this.states = states;
+        this.endpoints = endpoints;
+        this.journal = new Journal<>(indexFile, Record.class);
+        this.records = records;
     }
 
     /**
-     * Constructs an index from the contents of the specified file.
+     * Constructs an index by replaying the journal in the specified file.
+     * Records that cannot be parsed are skipped and logged; a partial record written
+     * during a crash is removed from the journal.
+     *
      * @param indexFile
      * @return The index.
      * @throws InvalidFormatException if an error occurred while creating the index.
      */
     public static Index fromFile(File indexFile) throws IOException, InvalidFormatException
+    {
+        Map<String, String> index = new HashMap<>();
+        Map<String, State> states = new HashMap<>();
+        Map<String, String> endpoints = new HashMap<>();
+
+        int records = new Journal<>(Objects.requireNonNull(indexFile), Record.class).replay((record) ->
+            {
+                if (record.getEndpoint() != null && record.getRequestId() != null)
+                    endpoints.put(record.getRequestId(), record.getEndpoint());
+
+                if (record.getState() == State.REMOVED)
+                {
+                    index.remove(record.key());
+                    states.remove(record.key());
+                }
+                else
+                {
+                    index.put(record.key(), record.getRequestId());
+                    states.put(record.key(), record.getState());
+                }
+            });
+
+        return new Index(index, states, endpoints, indexFile, records);
+    }
+
+    /**
+     * Constructs an index from a legacy index file (a JSON map of list to test id)
+     * and writes its contents to a new journal.
+     *
+     * @param legacyFile - The legacy index file.
+     * @param indexFile - The journal file.
+     * @return The index.
+     * @throws IOException
+     * @throws InvalidFormatException if the legacy file has an invalid format.
+     */
+    public static Index fromLegacyFile(File legacyFile, File indexFile) throws IOException, InvalidFormatException
     {
         TypeFactory typeFactory = TypeFactory.defaultInstance();
         MapType type = typeFactory.constructMapType(HashMap.class, String.class, String.class);
 
-        JsonMapper mapper = JSONconfig.getJSONmapper();
-        
         try
         {
-            Map<String, String> index = mapper.readValue(Objects.requireNonNull(indexFile), type);
-            return new Index(index, indexFile, mapper);
+            Map<String, String> index = JSONserialization.reader(type).readValue(Objects.requireNonNull(legacyFile));
+            Map<String, State> states = new HashMap<>();
+            index.keySet().forEach((list) -> states.put(list, State.SUBMITTED));
+
+            Index result = new Index(index, states, new HashMap<>(), indexFile, 0);
+            result.compact();
+            return result;
         } catch (IOException e) {
             throw e;
         } catch (Exception e) {
@@ -66,13 +150,13 @@ public class Index implements Map<String, String>
 
     /**
      * Creates a new empty Index.
-     * 
-     * @param indexFile - The file to save the index contents when saved.
+     *
+     * @param indexFile - The file of the journal of the index.
      * @return A new empty Index.
      */
     public static Index empty(File indexFile)
     {
-        return new Index(new HashMap<>(), indexFile, JSONconfig.getJSONmapper());
+        return new Index(new HashMap<>(), new HashMap<>(), new HashMap<>(), indexFile, 0);
     }
 
     /**
@@ -80,106 +164,378 @@ public class Index implements Map<String, String>
      * @param list - The name of the list.
      * @return true if it exists or false otherwise.
      */
-    public boolean hasList(String list)
+    public synchronized boolean hasList(String list)
     {
         return this.index.containsKey(list);
     }
 
     /**
-     * Associates the specified list to the test id.
+     * Associates the specified list to the test id of a submitted test.
      * @param list - The name of the list.
      * @param testId - The test id.
      * @return The previous test id associated with this list or null
      * if none.
+     * @throws IOException if the change could not be written to the journal.
+     */
+    public synchronized String assocList(String list, String testId) throws IOException
+    {
+        return assocList(list, testId, State.SUBMITTED);
+    }
+
+    /**
+     * Associates the specified list to the test id of its saved results.
+     * @param list - The name of the list.
+     * @param testId - The test id.
+     * @return The previous test id associated with this list or null
+     * if none.
+     * @throws IOException if the change could not be written to the journal.
+     */
+    public synchronized String assocSavedList(String list, String testId) throws IOException
+    {
+        return assocList(list, testId, State.SAVED);
+    }
+
+    private String assocList(String list, String testId, State state) throws IOException
+    {
+        Objects.requireNonNull(testId);
+
+        String previous = this.index.get(list);
+        if (testId.equals(previous) && state == this.states.get(list))
+            return previous;
+
+        append(new Record(list, testId, state, this.endpoints.get(testId)));
+        this.index.put(list, testId);
+        this.states.put(list, state);
+        return previous;
+    }
+
+    @Override
+    public synchronized String getEndpoint(String requestId)
+    {
+        return this.endpoints.get(requestId);
+    }
+
+    /**
+     * Associates the specified list to the test id of a submitted test and the
+     * endpoint that owns the test.
+     * @param list - The name of the list.
+     * @param requestId - The test id.
+     * @param endpoint - The endpoint.
+     * @throws IOException if the change could not be written to the journal.
+     */
+    @Override
+    public synchronized void assocEndpoint(String list, String requestId, String endpoint) throws IOException
+    {
+        Objects.requireNonNull(requestId);
+        Objects.requireNonNull(endpoint);
+
+        append(new Record(list, requestId, State.SUBMITTED, endpoint));
+        this.index.put(list, requestId);
+        this.states.put(list, State.SUBMITTED);
+        this.endpoints.put(requestId, endpoint);
+    }
+
+    /**
+     * Removes the specified list from the Index.
+     * @param list - The name of the list.
+     * @return The test id associated with this list or null if none.
+     * @throws IOException if the change could not be written to the journal.
      */
-    public String assocList(String list, String testId)
+    public synchronized String removeList(String list) throws IOException
     {
-        return this.index.put(list, testId);
+        if (!this.index.containsKey(list))
+            return null;
+
+        append(new Record(list, null, State.REMOVED, null));
+        this.states.remove(list);
+        return this.index.remove(list);
     }
 
     /**
-     * Save the index.
+     * Removes the lists that match the specified predicate from the Index.
+     * @param filter - Selects the names of the lists to remove.
+     * @throws IOException if the change could not be written to the journal.
+     */
+    public synchronized void removeLists(Predicate<String> filter) throws IOException
+    {
+        for (String list : Set.copyOf(this.index.keySet()))
+            if (filter.test(list))
+                removeList(list);
+    }
+
+    /**
+     * Save the index. All changes are already in the journal, so this operation
+     * only compacts the journal if it has many stale records.
      * @throws IOException
      */
-    public void save() throws IOException
+    public synchronized void save() throws IOException
     {
-        try
-        {
-            mapper.writeValue(this.indexFile, this.index);
-        } catch (IOException e) {
-            throw e;
-        }
+        int staleRecords = this.records - this.index.size();
+        if (staleRecords >= MIN_STALE_RECORDS_TO_COMPACT && staleRecords > this.index.size())
+            compact();
+    }
+
+    /**
+     * Rewrite the journal with one record per entry. The new journal is written to
+     * a temporary file that replaces the journal atomically.
+     * @throws IOException
+     */
+    private void compact() throws IOException
+    {
+        List<Record> records = new ArrayList<>(this.index.size());
+        for (Entry<String, String> entry : this.index.entrySet())
+            records.add(new Record(entry.getKey(), entry.getValue(), this.states.get(entry.getKey()),
+                this.endpoints.get(entry.getValue())));
+
+        this.journal.rewrite(records);
+        this.records = this.index.size();
+    }
+
+    /**
+     * Append a record to the journal and force it to disk.
+     * @param record
+     * @throws IOException
+     */
+    private void append(Record record) throws IOException
+    {
+        this.journal.append(record);
+        this.records++;
     }
 
 
     @Override
-    public int size() {
+    public synchronized int size() {
         return this.index.size();
     }
 
 
     @Override
-    public boolean isEmpty() {
+    public synchronized boolean isEmpty() {
         return this.index.isEmpty();
     }
 
 
     @Override
-    public boolean containsKey(Object key) {
+    public synchronized boolean containsKey(Object key) {
         return this.index.containsKey(key);
     }
 
 
     @Override
-    public boolean containsValue(Object value) {
+    public synchronized boolean containsValue(Object value) {
         return this.index.containsValue(value);
     }
 
 
     @Override
-    public String get(Object key) {
+    public synchronized String get(Object key) {
         return this.index.get(key);
     }
 
 
     @Override
-    public String put(String key, String value) {
-        return this.index.put(key, value);
+    public synchronized String put(String key, String value) {
+        try {
+            return assocList(key, value);
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
     }
 
 
     @Override
-    public String remove(Object key) {
-        return this.index.remove(key);
+    public synchronized String remove(Object key) {
+        try {
+            return key instanceof String ? removeList((String) key) : null;
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
     }
 
 
     @Override
-    public void putAll(Map<? extends String, ? extends String> m) {
-        this.index.putAll(m);
+    public synchronized void putAll(Map<? extends String, ? extends String> m) {
+        m.forEach(this::put);
     }
 
 
     @Override
-    public void clear() {
-        this.index.clear();
+    public synchronized void clear() {
+        Set.copyOf(this.index.keySet()).forEach(this::remove);
     }
 
 
+    /**
+     * @return A copy of the lists of the index, so it can be iterated while the index changes.
+     */
     @Override
-    public Set<String> keySet() {
-        return this.index.keySet();
+    public synchronized Set<String> keySet() {
+        return Set.copyOf(this.index.keySet());
     }
 
 
+    /**
+     * @return A copy of the test ids of the index, so it can be iterated while the index changes.
+     */
     @Override
-    public Collection<String> values() {
-        return this.index.values();
+    public synchronized Collection<String> values() {
+        return List.copyOf(this.index.values());
     }
 
 
+    /**
+     * @return A copy of the entries of the index, so it can be iterated while the index changes.
+     */
     @Override
-    public Set<Entry<String, String>> entrySet() {
-        return this.index.entrySet();
-    }    
+    public synchronized Set<Entry<String, String>> entrySet() {
+        return Map.copyOf(this.index).entrySet();
+    }
+
+    /**
+     * The state of a test in the journal.
+     */
+    public static enum State
+    {
+        /**
+         * The test was submitted.
+         */
+        SUBMITTED,
+
+        /**
+         * The results of the test were saved.
+         */
+        SAVED,
+
+        /**
+         * The entry was removed from the index.
+         */
+        REMOVED
+    }
+
+    /**
+     * A record of the journal of the index.
+     */
+    public static class Record
+    {
+        private String list, shard, requestId, endpoint;
+
+        private State state;
+
+        private long timestamp;
+
+        /**
+         *
+         */
+        public Record() {
+        }
+
+        /**
+         * @param key - The name of the list or of a shard of the list.
+         * @param requestId
+         * @param state
+         * @param endpoint - The endpoint that owns the test or null if unknown.
+         */
+        Record(String key, String requestId, State state, String endpoint)
+        {
+            int separator = key.indexOf(TestDomains.SHARD_SEPARATOR);
+            this.list = separator < 0 ? key : key.substring(0, separator);
+            this.shard = separator < 0 ? null : key.substring(separator + TestDomains.SHARD_SEPARATOR.length());
+            this.requestId = requestId;
+            this.state = state;
+            this.endpoint = endpoint;
+            this.timestamp = System.currentTimeMillis();
+        }
+
+        /**
+         * @return The key of the record in the index.
+         */
+        String key()
+        {
+            return this.shard == null ? this.list : this.list + TestDomains.SHARD_SEPARATOR + this.shard;
+        }
+
+        /**
+         * @return the list
+         */
+        public String getList() {
+            return list;
+        }
+
+        /**
+         * @param list the list to set
+         */
+        public void setList(String list) {
+            this.list = list;
+        }
+
+        /**
+         * @return the shard of the list or null if the record is about the whole list.
+         */
+        public String getShard() {
+            return shard;
+        }
+
+        /**
+         * @param shard the shard to set
+         */
+        public void setShard(String shard) {
+            this.shard = shard;
+        }
+
+        /**
+         * @return the requestId
+         */
+        public String getRequestId() {
+            return requestId;
+        }
+
+        /**
+         * @param requestId the requestId to set
+         */
+        public void setRequestId(String requestId) {
+            this.requestId = requestId;
+        }
+
+        /**
+         * @return the state
+         */
+        public State getState() {
+            return state;
+        }
+
+        /**
+         * @param state the state to set
+         */
+        public void setState(State state) {
+            this.state = state;
+        }
+
+        /**
+         * @return the endpoint that owns the test or null if unknown.
+         */
+        public String getEndpoint() {
+            return endpoint;
+        }
+
+        /**
+         * @param endpoint the endpoint to set
+         */
+        public void setEndpoint(String endpoint) {
+            this.endpoint = endpoint;
+        }
+
+        /**
+         * @return the timestamp
+         */
+        public long getTimestamp() {
+            return timestamp;
+        }
+
+        /**
+         * @param timestamp the timestamp to set
+         */
+        public void setTimestamp(long timestamp) {
+            this.timestamp = timestamp;
+        }
+    }
 }
@@ -2,23 +2,57 @@ package observatory.tests;
 
 import java.io.File;
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Objects;
+import java.util.SortedSet;
+import java.util.TreeSet;
 
+import observatory.internetnlAPI.config.testResult.BinaryResultsFormat;
+import observatory.internetnlAPI.config.testResult.ListResultsTable;
 import observatory.internetnlAPI.config.testResult.TestResult;
+import observatory.internetnlAPI.config.testResult.TestResultCollector;
+import observatory.util.Compression;
 import observatory.util.InvalidFormatException;
 
 /**
  * Represents a collection of results.
- * 
+ * The results of each list are saved as {@code <LIST>.json}, {@code <LIST>.bin}
+ * (see {@link BinaryResultsFormat}) or both, and can be read from either file.
+ * The files may be compressed ({@code <LIST>.json.gz}, {@code <LIST>.bin.gz}):
+ * they are compressed while saved and decompressed while read, and are recognized by their magic bytes.
+ *
  * @author Henrique Campos Ferreira
  */
 public class ListTestCollection
 {
+    private static final String JSON_FILE_EXTENSION = ".json";
+
+    /**
+     * The formats of the saved results.
+     */
+    public enum Format
+    {
+        JSON, BINARY, BOTH;
+
+        boolean writesJson() {
+            return this != BINARY;
+        }
+
+        boolean writesBinary() {
+            return this != JSON;
+        }
+    }
+
     public final File resultsFolder;
 
+    private Format format;
+
+    private Compression compression;
+
     /**
      * Initializes a new collection of results from the specified directory.
-     * 
+     *
      * @param resultsFolder - The directory with the results.
      */
     public ListTestCollection(File resultsFolder) throws IOException
@@ -27,17 +61,87 @@ public class ListTestCollection
         this.resultsFolder.mkdirs();
         if (!resultsFolder.isDirectory())
             throw new IOException("Invalid results location.");
+
+        this.format = Format.JSON;
+        this.compression = Compression.NONE;
+    }
+
+    /**
+     * @return the format of the saved results.
+     */
+    public Format getFormat() {
+        return format;
+    }
+
+    /**
+     * @param format the format of the saved results.
+     */
+    public void setFormat(Format format) {
+        this.format = Objects.requireNonNull(format);
     }
 
     /**
-     * Save the results of list.
-     * 
+     * @return the compression of the saved results.
+     */
+    public Compression getCompression() {
+        return compression;
+    }
+
+    /**
+     * @param compression the compression of the saved results.
+     */
+    public void setCompression(Compression compression) {
+        this.compression = Objects.requireNonNull(compression);
+    }
+
+    /**
+     * Save the results of list. The files of the list in a format or compression not used are removed,
+     * so they can not be read instead of the new results.
+     *
      * @param list
      * @throws IOException
      */
     public void saveListResults(ListTest list) throws IOException
     {
-        list.getResults().save(getListResultsFile(list.getName()));
+        String name = list.getName();
+        File json = getJsonFile(name, this.compression), binary = getBinaryFile(name, this.compression);
+
+        if (this.format.writesJson())
+            list.getResults().save(json, this.compression);
+
+        if (this.format.writesBinary())
+            BinaryResultsFormat.write(list.getResults(), binary, this.compression);
+
+        removeUnusedFiles(name, json, binary);
+    }
+
+    /**
+     * Save the results of list kept in their compact form, without rebuilding the results of all domains at once.
+     * The files of the list in a format or compression not used are removed,
+     * so they can not be read instead of the new results.
+     *
+     * @param name - The name of the list.
+     * @param results - The results of the list.
+     * @throws IOException
+     */
+    public void saveListResults(String name, TestResultCollector results) throws IOException
+    {
+        File json = getJsonFile(name, this.compression), binary = getBinaryFile(name, this.compression);
+
+        if (this.format.writesJson())
+            results.save(json, this.compression);
+
+        if (this.format.writesBinary())
+            results.saveBinary(binary, this.compression);
+
+        removeUnusedFiles(name, json, binary);
+    }
+
+    private void removeUnusedFiles(String name, File json, File binary)
+    {
+        for (File file : getCandidateFiles(name))
+            if (!(this.format.writesJson() && file.equals(json)) && !(this.format.writesBinary() && file.equals(binary)))
+                file.delete();
     }
 
     /**
@@ -49,7 +153,20 @@ public class ListTestCollection
      */
     public ListTest getListResults(String listName) throws IOException, InvalidFormatException
     {
-        return ListTest.from(TestResult.fromFile(getListResultsFile(listName)));
+        return ListTest.from(readResults(getListResultsFile(listName)));
+    }
+
+    /**
+     * Get the results of the specified list in columnar form.
+     * The binary format is read from a memory mapped file, without parsing JSON.
+     * @param listName
+     * @return The table of the results of the list.
+     * @throws IOException
+     * @throws InvalidFormatException
+     */
+    public ListResultsTable getListResultsTable(String listName) throws IOException, InvalidFormatException
+    {
+        return ListResultsTable.fromFile(getListResultsFile(listName));
     }
 
     /**
@@ -59,17 +176,82 @@ public class ListTestCollection
      */
     public boolean isListResultsAvailable(String listName)
     {
-        return getListResultsFile(listName).isFile();
+        return getCandidateFiles(listName).stream().anyMatch(File::isFile);
     }
 
 
     /**
-     * Get the file associated with the specified list.
+     * @return The names of the lists whose results are in the collection, sorted by name.
+     */
+    public SortedSet<String> getListNames()
+    {
+        SortedSet<String> names = new TreeSet<>();
+        String[] files = this.resultsFolder.list();
+        if (files == null)
+            return names;
+
+        for (String file : files)
+            for (Compression compression : Compression.values())
+                for (String extension : List.of(JSON_FILE_EXTENSION, BinaryResultsFormat.FILE_EXTENSION))
+                {
+                    String suffix = extension + compression.getExtension();
+                    if (file.endsWith(suffix) && file.length() > suffix.length())
+                        names.add(file.substring(0, file.length() - suffix.length()));
+                }
+
+        return names;
+    }
+
+    /**
+     * Get the file with the results of the specified list, preferring the file
+     * in the format and compression of the saved results.
      * @param list
      * @return The file associated with the specified list.
      */
-    private File getListResultsFile(String list)
+    public File getListResultsFile(String list)
+    {
+        List<File> candidates = getCandidateFiles(list);
+        return candidates.stream().filter(File::isFile).findFirst().orElse(candidates.get(0));
+    }
+
+    private static TestResult readResults(File file) throws IOException, InvalidFormatException
+    {
+        return BinaryResultsFormat.isBinary(file) ? BinaryResultsFormat.read(file) : TestResult.fromFile(file);
+    }
+
+    /**
+     * @param list
+     * @return The files that may have the results of the list, in order of preference.
+     */
+    private List<File> getCandidateFiles(String list)
+    {
+        List<Compression> compressions = new ArrayList<>(List.of(Compression.values()));
+        compressions.remove(this.compression);
+        compressions.add(0, this.compression);
+
+        List<File> files = new ArrayList<>();
+        for (Compression candidate : compressions)
+            if (this.format.writesBinary())
+            {
+                files.add(getBinaryFile(list, candidate));
+                files.add(getJsonFile(list, candidate));
+            }
+            else
+            {
+                files.add(getJsonFile(list, candidate));
+                files.add(getBinaryFile(list, candidate));
+            }
+
+        return files;
+    }
+
+    private File getJsonFile(String list, Compression compression)
+    {
+        return new File(this.resultsFolder, list + JSON_FILE_EXTENSION + compression.getExtension());
+    }
+
+    private File getBinaryFile(String list, Compression compression)
     {
-        return new File(this.resultsFolder, list + ".json");
+        return new File(this.resultsFolder, list + BinaryResultsFormat.FILE_EXTENSION + compression.getExtension());
     }
 }
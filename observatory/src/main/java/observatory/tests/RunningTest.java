@@ -1,11 +1,14 @@
 package observatory.tests;
 
 import java.util.Objects;
+import java.util.concurrent.ExecutionException;
 
-import observatory.internetnlAPI.InternetnlAPI;
 import observatory.internetnlAPI.InternetnlAPIException;
 import observatory.internetnlAPI.config.TestInfo;
-import observatory.internetnlAPI.config.testResult.TestResult;
+import observatory.internetnlAPI.config.testResult.TestResultCollector;
+import observatory.tests.polling.PolledTest;
+import observatory.tests.polling.StatusPoller;
+import observatory.util.Interrupts;
 
 /**
  * A class to get information about a running Test and collect the results.
@@ -14,31 +17,38 @@ import observatory.internetnlAPI.config.testResult.TestResult;
  */
 public class RunningTest
 {
-    /**
-     * The timeout to wait for test result.
-     */
-    private static final long TIMEOUT_MILLIS = 30 * 1000;
+    private final StatusPoller poller;
 
+    private final String testId, list;
 
-    private final InternetnlAPI api;
+    private final int domains;
 
-    private final String testId;
+    private final boolean newlySubmitted;
 
-    private TestResult result;
+    private PolledTest polledTest;
+
+    private TestResultCollector result;
 
     /**
-     * Create a new RunningTest with the specified testId and API.
+     * Create a new RunningTest with the specified testId.
      * 
      * @param testId
-     * @param api
+     * @param list - The name of the tested list.
+     * @param domains - The number of tested domains.
+     * @param newlySubmitted - true if the test was just submitted.
+     * @param poller - The poller that watches the status of the test.
      */
-    public RunningTest(String testId, InternetnlAPI api)
+    public RunningTest(String testId, String list, int domains, boolean newlySubmitted, StatusPoller poller)
     {
         Objects.requireNonNull(testId);
-        Objects.requireNonNull(api);
+        Objects.requireNonNull(list);
+        Objects.requireNonNull(poller);
 
         this.testId = testId;
-        this.api = api;
+        this.list = list;
+        this.domains = domains;
+        this.newlySubmitted = newlySubmitted;
+        this.poller = poller;
     }
 
     /**
@@ -48,7 +58,7 @@ public class RunningTest
      */
     public TestInfo getStatus() throws InternetnlAPIException
     {
-        return this.api.status(this.testId);
+        return this.poller.getApi().status(this.testId);
     }
     
     /**
@@ -61,37 +71,69 @@ public class RunningTest
         return getStatus().getRequest().getFinished_date() != null;
     }
 
+    /**
+     * Start watching the status of this test, without waiting for it to finish.
+     * @return The watched test.
+     */
+    public synchronized PolledTest watch()
+    {
+        if (this.polledTest == null)
+            this.polledTest = this.poller.watch(this.testId, this.list, this.domains, this.newlySubmitted);
+
+        return this.polledTest;
+    }
+
     /**
      * Waits for this running test to finish.
-     * @return The result of the test.
+     * @return The results of the test, in their compact form.
      * @throws InternetnlAPIException
      */
-    public TestResult waitFor() throws InternetnlAPIException
+    public TestResultCollector waitFor() throws InternetnlAPIException
     {
         if (this.result != null)
             return this.result;
 
-        while (!finished())
-        {
-            sleep(TIMEOUT_MILLIS);
+        try {
+            this.result = Interrupts.await(watch().getFuture());
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof InternetnlAPIException)
+                throw (InternetnlAPIException) e.getCause();
+
+            throw new InternetnlAPIException(e.getCause());
         }
 
-        sleep(5 * 1000);
-        this.result = this.api.get(this.testId);
         return this.result;
     }
 
     /**
-     * @return the testId
+     * Get the number of polls performed while waiting for this test.
+     * @return The number of polls.
      */
-    public String getTestId() {
-        return testId;
+    public int getPolls()
+    {
+        return this.polledTest == null ? 0 : this.polledTest.getPolls();
     }
 
-    private void sleep(long time)
+    /**
+     * Get the number of polls that reported this test had not finished yet.
+     * @return The number of wasted polls.
+     */
+    public int getWastedPolls()
     {
-        try {
-            Thread.sleep(time);
-        } catch (Exception e) {}
+        return this.polledTest == null ? 0 : this.polledTest.getWastedPolls();
+    }
+
+    /**
+     * @return true if the test was just submitted, false if it was resumed.
+     */
+    public boolean isNewlySubmitted() {
+        return newlySubmitted;
+    }
+
+    /**
+     * @return the testId
+     */
+    public String getTestId() {
+        return testId;
     }
 }
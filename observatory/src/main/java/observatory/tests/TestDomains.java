@@ -5,11 +5,24 @@ import java.io.File;
 import java.io.FileInputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
 import java.util.LinkedHashMap;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
 import java.util.Objects;
 import java.util.Set;
 import java.util.SortedSet;
 import java.util.TreeSet;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.function.Consumer;
 import java.util.logging.Logger;
 import java.util.stream.Collectors;
@@ -23,8 +36,18 @@ import observatory.internetnlAPI.TestIdNotFoundException;
 import observatory.internetnlAPI.config.RequestType;
 import observatory.internetnlAPI.config.TestInfo;
 import observatory.internetnlAPI.config.testResult.TestResult;
+import observatory.internetnlAPI.config.testResult.TestResultCollector;
 import observatory.internetnlAPI.config.testResult.domain.DomainResults;
+import observatory.tests.cache.CachedDomainResults;
+import observatory.tests.cache.DomainResultsCache;
+import observatory.tests.polling.FixedPollPolicy;
+import observatory.tests.polling.PollPolicy;
+import observatory.tests.polling.PolledTest;
+import observatory.tests.polling.StatusPoller;
+import observatory.util.Compression;
+import observatory.util.Interrupts;
 import observatory.util.InvalidFormatException;
+import observatory.util.PhaseTimer;
 import observatory.util.Logging;
 import observatory.util.Util;
 
@@ -37,6 +60,16 @@ public class TestDomains implements Closeable
 {
     public static final String DEFAULT_DOMAINS_WORKBOOK_FILE_NAME = "domains.xlsx";
 
+    /**
+     * Separates the name of a list from the number of a shard.
+     */
+    public static final String SHARD_SEPARATOR = "#";
+
+    /**
+     * The suffix of the name of a test that retries the failed domains of a list.
+     */
+    public static final String RETRY_SUFFIX = SHARD_SEPARATOR + "retry";
+
     private final RequestType type;
 
     private final InternetnlAPI api;
@@ -52,8 +85,24 @@ public class TestDomains implements Closeable
 
     private Logger logger;
 
+    private StatusPoller poller;
+
+    private PollPolicy pollPolicy;
+
+    private int parallelism, shardSize;
+
+    private boolean deduplicate, retryFailed;
+
+    private DomainsPlan plan;
+
+    private DomainResultsCache cache;
+
+    private BatchLimiter batchLimiter;
+
+    private final Object listenersLock;
+
     private Consumer<TestInfo> listSubmittedListener;
-    private Consumer<ListTest> listFetchedResultsListener;
+    private Consumer<TestInfo> listFetchedResultsListener;
 
     /**
      * Creates a new TestDomains instance.
@@ -74,9 +123,14 @@ public class TestDomains implements Closeable
         this.api = Objects.requireNonNull(api);
         this.index = Objects.requireNonNull(index);
         this.listTestCollection = new ListTestCollection(resultsFolder);
+        this.parallelism = 1;
+        this.pollPolicy = new FixedPollPolicy();
+        this.listenersLock = new Object();
 
+        long startedAt = PhaseTimer.start();
         this.domainsInputStream = new FileInputStream(domainsWorkbookFile);
         this.domains = Util.openWorkbook(this.domainsInputStream);
+        PhaseTimer.stop(PhaseTimer.WORKBOOK_PARSE, startedAt);
 
         if (this.domains.getNumberOfSheets() == 0)
             throw new InvalidFormatException("There is no domains to test.");
@@ -108,9 +162,14 @@ public class TestDomains implements Closeable
         this.api = Objects.requireNonNull(api);
         this.index = Objects.requireNonNull(index);
         this.listTestCollection = new ListTestCollection(resultsFolder);
+        this.parallelism = 1;
+        this.pollPolicy = new FixedPollPolicy();
+        this.listenersLock = new Object();
 
+        long startedAt = PhaseTimer.start();
         this.domainsInputStream = new FileInputStream(domainsWorkbookFile);
         this.domains = Util.openWorkbook(this.domainsInputStream);
+        PhaseTimer.stop(PhaseTimer.WORKBOOK_PARSE, startedAt);
 
         if (this.domains.getNumberOfSheets() == 0)
             throw new InvalidFormatException("There is no domains to test.");
@@ -118,6 +177,184 @@ public class TestDomains implements Closeable
         this.listsToTest = checkListsToTest(Objects.requireNonNull(listsToTest), this.domains);
     }
 
+    /**
+     * Get the maximum number of lists tested concurrently.
+     * @return The maximum number of lists tested concurrently.
+     */
+    public int getParallelism()
+    {
+        return parallelism;
+    }
+
+    /**
+     * Set the maximum number of lists tested concurrently (1 by default).
+     * Each list is submitted, waited for and saved in its own thread.
+     * 
+     * @param parallelism - The maximum number of lists tested concurrently.
+     */
+    public void setParallelism(int parallelism)
+    {
+        if (parallelism < 1)
+            throw new IllegalArgumentException("The parallelism must be a positive number.");
+
+        this.parallelism = parallelism;
+    }
+
+    /**
+     * Get the maximum number of domains submitted in a single test.
+     * @return The maximum number of domains of a shard or 0 if the lists are not split.
+     */
+    public int getShardSize()
+    {
+        return shardSize;
+    }
+
+    /**
+     * Set the maximum number of domains submitted in a single test (0 by default).
+     * Larger lists are split in shards that are tested concurrently and the results
+     * are merged in the original order of the domains.
+     * 
+     * @param shardSize - The maximum number of domains of a shard or 0 to not split lists.
+     */
+    public void setShardSize(int shardSize)
+    {
+        if (shardSize < 0)
+            throw new IllegalArgumentException("The shard size must not be negative.");
+
+        this.shardSize = shardSize;
+    }
+
+    /**
+     * @return true if each domain repeated in several lists is tested only once.
+     */
+    public boolean isDeduplicate()
+    {
+        return deduplicate;
+    }
+
+    /**
+     * Set if each domain repeated in several lists is tested only once (false by default).
+     * If true, each domain is submitted only by the first list that contains it and its
+     * results are shared by all lists that contain it.
+     * 
+     * @param deduplicate
+     */
+    public void setDeduplicate(boolean deduplicate)
+    {
+        this.deduplicate = deduplicate;
+    }
+
+    /**
+     * @return the format of the saved results.
+     */
+    public ListTestCollection.Format getResultsFormat()
+    {
+        return this.listTestCollection.getFormat();
+    }
+
+    /**
+     * Set the format of the saved results (JSON by default).
+     * @param format
+     */
+    public void setResultsFormat(ListTestCollection.Format format)
+    {
+        this.listTestCollection.setFormat(format);
+    }
+
+    /**
+     * @return the compression of the saved results.
+     */
+    public Compression getResultsCompression()
+    {
+        return this.listTestCollection.getCompression();
+    }
+
+    /**
+     * Set the compression of the saved results (none by default).
+     * @param compression
+     */
+    public void setResultsCompression(Compression compression)
+    {
+        this.listTestCollection.setCompression(compression);
+    }
+
+    /**
+     * @return true if the failed domains of already tested lists are tested again.
+     */
+    public boolean isRetryFailed()
+    {
+        return retryFailed;
+    }
+
+    /**
+     * Set if the failed domains of already tested lists are tested again (false by default).
+     * If true, only the domains that were not tested successfully are submitted and their
+     * new results replace the previous ones in the saved results of the list.
+     * 
+     * @param retryFailed
+     */
+    public void setRetryFailed(boolean retryFailed)
+    {
+        this.retryFailed = retryFailed;
+    }
+
+    /**
+     * @return the limit of tests running at the same time in the batch server
+     * or null if there is no limit.
+     */
+    public BatchLimiter getBatchLimiter()
+    {
+        return batchLimiter;
+    }
+
+    /**
+     * Set the limit of tests (lists or shards) running at the same time in the batch server.
+     * New tests wait for the limit before being submitted.
+     * 
+     * @param batchLimiter - The limit or null to not limit the tests (default).
+     */
+    public void setBatchLimiter(BatchLimiter batchLimiter)
+    {
+        this.batchLimiter = batchLimiter;
+    }
+
+    /**
+     * @return the cache of domain results or null if results are not cached.
+     */
+    public DomainResultsCache getCache()
+    {
+        return cache;
+    }
+
+    /**
+     * Set the cache of domain results (none by default). Domains with fresh results
+     * in the cache are not submitted and the results of the tested domains are cached.
+     * 
+     * @param cache - The cache or null to not cache results.
+     */
+    public void setCache(DomainResultsCache cache)
+    {
+        this.cache = cache;
+    }
+
+    /**
+     * @return the policy that decides when the running tests are polled.
+     */
+    public PollPolicy getPollPolicy()
+    {
+        return pollPolicy;
+    }
+
+    /**
+     * Set the policy that decides when the running tests are polled
+     * (a {@link FixedPollPolicy} by default).
+     * @param pollPolicy
+     */
+    public void setPollPolicy(PollPolicy pollPolicy)
+    {
+        this.pollPolicy = Objects.requireNonNull(pollPolicy);
+    }
+
     /**
      * Set a listener for submitted lists to test.
      * @param listSubmittedListener - The function to execute when a list is submitted to test.
@@ -129,9 +366,10 @@ public class TestDomains implements Closeable
 
     /**
      * Set a listener for fetched results of a list.
-     * @param listFetchedResultsListener - The function to execute when the results of a list are fetched.
+     * @param listFetchedResultsListener - The function to execute when the results of a list are fetched
+     * and saved. It receives the api version and the request of the results.
      */
-    public void setListFetchedResultsListener(Consumer<ListTest> listFetchedResultsListener)
+    public void setListFetchedResultsListener(Consumer<TestInfo> listFetchedResultsListener)
     {
         this.listFetchedResultsListener = listFetchedResultsListener;
     }
@@ -170,13 +408,109 @@ public class TestDomains implements Closeable
     {
         createLogger();
         this.logger.info("Starting tests...");
-        
-        for (String list : this.listsToTest)
-            testList(list);
+
+        if (this.deduplicate)
+            createPlan();
+
+        if (this.batchLimiter != null)
+        {
+            this.batchLimiter.setLogger(this.logger);
+            this.logger.info(String.format("Running at most %d tests at the same time (%s limit).",
+                this.batchLimiter.getLimit(), this.batchLimiter.isAdaptive() ? "adaptive" : "fixed"));
+        }
+
+        try (StatusPoller poller = new StatusPoller(this.api, this.pollPolicy))
+        {
+            this.poller = poller;
+
+            if (this.parallelism == 1 || this.listsToTest.size() == 1)
+            {
+                for (String list : this.listsToTest)
+                    testList(list);
+            }
+            else
+                testListsConcurrently();
+        }
+        finally {
+            this.logger.info(String.format("Polled the status of the tests %d times (%d wasted polls).",
+                this.poller.getPolls(), this.poller.getWastedPolls()));
+
+            if (this.batchLimiter != null)
+                this.logger.info(String.format("Final limit of tests running at the same time: %d.",
+                    this.batchLimiter.getLimit()));
+
+            String statistics = this.api.getStatistics();
+            if (statistics != null)
+                this.logger.info("API requests: " + statistics);
+
+            this.poller = null;
+            this.plan = null;
+        }
 
         this.logger.info("All tests completed successfully!");
     }
 
+    /**
+     * Create the plan to test each unique domain of all lists only once.
+     */
+    private void createPlan()
+    {
+        LinkedHashMap<String, String[]> domainsByList = new LinkedHashMap<>();
+        for (String list : this.listsToTest)
+            domainsByList.put(list, getDomainsList(list));
+
+        this.plan = new DomainsPlan(domainsByList);
+        this.logger.info(String.format("Testing %d unique domains of %d domains in %d lists.",
+            this.plan.getUniqueDomains(), this.plan.getTotalDomains(), this.listsToTest.size()));
+    }
+
+    /**
+     * Test all lists concurrently, with at most {@link #getParallelism()} lists
+     * in flight. All lists are tested even if some of them fail.
+     * 
+     * @throws InternetnlAPIException
+     * @throws IOException
+     */
+    private void testListsConcurrently() throws InternetnlAPIException, IOException
+    {
+        int nThreads = Math.min(this.parallelism, this.listsToTest.size());
+        this.logger.info(String.format("Testing %d lists with at most %d lists in flight.",
+            this.listsToTest.size(), nThreads));
+
+        ExecutorService executor = Executors.newFixedThreadPool(nThreads, new ListThreadFactory());
+        try
+        {
+            List<Future<Void>> tests = new LinkedList<>();
+            for (String list : this.listsToTest)
+                tests.add(executor.submit(() -> { testList(list); return null; }));
+
+            Exception error = null;
+            for (Future<Void> test : tests)
+            {
+                try {
+                    Interrupts.await(test);
+                } catch (ExecutionException e) {
+                    if (error == null)
+                        error = e.getCause() instanceof Exception ? (Exception) e.getCause() : e;
+                    else
+                        error.addSuppressed(e.getCause());
+                }
+            }
+
+            if (error instanceof IOException)
+                throw (IOException) error;
+            if (error instanceof InternetnlAPIException)
+                throw (InternetnlAPIException) error;
+            if (error instanceof RuntimeException)
+                throw (RuntimeException) error;
+            if (error != null)
+                throw new RuntimeException(error);
+        }
+        finally {
+            executor.shutdownNow();
+        }
+    }
+
     /**
      * Test the domains in the specified list.
      * 
@@ -194,43 +528,55 @@ public class TestDomains implements Closeable
                 checkIndexConsistency(list))
             {
                 logger.info(String.format("Already tested list %s of type %s", list, this.type.getType()));
-                return;
-            }
 
-            String[] domainsList = Util.getDomainsList(this.domains, list, this.type);
+                if (this.retryFailed)
+                {
+                    ListTest listTest = retryFailedDomains(list);
+                    if (this.plan != null)
+                        this.plan.complete(list, TestResultCollector.from(listTest.getResults()));
+                }
+                else if (this.plan != null)
+                    this.plan.complete(list, TestResultCollector.from(loadResults(list).getResults()));
 
-            String testId = this.index.get(list);
-            if (testId == null)
-            {
-                RunningTest test = startTest(list, domainsList);
-                waitAndSaveResults(test, list, domainsList);
+                return;
             }
+
+            TestResultCollector result;
+            if (this.plan == null)
+                result = testDomains(list, getDomainsList(list));
             else
-            {
-                //try to get the results of a previous test. If not, launch a new one.
-                logger.info(String.format("Already started %s test on list %s with test id: %s",
-                    this.type.getType(), list, testId));
+                result = testDeduplicated(list);
+
+            saveResults(list, result);
+        } catch (IOException | InternetnlAPIException | RuntimeException e) {
+            if (this.plan != null)
+                this.plan.fail(list, e);
 
-                RunningTest test = new RunningTest(testId, api);
-                try
-                {
-                    waitAndSaveResults(test, list, domainsList);
-                } catch (TestIdNotFoundException e) {
-                    logger.warning(e.getMessage());
-
-                    // Previous test failed...
-                    // Submit a new test and wait for the results.
-                    test = startTest(list, domainsList);
-                    waitAndSaveResults(test, list, domainsList);
-                }
-            }
-        } catch (IOException | InternetnlAPIException e) {
             Logging.logStackTraceException(logger, e, String.format("An error occurred during %s test on list %s.",
             type.getType(), list));
             throw e;
         }
     }
 
+    /**
+     * Get the domains of the specified list.
+     * The workbook is not thread safe, so it is read by one list at a time.
+     * 
+     * @param list - The name of the list.
+     * @return The domains of the list.
+     */
+    private String[] getDomainsList(String list)
+    {
+        synchronized (this.domains) {
+            long startedAt = PhaseTimer.start();
+            try {
+                return Util.getDomainsList(this.domains, list, this.type);
+            } finally {
+                PhaseTimer.stop(PhaseTimer.WORKBOOK_PARSE, startedAt);
+            }
+        }
+    }
+
     /**
      * Check the index consistency.
      * @param list
@@ -244,12 +590,13 @@ public class TestDomains implements Closeable
             ListTest listTest = this.listTestCollection.getListResults(list);
             String listTestId = listTest.getResults().getRequest().getRequest_id();
 
-            // Test List results are corrupted.
-            // Request id must not be null.
+            // A list built only from the results of other lists has no request id.
+            // Otherwise, the test list results are corrupted.
             if (listTestId == null)
-                return false;
+                return listTest.getResults().getDomains() != null &&
+                    !listTest.getResults().getDomains().isEmpty();
 
-            this.index.assocList(list, listTestId);
+            this.index.assocSavedList(list, listTestId);
             this.index.save();
 
             return true;
@@ -261,6 +608,302 @@ public class TestDomains implements Closeable
         return false;
     }
 
+    /**
+     * Load the saved results of an already tested list.
+     * @param list
+     * @return The results of the list.
+     * @throws IOException
+     */
+    private ListTest loadResults(String list) throws IOException
+    {
+        try {
+            return this.listTestCollection.getListResults(list);
+        } catch (InvalidFormatException e) {
+            throw new IOException(e);
+        }
+    }
+
+    /**
+     * Test again the domains of an already tested list that were not tested successfully
+     * and replace their results in the saved results of the list.
+     * 
+     * @param list - The name of the list.
+     * @return The results of the list.
+     * @throws IOException
+     * @throws InternetnlAPIException
+     */
+    private ListTest retryFailedDomains(String list) throws IOException, InternetnlAPIException
+    {
+        ListTest listTest = loadResults(list);
+        LinkedHashMap<String, DomainResults> domainsResults = listTest.getResults().getDomains();
+
+        String[] failed = domainsResults.entrySet().stream()
+            .filter((entry) -> entry.getValue() == null ||
+                !DomainResults.STATUS_OK.equals(entry.getValue().getStatus()))
+            .map(Map.Entry::getKey)
+            .toArray(String[]::new);
+
+        if (failed.length == 0)
+        {
+            logger.info(String.format("There are no failed domains in list %s.", list));
+            return listTest;
+        }
+
+        logger.info(String.format("Retrying %d failed domains of %d in list %s.",
+            failed.length, domainsResults.size(), list));
+
+        String retryName = list + RETRY_SUFFIX;
+        TestResultCollector retried = testDomains(retryName, failed);
+
+        // replace in place to keep the original order of the domains.
+        int fixed = 0;
+        for (String domain : failed)
+        {
+            DomainResults domainResults = retried.get(domain);
+            if (domainResults == null)
+                continue;
+
+            domainsResults.put(domain, domainResults);
+            if (DomainResults.STATUS_OK.equals(domainResults.getStatus()))
+                fixed++;
+        }
+
+        saveResults(list, listTest.getResults());
+        logger.info(String.format("%d of %d failed domains in list %s were tested successfully.",
+            fixed, failed.length, list));
+
+        // the retry test is complete, so the next retry must submit a new test.
+        this.index.removeLists((name) -> name.equals(retryName) || name.startsWith(retryName + SHARD_SEPARATOR));
+        this.index.save();
+
+        return listTest;
+    }
+
+    /**
+     * Test the domains of a list owned by it in the plan and build its results
+     * from the shared results of all its domains.
+     * 
+     * @param list - The name of the list.
+     * @return The results of the list.
+     * @throws IOException
+     * @throws InternetnlAPIException
+     */
+    private TestResultCollector testDeduplicated(String list) throws IOException, InternetnlAPIException
+    {
+        String[] domainsList = this.plan.getDomains(list);
+        String[] ownedDomains = this.plan.getOwnedDomains(list);
+
+        TestResultCollector ownResult = null;
+        if (ownedDomains.length > 0)
+        {
+            ownResult = testDomains(list, ownedDomains);
+            this.plan.complete(list, ownResult);
+        }
+
+        if (ownedDomains.length < domainsList.length)
+            logger.info(String.format("Reusing the results of %d domains of list %s tested in other lists.",
+                domainsList.length - ownedDomains.length, list));
+
+        return this.plan.assemble(list, ownResult);
+    }
+
+    /**
+     * Test the specified domains of a list and wait for the results.
+     * The domains with fresh results in the cache are not submitted.
+     * 
+     * @param list - The name of the list.
+     * @param domainsList - The list of domains to test.
+     * @return The results ordered by the specified list of domains.
+     * @throws IOException
+     * @throws InternetnlAPIException
+     */
+    private TestResultCollector testDomains(String list, String[] domainsList)
+        throws IOException, InternetnlAPIException
+    {
+        if (this.cache == null)
+            return submitAndWait(list, domainsList);
+
+        Map<String, CachedDomainResults> cached = this.cache.getFresh(domainsList, this.type);
+        String[] toSubmit = Arrays.stream(domainsList)
+            .filter((domain) -> !cached.containsKey(domain))
+            .toArray(String[]::new);
+
+        if (!cached.isEmpty())
+            logger.info(String.format("Reusing cached results of %d of %d domains of list %s.",
+                domainsList.length - toSubmit.length, domainsList.length, list));
+
+        TestResultCollector result;
+        if (toSubmit.length == 0)
+            result = fromCache(list, cached);
+        else
+        {
+            result = submitAndWait(list, toSubmit);
+            this.cache.putAll(result, this.type);
+
+            for (Map.Entry<String, CachedDomainResults> entry : cached.entrySet())
+                result.accept(entry.getKey(), entry.getValue().getResults());
+        }
+
+        result.orderBy(domainsList);
+        return result;
+    }
+
+    /**
+     * Build the results of a list only from cached results.
+     * The request of the list is a copy of the request of the most recent cached results,
+     * without its request id, since no request was submitted for the list.
+     * 
+     * @param list - The name of the list.
+     * @param cached - The cached results of all domains of the list.
+     * @return The results of the list.
+     * @throws IOException
+     */
+    private static TestResultCollector fromCache(String list, Map<String, CachedDomainResults> cached)
+        throws IOException
+    {
+        CachedDomainResults latest = cached.values().stream()
+            .max(Comparator.comparingLong(CachedDomainResults::getCached)).get();
+
+        TestResultCollector result = new TestResultCollector(cached.size());
+        for (Map.Entry<String, CachedDomainResults> entry : cached.entrySet())
+            result.accept(entry.getKey(), entry.getValue().getResults());
+
+        TestResult header = new TestResult();
+        header.setApi_version(latest.getApi_version());
+        header.setRequest(DomainsPlan.copyRequest(latest.getRequest(), list));
+        result.finish(header);
+        return result;
+    }
+
+    /**
+     * Submit the specified domains of a list and wait for the results.
+     * If the number of domains exceeds the shard size, the domains are split in
+     * shards that are tested concurrently and the results are merged.
+     * 
+     * @param list - The name of the list.
+     * @param domainsList - The list of domains to test.
+     * @return The results ordered by the specified list of domains.
+     * @throws IOException
+     * @throws InternetnlAPIException
+     */
+    private TestResultCollector submitAndWait(String list, String[] domainsList)
+        throws IOException, InternetnlAPIException
+    {
+        List<String[]> shards = shard(domainsList);
+
+        if (shards.size() == 1)
+        {
+            TestResultCollector result = waitForResults(startOrResumeTest(list, domainsList), list, domainsList);
+            result.orderBy(domainsList);
+            return result;
+        }
+
+        logger.info(String.format("Splitting %s test on list %s with %d domains in %d shards.",
+            this.type.getType(), list, domainsList.length, shards.size()));
+
+        // Start all shards before waiting, so they run concurrently.
+        List<RunningTest> tests = new ArrayList<>(shards.size());
+        for (int i = 0; i < shards.size(); i++)
+        {
+            RunningTest test = startOrResumeTest(getShardName(list, i), shards.get(i));
+            test.watch();
+            tests.add(test);
+        }
+
+        List<TestResultCollector> results = new ArrayList<>(shards.size());
+        for (int i = 0; i < shards.size(); i++)
+            results.add(waitForResults(tests.get(i), getShardName(list, i), shards.get(i)));
+
+        TestResultCollector result = mergeResults(list, results);
+        result.orderBy(domainsList);
+        return result;
+    }
+
+    /**
+     * Split the domains of a list in shards of at most {@link #getShardSize()} domains.
+     * 
+     * @param domainsList
+     * @return The shards.
+     */
+    private List<String[]> shard(String[] domainsList)
+    {
+        if (this.shardSize == 0 || domainsList.length <= this.shardSize)
+            return Collections.singletonList(domainsList);
+
+        List<String[]> shards = new ArrayList<>(domainsList.length / this.shardSize + 1);
+        for (int from = 0; from < domainsList.length; from += this.shardSize)
+            shards.add(Arrays.copyOfRange(domainsList, from,
+                Math.min(from + this.shardSize, domainsList.length)));
+
+        return shards;
+    }
+
+    /**
+     * Get the name of a shard of a list. Shards are tracked in the Index by this name.
+     * @param list
+     * @param shard - The index of the shard.
+     * @return The name of the shard.
+     */
+    private static String getShardName(String list, int shard)
+    {
+        return list + SHARD_SEPARATOR + (shard + 1);
+    }
+
+    /**
+     * Merge the results of the shards of a list into the results of the first shard.
+     * The results of the other shards are copied one domain at a time.
+     * 
+     * @param list - The name of the list.
+     * @param results - The results of the shards.
+     * @return The merged results.
+     * @throws IOException
+     */
+    private static TestResultCollector mergeResults(String list, List<TestResultCollector> results)
+        throws IOException
+    {
+        TestResultCollector merged = results.get(0);
+        for (TestResultCollector result : results.subList(1, results.size()))
+            result.forEach(merged);
+
+        merged.getHeader().getRequest().setName(list);
+        return merged;
+    }
+
+    /**
+     * Start a new test or resume the test in the Index with the specified name.
+     * 
+     * @param name - The name of the test (a list or a shard of a list).
+     * @param domainsList - The list of domains to test.
+     * @return The running test.
+     * @throws IOException
+     * @throws InternetnlAPIException
+     */
+    private RunningTest startOrResumeTest(String name, String[] domainsList)
+        throws IOException, InternetnlAPIException
+    {
+        String testId = this.index.get(name);
+        if (testId == null)
+            return startTest(name, domainsList);
+
+        //try to get the results of a previous test. If not, launch a new one.
+        logger.info(String.format("Already started %s test on list %s with test id: %s",
+            this.type.getType(), name, testId));
+
+        RunningTest test = new RunningTest(testId, name, domainsList.length, false, this.poller);
+        if (this.batchLimiter != null)
+        {
+            long startedAt = this.batchLimiter.acquireNow();
+            try {
+                trackBatch(test, startedAt);
+            } catch (RuntimeException e) {
+                this.batchLimiter.release();
+                throw e;
+            }
+        }
+
+        return test;
+    }
+
     /**
      * Start the test associated to the specified list and type.
      * 
@@ -273,68 +916,175 @@ public class TestDomains implements Closeable
     private RunningTest startTest(String list, String[] domainsList)
         throws IOException, InternetnlAPIException
     {
+        long startedAt = this.batchLimiter == null ? 0 : this.batchLimiter.acquire();
+
         logger.info(String.format("Starting %s test on list %s", this.type.getType(), list));
 
-        TestInfo testInfo = this.api.submit(list, domainsList, this.type);
-        String testId = testInfo.getRequest().getRequest_id();
-        logger.info(String.format("Started %s test on list %s with id %s", type.getType(), list, testId));
+        TestInfo testInfo;
+        long submittedAt = PhaseTimer.start();
+        try {
+            testInfo = this.api.submit(list, domainsList, this.type);
+            PhaseTimer.stop(PhaseTimer.SUBMIT, submittedAt);
+        } catch (InternetnlAPIException | RuntimeException e)
+        {
+            if (this.batchLimiter != null)
+                this.batchLimiter.failed(startedAt);
 
-        // save id in case of an error.
-        this.index.assocList(list, testId);
-        this.index.save();
+            throw e;
+        }
+
+        try
+        {
+            String testId = testInfo.getRequest().getRequest_id();
+            logger.info(String.format("Started %s test on list %s with id %s", type.getType(), list, testId));
+
+            // save id in case of an error.
+            this.index.assocList(list, testId);
+            this.index.save();
+
+            notifyListener(this.listSubmittedListener, testInfo);
+
+            RunningTest test = new RunningTest(testId, list, domainsList.length, true, this.poller);
+            if (this.batchLimiter != null)
+                trackBatch(test, startedAt);
 
-        if (this.listSubmittedListener != null)
-            this.listSubmittedListener.accept(testInfo);
+            return test;
+        } catch (IOException | RuntimeException e)
+        {
+            // the batch was submitted, but it will not be tracked.
+            if (this.batchLimiter != null)
+                this.batchLimiter.release();
 
-        return new RunningTest(testId, this.api);
+            throw e;
+        }
     }
 
     /**
-     * Waits and saves the results of a list test.
+     * Release the batch of a test in the batch limiter when the test completes.
      * 
      * @param test - The test.
-     * @param list - The name of the list.
+     * @param startedAt - The time returned when the batch was acquired.
+     */
+    private void trackBatch(RunningTest test, long startedAt)
+    {
+        PolledTest polledTest = test.watch();
+        polledTest.getFuture().whenComplete((result, error) ->
+            {
+                if (error == null)
+                    this.batchLimiter.succeeded(startedAt,
+                        polledTest.isNewlySubmitted() ? polledTest.getElapsed() : -1, polledTest.getDomains());
+                else if (error instanceof TestIdNotFoundException)
+                    this.batchLimiter.release();
+                else
+                    this.batchLimiter.failed(startedAt);
+            });
+    }
+
+    /**
+     * Waits for the results of a test. If a resumed test does not exist anymore,
+     * a new test is submitted.
+     * 
+     * @param test - The test.
+     * @param list - The name of the list (or shard).
      * @param domainsList - The list of domains.
      * @return The results of the test.
-     * @throws IOException If an error occurred while saving the results.
+     * @throws IOException
      * @throws InternetnlAPIException
      */
-    private ListTest waitAndSaveResults(RunningTest test, String list, String[] domainsList)
+    private TestResultCollector waitForResults(RunningTest test, String list, String[] domainsList)
         throws IOException, InternetnlAPIException
     {
         logger.info(String.format("Waiting for %s test on list %s", this.type.getType(), list));
-        TestResult result = orderDomains(test.waitFor(), domainsList);
-        logger.info(String.format("Finished %s test on list %s and got results.", this.type.getType(), list));
 
-        ListTest listResults = new ListTest(list, result);
-        listTestCollection.saveListResults(listResults);
-        logger.info(String.format("Successfully saved results of %s test on list %s.", this.type.getType(), list));
+        try
+        {
+            return waitFor(test, list);
+        } catch (TestIdNotFoundException e) {
+            if (test.isNewlySubmitted())
+                throw e;
+
+            logger.warning(e.getMessage());
 
-        if (this.listFetchedResultsListener != null)
-            this.listFetchedResultsListener.accept(listResults);
-        
-        return listResults;
+            // Previous test failed...
+            // Submit a new test and wait for the results.
+            return waitFor(startTest(list, domainsList), list);
+        }
+    }
+
+    private TestResultCollector waitFor(RunningTest test, String list) throws InternetnlAPIException
+    {
+        TestResultCollector result = test.waitFor();
+        logger.info(String.format("Finished %s test on list %s and got results after %d polls (%d wasted).",
+            this.type.getType(), list, test.getPolls(), test.getWastedPolls()));
+
+        return result;
     }
 
     /**
-     * Order the domains by the specified domains List.
+     * Saves the results of a list test.
      * 
-     * @param result - The result that contains the domains results.
-     * @param domainsList - Order the domains by the specified list.
+     * @param list - The name of the list.
+     * @param result - The results of the list.
+     * @return The results of the list.
+     * @throws IOException If an error occurred while saving the results.
+     */
+    private void saveResults(String list, TestResult result) throws IOException
+    {
+        long startedAt = PhaseTimer.start();
+        listTestCollection.saveListResults(new ListTest(list, result));
+        savedResults(list, result, startedAt);
+    }
+
+    /**
+     * Saves the results of a list test kept in their compact form.
      * 
-     * @return The result.
+     * @param list - The name of the list.
+     * @param result - The results of the list.
+     * @throws IOException If an error occurred while saving the results.
      */
-    private TestResult orderDomains(TestResult result, String[] domainsList)
+    private void saveResults(String list, TestResultCollector result) throws IOException
     {
-        LinkedHashMap<String, DomainResults> unorderedDomains = result.getDomains();
-        LinkedHashMap<String, DomainResults> orderedDomains = new LinkedHashMap<>(result.getDomains().size());
-        
-        for (String domain : domainsList)
-            orderedDomains.put(domain, unorderedDomains.get(domain));
+        long startedAt = PhaseTimer.start();
+        listTestCollection.saveListResults(list, result);
+        savedResults(list, result.getHeader(), startedAt);
+    }
 
-        result.setDomains(orderedDomains);
+    /**
+     * Record the saved results of a list in the index and notify the listener.
+     * 
+     * @param list - The name of the list.
+     * @param header - The results of the list (only the api version and the request are used).
+     * @param startedAt - The time the results started to be saved.
+     * @throws IOException
+     */
+    private void savedResults(String list, TestResult header, long startedAt) throws IOException
+    {
+        if (header.getRequest() != null && header.getRequest().getRequest_id() != null)
+            this.index.assocSavedList(list, header.getRequest().getRequest_id());
+        PhaseTimer.stop(PhaseTimer.SAVE, startedAt);
 
-        return result;
+        logger.info(String.format("Successfully saved results of %s test on list %s.", this.type.getType(), list));
+
+        TestInfo info = new TestInfo();
+        info.setApi_version(header.getApi_version());
+        info.setRequest(header.getRequest());
+        notifyListener(this.listFetchedResultsListener, info);
+    }
+
+    /**
+     * Notify a listener. Listeners are never called concurrently.
+     * @param <T>
+     * @param listener - The listener or null if none.
+     * @param value - The value to pass to the listener.
+     */
+    private <T> void notifyListener(Consumer<T> listener, T value)
+    {
+        if (listener == null)
+            return;
+
+        synchronized (this.listenersLock) {
+            listener.accept(value);
+        }
     }
 
     private void createLogger() throws IOException
@@ -348,5 +1098,21 @@ public class TestDomains implements Closeable
     {
         this.domainsInputStream.close();
         this.domains.close();
-    }    
+    }
+
+    /**
+     * Creates the threads that test the lists.
+     */
+    private static class ListThreadFactory implements ThreadFactory
+    {
+        private final AtomicInteger counter = new AtomicInteger();
+
+        @Override
+        public Thread newThread(Runnable r)
+        {
+            Thread thread = new Thread(r, "test-list-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        }
+    }
 }
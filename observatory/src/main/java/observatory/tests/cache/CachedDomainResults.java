@@ -0,0 +1,138 @@
+package observatory.tests.cache;
+
+import observatory.internetnlAPI.config.InternetnlRequest;
+import observatory.internetnlAPI.config.RequestType;
+import observatory.internetnlAPI.config.testResult.domain.DomainResults;
+
+/**
+ * Represents the cached results of a domain.
+ * 
+ * @author Henrique Campos Ferreira
+ */
+public class CachedDomainResults
+{
+    private String domain, api_version;
+
+    private RequestType type;
+
+    /**
+     * The time (in millis) the results were cached.
+     */
+    private long cached;
+
+    /**
+     * The request of the test that produced the results.
+     */
+    private InternetnlRequest request;
+
+    private DomainResults results;
+
+    /**
+     * 
+     */
+    public CachedDomainResults() {
+    }
+
+    /**
+     * @param domain
+     * @param type
+     * @param api_version
+     * @param cached
+     * @param request
+     * @param results
+     */
+    public CachedDomainResults(String domain, RequestType type, String api_version, long cached,
+        InternetnlRequest request, DomainResults results)
+    {
+        this.domain = domain;
+        this.type = type;
+        this.api_version = api_version;
+        this.cached = cached;
+        this.request = request;
+        this.results = results;
+    }
+
+    /**
+     * @return the domain
+     */
+    public String getDomain() {
+        return domain;
+    }
+
+    /**
+     * @param domain the domain to set
+     */
+    public void setDomain(String domain) {
+        this.domain = domain;
+    }
+
+    /**
+     * @return the api_version
+     */
+    public String getApi_version() {
+        return api_version;
+    }
+
+    /**
+     * @param api_version the api_version to set
+     */
+    public void setApi_version(String api_version) {
+        this.api_version = api_version;
+    }
+
+    /**
+     * @return the type
+     */
+    public RequestType getType() {
+        return type;
+    }
+
+    /**
+     * @param type the type to set
+     */
+    public void setType(RequestType type) {
+        this.type = type;
+    }
+
+    /**
+     * @return the time (in millis) the results were cached.
+     */
+    public long getCached() {
+        return cached;
+    }
+
+    /**
+     * @param cached the cached to set
+     */
+    public void setCached(long cached) {
+        this.cached = cached;
+    }
+
+    /**
+     * @return the request of the test that produced the results.
+     */
+    public InternetnlRequest getRequest() {
+        return request;
+    }
+
+    /**
+     * @param request the request to set
+     */
+    public void setRequest(InternetnlRequest request) {
+        this.request = request;
+    }
+
+    /**
+     * @return the results
+     */
+    public DomainResults getResults() {
+        return results;
+    }
+
+    /**
+     * @param results the results to set
+     */
+    public void setResults(DomainResults results) {
+        this.results = results;
+    }
+}
@@ -0,0 +1,181 @@
+package observatory.tests.cache;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+
+import com.fasterxml.jackson.databind.json.JsonMapper;
+
+import observatory.internetnlAPI.config.RequestType;
+import observatory.internetnlAPI.config.testResult.TestResult;
+import observatory.internetnlAPI.config.testResult.TestResultCollector;
+import observatory.internetnlAPI.config.testResult.domain.DomainResults;
+import observatory.util.JSONserialization;
+
+/**
+ * A persistent cache of the results of each domain, keyed by (domain, type, api version).
+ * Each entry is stored in its own file and expires after a configurable time to live.
+ * Only the results of domains successfully tested are cached.
+ * <p>
+ * The api version of a result is only known after a test, so the cache keeps the last
+ * api version seen for each type: entries of an older version are not reused.
+ *
+ * @author Henrique Campos Ferreira
+ */
+public class DomainResultsCache
+{
+    public static final String DEFAULT_FOLDER_NAME = "cache";
+
+    private static final String API_VERSION_FILE_NAME = "api_version";
+
+    private final File cacheFolder;
+
+    private final long ttlMillis;
+
+    private final JsonMapper mapper;
+
+    private final Map<RequestType, String> apiVersions;
+
+    /**
+     * Creates a new cache in the specified folder.
+     *
+     * @param cacheFolder - The folder of the cache.
+     * @param ttl - The time to live of each entry.
+     * @throws IOException if the cache folder could not be created.
+     */
+    public DomainResultsCache(File cacheFolder, Duration ttl) throws IOException
+    {
+        this.cacheFolder = Objects.requireNonNull(cacheFolder);
+        this.ttlMillis = ttl.toMillis();
+        this.mapper = JSONserialization.getMapper();
+        this.apiVersions = new HashMap<>();
+
+        for (RequestType type : RequestType.values())
+        {
+            File typeFolder = getTypeFolder(type);
+            typeFolder.mkdirs();
+            if (!typeFolder.isDirectory())
+                throw new IOException("Invalid cache location.");
+
+            File apiVersionFile = new File(typeFolder, API_VERSION_FILE_NAME);
+            if (apiVersionFile.isFile())
+                this.apiVersions.put(type, Files.readString(apiVersionFile.toPath()).trim());
+        }
+    }
+
+    /**
+     * Get the fresh cached results of the specified domains.
+     *
+     * @param domains - The domains.
+     * @param type - The type of test.
+     * @return A map of (domain; cached results) of the domains with fresh results.
+     */
+    public Map<String, CachedDomainResults> getFresh(String[] domains, RequestType type)
+    {
+        Map<String, CachedDomainResults> result = new HashMap<>();
+        String apiVersion = getApiVersion(type);
+        if (apiVersion == null)
+            return result;
+
+        long now = System.currentTimeMillis();
+        for (String domain : domains)
+        {
+            File entryFile = getEntryFile(domain, type);
+            if (!entryFile.isFile())
+                continue;
+
+            try
+            {
+                CachedDomainResults entry = this.mapper.readValue(entryFile, CachedDomainResults.class);
+                if (apiVersion.equals(entry.getApi_version()) && now - entry.getCached() <= this.ttlMillis)
+                    result.put(domain, entry);
+            } catch (Exception e) {
+                // a corrupted entry is a cache miss.
+            }
+        }
+
+        return result;
+    }
+
+    /**
+     * Cache the results of all domains successfully tested.
+     *
+     * @param result - The results of a test.
+     * @param type - The type of test.
+     * @throws IOException
+     */
+    public void putAll(TestResultCollector result, RequestType type) throws IOException
+    {
+        TestResult header = result.getHeader();
+        String apiVersion = header.getApi_version();
+        if (apiVersion == null)
+            return;
+
+        setApiVersion(type, apiVersion);
+
+        long now = System.currentTimeMillis();
+        result.forEach((domain, domainResults) ->
+            {
+                if (domainResults == null || !DomainResults.STATUS_OK.equals(domainResults.getStatus()))
+                    return;
+
+                CachedDomainResults entry = new CachedDomainResults(domain, type, apiVersion, now,
+                    header.getRequest(), domainResults);
+
+                write(getEntryFile(domain, type), entry);
+            });
+    }
+
+    private synchronized String getApiVersion(RequestType type)
+    {
+        return this.apiVersions.get(type);
+    }
+
+    private synchronized void setApiVersion(RequestType type, String apiVersion) throws IOException
+    {
+        if (apiVersion.equals(this.apiVersions.get(type)))
+            return;
+
+        Files.writeString(new File(getTypeFolder(type), API_VERSION_FILE_NAME).toPath(), apiVersion);
+        this.apiVersions.put(type, apiVersion);
+    }
+
+    /**
+     * Write an entry to a temporary file and move it to its location, so concurrent
+     * readers never see a partial entry.
+     * @param entryFile
+     * @param entry
+     * @throws IOException
+     */
+    private void write(File entryFile, CachedDomainResults entry) throws IOException
+    {
+        File tempFile = File.createTempFile(entryFile.getName(), ".tmp", entryFile.getParentFile());
+        try
+        {
+            this.mapper.writeValue(tempFile, entry);
+            Files.move(tempFile.toPath(), entryFile.toPath(),
+                StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            tempFile.delete();
+        }
+    }
+
+    private File getTypeFolder(RequestType type)
+    {
+        return new File(this.cacheFolder, type.getType());
+    }
+
+    private File getEntryFile(String domain, RequestType type)
+    {
+        String fileName = URLEncoder.encode(domain.toLowerCase(Locale.ROOT), StandardCharsets.UTF_8);
+        return new File(getTypeFolder(type), fileName + ".json");
+    }
+}
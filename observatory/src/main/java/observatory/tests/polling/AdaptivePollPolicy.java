@@ -0,0 +1,87 @@
+package observatory.tests.polling;
+
+import java.util.Objects;
+
+import observatory.tests.polling.PollHistory.ListHistory;
+
+/**
+ * A poll policy that adapts the poll times to the expected completion time of
+ * each test. The expected completion time is taken from the past tests of the same
+ * list (scaled by the number of domains) or, if there are none, estimated from the
+ * number of domains. The first poll happens close to the expected completion time
+ * and the following polls back off exponentially up to a ceiling.
+ *
+ * @author Henrique Campos Ferreira
+ */
+public class AdaptivePollPolicy implements PollPolicy
+{
+    private static final long MIN_INTERVAL_MILLIS = 10 * 1000;
+
+    private static final long MAX_INTERVAL_MILLIS = 5 * 60 * 1000;
+
+    private static final long BASE_ESTIMATE_MILLIS = 60 * 1000;
+
+    private static final long ESTIMATE_MILLIS_PER_DOMAIN = 1000;
+
+    /**
+     * The fraction of the expected completion time to wait before the first poll.
+     */
+    private static final double FIRST_POLL_FRACTION = 0.9;
+
+    private static final long RESULTS_DELAY_MILLIS = 2 * 1000;
+
+    private final PollHistory history;
+
+    /**
+     * @param history - The history of past tests.
+     */
+    public AdaptivePollPolicy(PollHistory history)
+    {
+        this.history = Objects.requireNonNull(history);
+    }
+
+    /**
+     * Get the expected completion time of a test.
+     * @param test
+     * @return The expected completion time in milliseconds.
+     */
+    public long expectedCompletion(PolledTest test)
+    {
+        ListHistory listHistory = this.history.get(test.getList());
+
+        if (listHistory == null || listHistory.getSamples() == 0 || listHistory.getDomains() == 0)
+            return BASE_ESTIMATE_MILLIS + ESTIMATE_MILLIS_PER_DOMAIN * test.getDomains();
+
+        return listHistory.getCompletionMillis() * test.getDomains() / listHistory.getDomains();
+    }
+
+    @Override
+    public long firstPollDelay(PolledTest test)
+    {
+        // The elapsed time of a resumed test is unknown.
+        if (!test.isNewlySubmitted())
+            return 0;
+
+        return Math.max(MIN_INTERVAL_MILLIS, (long) (expectedCompletion(test) * FIRST_POLL_FRACTION));
+    }
+
+    @Override
+    public long nextPollDelay(PolledTest test)
+    {
+        long ceiling = Math.min(MAX_INTERVAL_MILLIS,
+            Math.max(MIN_INTERVAL_MILLIS, expectedCompletion(test) / 4));
+
+        int backoff = Math.min(test.getWastedPolls() - 1, 30);
+        return Math.min(ceiling, MIN_INTERVAL_MILLIS << Math.max(backoff, 0));
+    }
+
+    @Override
+    public long resultsDelay(PolledTest test) {
+        return RESULTS_DELAY_MILLIS;
+    }
+
+    @Override
+    public void finished(PolledTest test) {
+        this.history.record(test);
+    }
+}
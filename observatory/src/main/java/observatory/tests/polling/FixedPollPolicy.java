@@ -0,0 +1,54 @@
+package observatory.tests.polling;
+
+/**
+ * A poll policy that polls at a fixed interval.
+ * 
+ * @author Henrique Campos Ferreira
+ */
+public class FixedPollPolicy implements PollPolicy
+{
+    /**
+     * The default interval between two polls.
+     */
+    public static final long DEFAULT_INTERVAL_MILLIS = 30 * 1000;
+
+    /**
+     * The default delay between a test finishing and fetching its results.
+     */
+    public static final long DEFAULT_RESULTS_DELAY_MILLIS = 5 * 1000;
+
+    private final long intervalMillis, resultsDelayMillis;
+
+    /**
+     * Creates a new policy with the default interval.
+     */
+    public FixedPollPolicy()
+    {
+        this(DEFAULT_INTERVAL_MILLIS, DEFAULT_RESULTS_DELAY_MILLIS);
+    }
+
+    /**
+     * @param intervalMillis - The interval between two polls.
+     * @param resultsDelayMillis - The delay between a test finishing and fetching its results.
+     */
+    public FixedPollPolicy(long intervalMillis, long resultsDelayMillis)
+    {
+        this.intervalMillis = intervalMillis;
+        this.resultsDelayMillis = resultsDelayMillis;
+    }
+
+    @Override
+    public long firstPollDelay(PolledTest test) {
+        return 0;
+    }
+
+    @Override
+    public long nextPollDelay(PolledTest test) {
+        return this.intervalMillis;
+    }
+
+    @Override
+    public long resultsDelay(PolledTest test) {
+        return this.resultsDelayMillis;
+    }
+}
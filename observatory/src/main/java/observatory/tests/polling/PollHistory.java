@@ -0,0 +1,201 @@
+package observatory.tests.polling;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Objects;
+
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import com.fasterxml.jackson.databind.type.MapType;
+import com.fasterxml.jackson.databind.type.TypeFactory;
+
+import observatory.util.InvalidFormatException;
+import observatory.util.JSONserialization;
+
+/**
+ * Records the completion times and polls of past tests of each list.
+ *
+ * @author Henrique Campos Ferreira
+ */
+public class PollHistory
+{
+    public static final String DEFAULT_FILE_NAME = "poll-history.conf";
+
+    /**
+     * The weight of a new completion time in the average.
+     */
+    private static final double NEW_SAMPLE_WEIGHT = 0.5;
+
+    private final Map<String, ListHistory> history;
+
+    private final File historyFile;
+
+    private final JsonMapper mapper;
+
+    private PollHistory(Map<String, ListHistory> history, File historyFile, JsonMapper mapper)
+    {
+        this.history = history;
+        this.historyFile = historyFile;
+        this.mapper = mapper;
+    }
+
+    /**
+     * Load the poll history from the specified file. If the file does not exist
+     * creates a new empty history.
+     *
+     * @param historyFile
+     * @return The poll history.
+     * @throws IOException
+     * @throws InvalidFormatException if the file has an invalid format.
+     */
+    public static PollHistory fromFileIfExists(File historyFile) throws IOException, InvalidFormatException
+    {
+        JsonMapper mapper = JSONserialization.getMapper();
+
+        if (!Objects.requireNonNull(historyFile).isFile())
+            return new PollHistory(new HashMap<>(), historyFile, mapper);
+
+        MapType type = TypeFactory.defaultInstance()
+            .constructMapType(HashMap.class, String.class, ListHistory.class);
+
+        try
+        {
+            Map<String, ListHistory> history = mapper.readValue(historyFile, type);
+            return new PollHistory(history, historyFile, mapper);
+        } catch (IOException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new InvalidFormatException(e);
+        }
+    }
+
+    /**
+     * Get the history of the specified list.
+     * @param list
+     * @return The history of the list or null if there is none.
+     */
+    public synchronized ListHistory get(String list)
+    {
+        return this.history.get(list);
+    }
+
+    /**
+     * Record the completion of a test.
+     *
+     * @param test - The finished test.
+     */
+    public synchronized void record(PolledTest test)
+    {
+        ListHistory listHistory = this.history.computeIfAbsent(test.getList(), (list) -> new ListHistory());
+
+        if (test.isNewlySubmitted())
+        {
+            long completion = test.getElapsed();
+            listHistory.completionMillis = listHistory.samples == 0 ? completion :
+                (long) (NEW_SAMPLE_WEIGHT * completion + (1 - NEW_SAMPLE_WEIGHT) * listHistory.completionMillis);
+            listHistory.domains = test.getDomains();
+            listHistory.samples++;
+        }
+
+        listHistory.polls += test.getPolls();
+        listHistory.wastedPolls += test.getWastedPolls();
+    }
+
+    /**
+     * Save the history.
+     * @throws IOException
+     */
+    public synchronized void save() throws IOException
+    {
+        this.mapper.writeValue(this.historyFile, this.history);
+    }
+
+    /**
+     * The history of the tests of a list.
+     */
+    public static class ListHistory
+    {
+        private long completionMillis;
+
+        private int domains, samples;
+
+        private long polls, wastedPolls;
+
+        /**
+         *
+         */
+        public ListHistory() {
+        }
+
+        /**
+         * @return the average completion time of the tests.
+         */
+        public long getCompletionMillis() {
+            return completionMillis;
+        }
+
+        /**
+         * @param completionMillis the completionMillis to set
+         */
+        public void setCompletionMillis(long completionMillis) {
+            this.completionMillis = completionMillis;
+        }
+
+        /**
+         * @return the number of domains of the last test.
+         */
+        public int getDomains() {
+            return domains;
+        }
+
+        /**
+         * @param domains the domains to set
+         */
+        public void setDomains(int domains) {
+            this.domains = domains;
+        }
+
+        /**
+         * @return the number of completion times recorded.
+         */
+        public int getSamples() {
+            return samples;
+        }
+
+        /**
+         * @param samples the samples to set
+         */
+        public void setSamples(int samples) {
+            this.samples = samples;
+        }
+
+        /**
+         * @return the total number of polls.
+         */
+        public long getPolls() {
+            return polls;
+        }
+
+        /**
+         * @param polls the polls to set
+         */
+        public void setPolls(long polls) {
+            this.polls = polls;
+        }
+
+        /**
+         * @return the total number of wasted polls.
+         */
+        public long getWastedPolls() {
+            return wastedPolls;
+        }
+
+        /**
+         * @param wastedPolls the wastedPolls to set
+         */
+        public void setWastedPolls(long wastedPolls) {
+            this.wastedPolls = wastedPolls;
+        }
+    }
+}
@@ -0,0 +1,40 @@
+package observatory.tests.polling;
+
+/**
+ * A policy that decides when the status of a running test is polled.
+ * 
+ * @author Henrique Campos Ferreira
+ */
+public interface PollPolicy
+{
+    /**
+     * Get the delay before the first poll of a test.
+     * 
+     * @param test - The test.
+     * @return The delay in milliseconds.
+     */
+    long firstPollDelay(PolledTest test);
+
+    /**
+     * Get the delay before the next poll of a test that has not finished yet.
+     * 
+     * @param test - The test.
+     * @return The delay in milliseconds.
+     */
+    long nextPollDelay(PolledTest test);
+
+    /**
+     * Get the delay between a test finishing and fetching its results.
+     * 
+     * @param test - The test.
+     * @return The delay in milliseconds.
+     */
+    long resultsDelay(PolledTest test);
+
+    /**
+     * Called when a test has finished.
+     * 
+     * @param test - The finished test.
+     */
+    default void finished(PolledTest test) {}
+}
@@ -0,0 +1,137 @@
+package observatory.tests.polling;
+
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+
+import observatory.internetnlAPI.config.testResult.TestResultCollector;
+
+/**
+ * Represents a test watched by a {@link StatusPoller}.
+ *
+ * @author Henrique Campos Ferreira
+ */
+public class PolledTest
+{
+    private final String testId, list;
+
+    private final int domains;
+
+    private final boolean newlySubmitted;
+
+    private final long watchedSince;
+
+    final CompletableFuture<TestResultCollector> future;
+
+    private volatile int polls;
+
+    private volatile long nextPoll, finishedAt;
+
+    /**
+     * @param testId - The id of the test.
+     * @param list - The name of the tested list.
+     * @param domains - The number of tested domains.
+     * @param newlySubmitted - true if the test was submitted right before being watched.
+     */
+    PolledTest(String testId, String list, int domains, boolean newlySubmitted)
+    {
+        this.testId = Objects.requireNonNull(testId);
+        this.list = Objects.requireNonNull(list);
+        this.domains = domains;
+        this.newlySubmitted = newlySubmitted;
+        this.watchedSince = System.currentTimeMillis();
+        this.future = new CompletableFuture<>();
+        this.finishedAt = -1;
+    }
+
+    /**
+     * @return the testId
+     */
+    public String getTestId() {
+        return testId;
+    }
+
+    /**
+     * @return the name of the tested list.
+     */
+    public String getList() {
+        return list;
+    }
+
+    /**
+     * @return the number of tested domains.
+     */
+    public int getDomains() {
+        return domains;
+    }
+
+    /**
+     * @return true if the test was submitted right before being watched,
+     * i.e. the elapsed time is the completion time of the test.
+     */
+    public boolean isNewlySubmitted() {
+        return newlySubmitted;
+    }
+
+    /**
+     * @return the time (in millis) the test started being watched.
+     */
+    public long getWatchedSince() {
+        return watchedSince;
+    }
+
+    /**
+     * @return the elapsed time (in millis) since the test started being watched.
+     */
+    public long getElapsed()
+    {
+        return (this.finishedAt < 0 ? System.currentTimeMillis() : this.finishedAt) - this.watchedSince;
+    }
+
+    /**
+     * @return the future that is completed with the results of the test, in a compact form.
+     */
+    public CompletableFuture<TestResultCollector> getFuture() {
+        return future;
+    }
+
+    /**
+     * @return the number of polls performed.
+     */
+    public int getPolls() {
+        return polls;
+    }
+
+    /**
+     * Get the number of wasted polls, i.e. the polls that reported the test
+     * had not finished yet.
+     *
+     * @return the number of wasted polls.
+     */
+    public int getWastedPolls()
+    {
+        return this.finishedAt < 0 ? this.polls : this.polls - 1;
+    }
+
+    /**
+     * @return true if the test has finished.
+     */
+    public boolean isFinished() {
+        return this.finishedAt >= 0;
+    }
+
+    long getNextPoll() {
+        return nextPoll;
+    }
+
+    void setNextPoll(long nextPoll) {
+        this.nextPoll = nextPoll;
+    }
+
+    void polled() {
+        this.polls++;
+    }
+
+    void setFinished() {
+        this.finishedAt = System.currentTimeMillis();
+    }
+}
@@ -0,0 +1,266 @@
+package observatory.tests.polling;
+
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import observatory.internetnlAPI.AsyncInternetnlAPI;
+import observatory.internetnlAPI.BlockingInternetnlAPI;
+import observatory.internetnlAPI.InternetnlAPI;
+import observatory.internetnlAPI.InternetnlAPIException;
+import observatory.internetnlAPI.config.TestInfo;
+import observatory.internetnlAPI.config.testResult.TestResultCollector;
+import observatory.util.PhaseTimer;
+
+/**
+ * Polls the status of all running tests in a single timed sweep.
+ * Each watched test gets a future that is completed with its results once the
+ * API reports a finished date, so the number of threads and the poll rate do not
+ * depend on the number of tests in flight. The poll times of each test are chosen
+ * by a {@link PollPolicy}.
+ * <p>
+ * Polls and results are requested through the non-blocking view of the API, so a sweep
+ * does not wait for the responses of the tests it polls.
+ *
+ * @author Henrique Campos Ferreira
+ */
+public class StatusPoller implements AutoCloseable
+{
+    private static final int FETCH_THREADS = 2;
+
+
+    private final InternetnlAPI api;
+
+    private final AsyncInternetnlAPI asyncApi;
+
+    private final PollPolicy policy;
+
+    private final ScheduledExecutorService scheduler;
+
+    private final ExecutorService fetchExecutor;
+
+    /**
+     * All watched tests that have not finished yet.
+     */
+    private final Map<String, PolledTest> watched;
+
+    private final AtomicLong polls, wastedPolls;
+
+    private ScheduledFuture<?> nextSweep;
+
+    private long nextSweepAt;
+
+    /**
+     * Creates a new poller for the tests of the specified API.
+     *
+     * @param api
+     * @param policy - The policy that decides when each test is polled.
+     */
+    public StatusPoller(InternetnlAPI api, PollPolicy policy)
+    {
+        this.api = Objects.requireNonNull(api);
+        this.policy = Objects.requireNonNull(policy);
+        this.watched = new ConcurrentHashMap<>();
+        this.polls = new AtomicLong();
+        this.wastedPolls = new AtomicLong();
+        this.nextSweepAt = Long.MAX_VALUE;
+
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(
+            (r) -> daemonThread(r, "status-poller"));
+        this.fetchExecutor = Executors.newFixedThreadPool(FETCH_THREADS,
+            (r) -> daemonThread(r, "results-fetcher"));
+        this.asyncApi = api.toAsync(this.fetchExecutor);
+    }
+
+    /**
+     * @return the api
+     */
+    public InternetnlAPI getApi() {
+        return api;
+    }
+
+    /**
+     * @return the total number of polls performed.
+     */
+    public long getPolls() {
+        return polls.get();
+    }
+
+    /**
+     * @return the total number of polls that reported a test had not finished yet.
+     */
+    public long getWastedPolls() {
+        return wastedPolls.get();
+    }
+
+    /**
+     * Watch the specified test until it finishes.
+     *
+     * @param testId - The id of the test.
+     * @param list - The name of the tested list.
+     * @param domains - The number of tested domains.
+     * @param newlySubmitted - true if the test was submitted right before this call.
+     * @return The watched test. Its future is completed with the results of the test or
+     * exceptionally with an {@link InternetnlAPIException}.
+     */
+    public PolledTest watch(String testId, String list, int domains, boolean newlySubmitted)
+    {
+        Objects.requireNonNull(testId);
+
+        PolledTest test = this.watched.computeIfAbsent(testId,
+            (id) ->
+            {
+                PolledTest newTest = new PolledTest(id, list, domains, newlySubmitted);
+                newTest.setNextPoll(System.currentTimeMillis() + this.policy.firstPollDelay(newTest));
+                return newTest;
+            });
+
+        scheduleSweep(test.getNextPoll());
+        return test;
+    }
+
+    /**
+     * Schedule a sweep at the specified time, unless there is an earlier one scheduled.
+     * @param time
+     */
+    private synchronized void scheduleSweep(long time)
+    {
+        if (this.scheduler.isShutdown() || (this.nextSweep != null && time >= this.nextSweepAt))
+            return;
+
+        if (this.nextSweep != null)
+            this.nextSweep.cancel(false);
+
+        this.nextSweepAt = time;
+        this.nextSweep = this.scheduler.schedule(this::sweep,
+            Math.max(0, time - System.currentTimeMillis()), TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Poll the status of all tests that are due and schedule the next sweep.
+     */
+    private void sweep()
+    {
+        synchronized (this) {
+            this.nextSweep = null;
+            this.nextSweepAt = Long.MAX_VALUE;
+        }
+
+        long next = Long.MAX_VALUE;
+        for (PolledTest test : this.watched.values())
+        {
+            if (test.getNextPoll() <= System.currentTimeMillis())
+                poll(test);
+
+            if (!test.isFinished() && !test.future.isDone())
+                next = Math.min(next, test.getNextPoll());
+        }
+
+        if (next != Long.MAX_VALUE)
+            scheduleSweep(next);
+    }
+
+    /**
+     * Poll the status of a test.
+     * @param test
+     */
+    private void poll(PolledTest test)
+    {
+        test.polled();
+        this.polls.incrementAndGet();
+
+        // the test is not polled again until its status is known.
+        test.setNextPoll(Long.MAX_VALUE);
+
+        this.asyncApi.status(test.getTestId()).whenComplete((info, error) ->
+            {
+                if (error == null)
+                    polled(test, info);
+                else
+                {
+                    this.watched.remove(test.getTestId());
+                    test.future.completeExceptionally(BlockingInternetnlAPI.unwrap(error));
+                }
+            });
+    }
+
+    /**
+     * Handle the status of a polled test.
+     * @param test
+     * @param info - The status of the test.
+     */
+    private void polled(PolledTest test, TestInfo info)
+    {
+        try
+        {
+            if (info.getRequest().getFinished_date() != null)
+            {
+                test.setFinished();
+                PhaseTimer.record(PhaseTimer.WAIT, TimeUnit.MILLISECONDS.toNanos(test.getElapsed()));
+                this.watched.remove(test.getTestId());
+                this.policy.finished(test);
+                fetchResults(test);
+            }
+            else
+            {
+                this.wastedPolls.incrementAndGet();
+                test.setNextPoll(System.currentTimeMillis() + this.policy.nextPollDelay(test));
+                scheduleSweep(test.getNextPoll());
+            }
+        } catch (RuntimeException e) {
+            this.watched.remove(test.getTestId());
+            test.future.completeExceptionally(new InternetnlAPIException(e));
+        }
+    }
+
+    /**
+     * Fetch the results of a finished test and complete its future.
+     * The results are streamed into a compact collector, one domain at a time,
+     * and kept encoded until they are saved.
+     * @param test
+     */
+    private void fetchResults(PolledTest test)
+    {
+        TestResultCollector collector = new TestResultCollector(test.getDomains());
+        CompletableFuture.delayedExecutor(this.policy.resultsDelay(test), TimeUnit.MILLISECONDS, this.fetchExecutor)
+            .execute(() ->
+            {
+                long startedAt = PhaseTimer.start();
+                this.asyncApi.get(test.getTestId(), collector).whenComplete((result, error) ->
+                {
+                    if (error == null)
+                    {
+                        PhaseTimer.stop(PhaseTimer.DOWNLOAD, startedAt);
+                        collector.finish(result);
+                        test.future.complete(collector);
+                    }
+                    else
+                        test.future.completeExceptionally(BlockingInternetnlAPI.unwrap(error));
+                });
+            });
+    }
+
+    private static Thread daemonThread(Runnable r, String name)
+    {
+        Thread thread = new Thread(r, name);
+        thread.setDaemon(true);
+        return thread;
+    }
+
+    @Override
+    public void close()
+    {
+        this.scheduler.shutdownNow();
+        this.fetchExecutor.shutdownNow();
+
+        InternetnlAPIException closed = new InternetnlAPIException("The status poller was closed.");
+        this.watched.values().forEach((test) -> test.future.completeExceptionally(closed));
+    }
+}
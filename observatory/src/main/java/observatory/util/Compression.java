@@ -0,0 +1,126 @@
+package observatory.util;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * The compression of the files saved by the application.
+ * Compressed files are recognized by their magic bytes, not by their name,
+ * so a file is read the same way whether it is compressed or not.
+ *
+ * @author Henrique Campos Ferreira
+ */
+public enum Compression
+{
+    NONE("none", ""),
+    GZIP("gzip", ".gz");
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private static final byte[] GZIP_MAGIC = { (byte) 0x1f, (byte) 0x8b };
+
+    private final String name;
+
+    private final String extension;
+
+    private Compression(String name, String extension)
+    {
+        this.name = name;
+        this.extension = extension;
+    }
+
+    /**
+     * @return the name of the compression.
+     */
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * @return the extension appended to the name of a compressed file.
+     */
+    public String getExtension() {
+        return extension;
+    }
+
+    /**
+     * Get the compression with the specified name.
+     * @param name
+     * @return The compression.
+     * @throws IllegalArgumentException if there is no compression with the specified name.
+     */
+    public static Compression fromName(String name)
+    {
+        for (Compression compression : values())
+            if (compression.name.equalsIgnoreCase(name))
+                return compression;
+
+        throw new IllegalArgumentException("Unknown compression: " + name);
+    }
+
+    /**
+     * Open a buffered stream that writes to a file with this compression, replacing its content.
+     * @param output - The file.
+     * @return The stream.
+     * @throws IOException
+     */
+    public OutputStream openOutputStream(File output) throws IOException
+    {
+        OutputStream stream = Channels.newOutputStream(FileChannel.open(output.toPath(), StandardOpenOption.CREATE,
+            StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE));
+
+        if (this == GZIP)
+            return new BufferedOutputStream(new GZIPOutputStream(stream, BUFFER_SIZE), BUFFER_SIZE);
+
+        return new BufferedOutputStream(stream, BUFFER_SIZE);
+    }
+
+    /**
+     * Open a buffered stream that reads the uncompressed content of a file, compressed or not.
+     * @param input - The file.
+     * @return The stream.
+     * @throws IOException
+     */
+    public static InputStream openInputStream(File input) throws IOException
+    {
+        InputStream stream = new BufferedInputStream(
+            Channels.newInputStream(FileChannel.open(input.toPath(), StandardOpenOption.READ)), BUFFER_SIZE);
+
+        try
+        {
+            stream.mark(GZIP_MAGIC.length);
+            boolean compressed = Arrays.equals(stream.readNBytes(GZIP_MAGIC.length), GZIP_MAGIC);
+            stream.reset();
+
+            return compressed ? new BufferedInputStream(new GZIPInputStream(stream, BUFFER_SIZE), BUFFER_SIZE)
+                : stream;
+        } catch (IOException e) {
+            stream.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Checks if a file is compressed.
+     * @param file
+     * @return true if the file starts with the magic bytes of a compressed file.
+     * @throws IOException
+     */
+    public static boolean isCompressed(File file) throws IOException
+    {
+        try (InputStream input = Channels.newInputStream(FileChannel.open(file.toPath(), StandardOpenOption.READ)))
+        {
+            return Arrays.equals(input.readNBytes(GZIP_MAGIC.length), GZIP_MAGIC);
+        }
+    }
+}
@@ -0,0 +1,62 @@
+package observatory.util;
+
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+
+/**
+ * Blocking operations that stop when the thread is interrupted.
+ * The interrupt flag is restored and the operation fails with a {@link CancellationException},
+ * so the owner of the thread (e.g. an executor being shut down) can stop it.
+ *
+ * @author Henrique Campos Ferreira
+ */
+public final class Interrupts
+{
+    private Interrupts() {}
+
+    /**
+     * Restore the interrupt flag of the current thread.
+     * @param e - The interrupt.
+     * @return The exception that stops the interrupted operation.
+     */
+    public static CancellationException interrupted(InterruptedException e)
+    {
+        Thread.currentThread().interrupt();
+
+        CancellationException error = new CancellationException("The operation was interrupted.");
+        error.initCause(e);
+        return error;
+    }
+
+    /**
+     * Wait for the result of a future.
+     * @param <T> - The type of the result.
+     * @param future
+     * @return The result.
+     * @throws ExecutionException If the operation of the future failed.
+     * @throws CancellationException If the thread was interrupted or the future was cancelled.
+     */
+    public static <T> T await(Future<T> future) throws ExecutionException
+    {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            throw interrupted(e);
+        }
+    }
+
+    /**
+     * Wait until the monitor is notified. The calling thread must own the monitor.
+     * @param monitor
+     * @throws CancellationException If the thread was interrupted.
+     */
+    public static void waitOn(Object monitor)
+    {
+        try {
+            monitor.wait();
+        } catch (InterruptedException e) {
+            throw interrupted(e);
+        }
+    }
+}
@@ -0,0 +1,131 @@
+package observatory.util;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import com.fasterxml.jackson.databind.JavaType;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+
+import observatory.internetnlAPI.config.TestInfo;
+import observatory.internetnlAPI.config.testResult.TestResult;
+import observatory.tests.Index;
+
+/**
+ * The JSON serialization shared by every component that reads or writes JSON.
+ * <p>
+ * There is a single mapper, configured by {@link JSONconfig}, so the serializers and deserializers
+ * that Jackson builds for a type are built once and reused. The readers and writers of each type
+ * are cached and, being immutable, can be used by several threads at once. The readers and writers
+ * of the results, test information and index records are built when this class is loaded.
+ * Files are read and written through buffered file channels and may be {@link Compression compressed}.
+ *
+ * @author Henrique Campos Ferreira
+ */
+public final class JSONserialization
+{
+    private static final JsonMapper MAPPER = JSONconfig.getJSONmapper();
+
+    private static final ConcurrentMap<JavaType, ObjectReader> READERS = new ConcurrentHashMap<>();
+
+    private static final ConcurrentMap<JavaType, ObjectWriter> WRITERS = new ConcurrentHashMap<>();
+
+    static
+    {
+        for (Class<?> type : new Class<?>[] { TestResult.class, TestInfo.class, Index.Record.class })
+        {
+            reader(type);
+            writer(type);
+        }
+    }
+
+    private JSONserialization() {}
+
+    /**
+     * @return The shared mapper. It must not be reconfigured.
+     */
+    public static JsonMapper getMapper()
+    {
+        return MAPPER;
+    }
+
+    /**
+     * @param type
+     * @return The reader of the specified type.
+     */
+    public static ObjectReader reader(Class<?> type)
+    {
+        return reader(MAPPER.constructType(type));
+    }
+
+    /**
+     * @param type
+     * @return The reader of the specified type.
+     */
+    public static ObjectReader reader(JavaType type)
+    {
+        return READERS.computeIfAbsent(type, MAPPER::readerFor);
+    }
+
+    /**
+     * @param type
+     * @return The writer of the specified type.
+     */
+    public static ObjectWriter writer(Class<?> type)
+    {
+        return WRITERS.computeIfAbsent(MAPPER.constructType(type), MAPPER::writerFor);
+    }
+
+    /**
+     * Read a value from a JSON file, compressed or not.
+     *
+     * @param <T> - The type of the value.
+     * @param input - The file.
+     * @param type - The class object of the type of the value.
+     * @return The value.
+     * @throws IOException
+     */
+    public static <T> T readFile(File input, Class<T> type) throws IOException
+    {
+        try (InputStream stream = Compression.openInputStream(input))
+        {
+            return reader(type).readValue(stream);
+        }
+    }
+
+    /**
+     * Write a value to a JSON file, replacing its content.
+     *
+     * @param output - The file.
+     * @param value - The value.
+     * @param type - The class object of the type of the value.
+     * @throws IOException
+     */
+    public static void writeFile(File output, Object value, Class<?> type) throws IOException
+    {
+        writeFile(output, value, type, Compression.NONE);
+    }
+
+    /**
+     * Write a value to a JSON file with the specified compression, replacing its content.
+     *
+     * @param output - The file.
+     * @param value - The value.
+     * @param type - The class object of the type of the value.
+     * @param compression - The compression of the file.
+     * @throws IOException
+     */
+    public static void writeFile(File output, Object value, Class<?> type, Compression compression)
+        throws IOException
+    {
+        try (OutputStream stream = compression.openOutputStream(output))
+        {
+            writer(type).writeValue(stream, value);
+        }
+    }
+}
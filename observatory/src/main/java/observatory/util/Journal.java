@@ -0,0 +1,211 @@
+package observatory.util;
+
+import java.io.BufferedOutputStream;
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Objects;
+import java.util.function.Consumer;
+import java.util.logging.Logger;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+
+/**
+ * An append-only journal of JSON records, one record per line.
+ * <p>
+ * Each record is forced to disk when it is appended, so a crash can at most leave the
+ * last record without its line end. That partial record is removed when the journal is
+ * replayed, and a record is always appended on a new line, so it is never joined to a
+ * partial record. The lines that cannot be parsed are skipped and logged.
+ * <p>
+ * The journal is compacted by rewriting it to a temporary file that replaces it atomically.
+ *
+ * @param <T> - The type of the records.
+ *
+ * @author Henrique Campos Ferreira
+ */
+public class Journal<T>
+{
+    private static final Logger LOGGER = Logger.getLogger(Journal.class.getCanonicalName());
+
+    private final File file;
+
+    private final ObjectReader reader;
+
+    private final ObjectWriter writer;
+
+    /**
+     * @param file - The file of the journal.
+     * @param type - The class object of the records.
+     */
+    public Journal(File file, Class<T> type)
+    {
+        this.file = Objects.requireNonNull(file);
+        this.reader = JSONserialization.reader(type);
+        this.writer = JSONserialization.writer(type);
+    }
+
+    /**
+     * Read the records of the journal, in the order they were appended.
+     * A partial record at the end of the journal is removed.
+     *
+     * @param consumer - Receives each record.
+     * @return The number of records read.
+     * @throws IOException
+     */
+    public int replay(Consumer<T> consumer) throws IOException
+    {
+        if (!this.file.isFile())
+            return 0;
+
+        truncatePartialRecord();
+
+        int records = 0, lineNumber = 0;
+        try (BufferedReader lines = Files.newBufferedReader(this.file.toPath(), StandardCharsets.UTF_8))
+        {
+            String line;
+            while ((line = lines.readLine()) != null)
+            {
+                lineNumber++;
+                if (line.isBlank())
+                    continue;
+
+                T record;
+                try {
+                    record = this.reader.readValue(line);
+                } catch (JsonProcessingException e) {
+                    LOGGER.warning(String.format("Skipped invalid record at line %d of %s: %s",
+                        lineNumber, this.file, e.getOriginalMessage()));
+                    continue;
+                }
+
+                consumer.accept(record);
+                records++;
+            }
+        }
+
+        return records;
+    }
+
+    /**
+     * Remove the bytes after the last line end, written by an append interrupted by a crash.
+     * @throws IOException
+     */
+    private void truncatePartialRecord() throws IOException
+    {
+        try (FileChannel channel = FileChannel.open(this.file.toPath(), StandardOpenOption.READ,
+            StandardOpenOption.WRITE))
+        {
+            long end = channel.size();
+            ByteBuffer buffer = ByteBuffer.allocate(8192);
+            long position = end;
+            while (position > 0)
+            {
+                int length = (int) Math.min(buffer.capacity(), position);
+                position -= length;
+                buffer.clear().limit(length);
+                while (buffer.hasRemaining())
+                    if (channel.read(buffer, position + buffer.position()) < 0)
+                        throw new IOException("Unexpected end of " + this.file);
+
+                for (int i = length - 1; i >= 0; i--)
+                {
+                    if (buffer.get(i) != '\n')
+                        continue;
+
+                    long lineEnd = position + i + 1;
+                    if (lineEnd < end)
+                        truncate(channel, lineEnd, end);
+                    return;
+                }
+            }
+
+            if (end > 0)
+                truncate(channel, 0, end);
+        }
+    }
+
+    private void truncate(FileChannel channel, long size, long end) throws IOException
+    {
+        LOGGER.warning(String.format("Removed a partial record (%d bytes) at the end of %s.", end - size, this.file));
+        channel.truncate(size);
+        channel.force(false);
+    }
+
+    /**
+     * Append a record to the journal and force it to disk.
+     * @param record
+     * @throws IOException
+     */
+    public void append(T record) throws IOException
+    {
+        byte[] json = this.writer.writeValueAsBytes(record);
+
+        try (FileChannel channel = FileChannel.open(this.file.toPath(), StandardOpenOption.CREATE,
+            StandardOpenOption.READ, StandardOpenOption.WRITE))
+        {
+            long end = channel.size();
+            boolean newLine = false;
+            if (end > 0)
+            {
+                ByteBuffer last = ByteBuffer.allocate(1);
+                channel.read(last, end - 1);
+                newLine = last.get(0) != '\n';
+            }
+
+            ByteBuffer buffer = ByteBuffer.allocate(json.length + 2);
+            if (newLine)
+                buffer.put((byte) '\n');
+            buffer.put(json).put((byte) '\n').flip();
+
+            channel.position(end);
+            while (buffer.hasRemaining())
+                channel.write(buffer);
+            channel.force(false);
+        }
+    }
+
+    /**
+     * Replace the journal with the specified records.
+     * @param records
+     * @throws IOException
+     */
+    public void rewrite(Iterable<? extends T> records) throws IOException
+    {
+        File tempFile = new File(this.file.getPath() + ".tmp");
+
+        try (FileChannel channel = FileChannel.open(tempFile.toPath(), StandardOpenOption.CREATE,
+            StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE))
+        {
+            OutputStream output = new BufferedOutputStream(Channels.newOutputStream(channel));
+            for (T record : records)
+            {
+                output.write(this.writer.writeValueAsBytes(record));
+                output.write('\n');
+            }
+
+            output.flush();
+            channel.force(true);
+        }
+
+        Files.move(tempFile.toPath(), this.file.toPath(),
+            StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /**
+     * @return the file of the journal.
+     */
+    public File getFile() {
+        return file;
+    }
+}
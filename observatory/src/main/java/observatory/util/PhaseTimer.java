@@ -0,0 +1,137 @@
+package observatory.util;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Accumulates the time spent in each phase of the test and report commands,
+ * so a scan can be profiled end to end without a profiler attached.
+ * Phases run concurrently (e.g. several lists are submitted at once), so each phase
+ * keeps the sum of its durations and the wall time between its first start and last end.
+ *
+ * @author Henrique Campos Ferreira
+ */
+public final class PhaseTimer
+{
+    public static final String WORKBOOK_PARSE = "workbook_parse";
+    public static final String SUBMIT = "submit";
+    public static final String WAIT = "wait";
+    public static final String DOWNLOAD = "download";
+    public static final String SAVE = "save";
+    public static final String RESULTS_LOAD = "results_load";
+    public static final String REPORT_GENERATE = "report_generate";
+    public static final String REPORT_WRITE = "report_write";
+
+    private static final ConcurrentMap<String, Phase> PHASES = new ConcurrentHashMap<>();
+
+    private PhaseTimer() {}
+
+    /**
+     * @return The start time of a phase, to be passed to {@link #stop(String, long)}.
+     */
+    public static long start()
+    {
+        return System.nanoTime();
+    }
+
+    /**
+     * Record a phase that started at the specified time and ended now.
+     *
+     * @param phase - The name of the phase.
+     * @param startedAt - The value returned by {@link #start()}.
+     */
+    public static void stop(String phase, long startedAt)
+    {
+        record(phase, System.nanoTime() - startedAt);
+    }
+
+    /**
+     * Record a phase that took the specified time and ended now.
+     *
+     * @param phase - The name of the phase.
+     * @param nanos - The duration of the phase, in nanoseconds.
+     */
+    public static void record(String phase, long nanos)
+    {
+        PHASES.computeIfAbsent(phase, (name) -> new Phase()).add(nanos, System.currentTimeMillis());
+    }
+
+    /**
+     * @return A copy of the phases recorded so far, sorted by name.
+     */
+    public static Map<String, Phase> snapshot()
+    {
+        Map<String, Phase> snapshot = new TreeMap<>();
+        PHASES.forEach((name, phase) -> snapshot.put(name, phase.copy()));
+        return Collections.unmodifiableMap(snapshot);
+    }
+
+    /**
+     * Forget the phases recorded so far.
+     */
+    public static void reset()
+    {
+        PHASES.clear();
+    }
+
+    /**
+     * The time spent in a phase.
+     */
+    public static final class Phase
+    {
+        private long count, totalNanos, firstStart, lastEnd;
+
+        private Phase() {
+            this.firstStart = Long.MAX_VALUE;
+        }
+
+        private synchronized void add(long nanos, long endedAt)
+        {
+            this.count++;
+            this.totalNanos += nanos;
+            this.firstStart = Math.min(this.firstStart, endedAt - TimeUnit.NANOSECONDS.toMillis(nanos));
+            this.lastEnd = Math.max(this.lastEnd, endedAt);
+        }
+
+        private synchronized Phase copy()
+        {
+            Phase copy = new Phase();
+            copy.count = this.count;
+            copy.totalNanos = this.totalNanos;
+            copy.firstStart = this.firstStart;
+            copy.lastEnd = this.lastEnd;
+            return copy;
+        }
+
+        /**
+         * @return The number of times the phase was recorded.
+         */
+        public long getCount() {
+            return count;
+        }
+
+        /**
+         * @return The sum of the durations of the phase, in millis.
+         */
+        public long getTotalMillis() {
+            return TimeUnit.NANOSECONDS.toMillis(totalNanos);
+        }
+
+        /**
+         * @return The time between the first start and the last end of the phase, in millis.
+         */
+        public long getWallMillis() {
+            return this.count == 0 ? 0 : this.lastEnd - this.firstStart;
+        }
+
+        @Override
+        public String toString()
+        {
+            return String.format("%d times, %d ms total, %d ms wall", this.count, getTotalMillis(), getWallMillis());
+        }
+    }
+}
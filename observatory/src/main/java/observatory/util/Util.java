@@ -38,6 +38,7 @@ public class Util
 
     /**
      * Get a List Results Index from a file. If the file does not exist creates a new one.
+     * A legacy index in the same folder is migrated to the new index file.
      * 
      * @param indexFile - The file that contains the index or the location of the new Index file.
      * @return The Index.
@@ -46,9 +47,13 @@ public class Util
      */
     public static Index getIndexIfExists(File indexFile) throws IOException, InvalidFormatException
     {
+        File legacyFile = new File(indexFile.getAbsoluteFile().getParentFile(), Index.LEGACY_FILE_NAME);
+
         Index index;
         if (indexFile.isFile()) // if index exists then load it
             index = Index.fromFile(indexFile);
+        else if (legacyFile.isFile()) // migrate the legacy index
+            index = Index.fromLegacyFile(legacyFile, indexFile);
         else // create a new index
             index = Index.empty(indexFile);
 